@@ -4,6 +4,7 @@ import com.redis.store.constants.ClusterShardStrategy;
 import com.redis.store.constants.ClusterStatus;
 import com.redis.store.constants.ClusterType;
 import com.redis.store.constants.NodeStatus;
+import com.redis.store.hash.HashAlgorithm;
 import org.apache.commons.collections.CollectionUtils;
 import org.apache.commons.lang.ArrayUtils;
 import org.codehaus.jackson.annotate.JsonIgnore;
@@ -26,6 +27,10 @@ public class Cluster implements Serializable {
     private ClusterStatus status;
     private ClusterShardStrategy shardStrategy = ClusterShardStrategy.CONSISTENT_HASH;
     private ClusterType clusterType = ClusterType.REDIS;
+    /** CONSISTENT_HASH使用的hash算法，为空时使用KETAMA_HASH(MD5) */
+    private HashAlgorithm consistentHashAlgorithm;
+    /** SLOT策略的slot分配表，为空时按节点顺序平均分配16384个slot */
+    private List<SlotRange> slotRanges = new ArrayList<>();
 
     private volatile int nodeWarmupDurationSec;
 
@@ -213,4 +218,20 @@ public class Cluster implements Serializable {
         this.clusterType = clusterType;
     }
 
+    public HashAlgorithm getConsistentHashAlgorithm() {
+        return consistentHashAlgorithm;
+    }
+
+    public void setConsistentHashAlgorithm(HashAlgorithm consistentHashAlgorithm) {
+        this.consistentHashAlgorithm = consistentHashAlgorithm;
+    }
+
+    public List<SlotRange> getSlotRanges() {
+        return slotRanges;
+    }
+
+    public void setSlotRanges(List<SlotRange> slotRanges) {
+        this.slotRanges = slotRanges;
+    }
+
 }
@@ -1,5 +1,6 @@
 package com.redis.store.cluster;
 
+import com.redis.store.constants.MultiMasterWritePolicy;
 import com.redis.store.constants.NodeReadStrategy;
 import com.redis.store.constants.NodeStatus;
 import com.redis.store.constants.NodeWriteStrategy;
@@ -24,6 +25,8 @@ public class Node implements Serializable {
     private List<Instance> instances = new CopyOnWriteArrayList<>();
     private NodeWriteStrategy writeStrategy = NodeWriteStrategy.MASTER;
     private NodeReadStrategy readStrategy = NodeReadStrategy.SLAVES;
+    /** MUILTI_MASTER的写完成策略，为空时使用系统属性config.multi.master.write.policy(默认sequential) */
+    private MultiMasterWritePolicy writePolicy;
     private NodeStatus status = NodeStatus.ACTIVE;
     private int priority;
 
@@ -203,6 +206,14 @@ public class Node implements Serializable {
         this.writeStrategy = writeStrategy;
     }
 
+    public MultiMasterWritePolicy getWritePolicy() {
+        return writePolicy;
+    }
+
+    public void setWritePolicy(MultiMasterWritePolicy writePolicy) {
+        this.writePolicy = writePolicy;
+    }
+
     public NodeReadStrategy getReadStrategy() {
         return readStrategy;
     }
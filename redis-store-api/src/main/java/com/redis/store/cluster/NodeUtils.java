@@ -87,6 +87,7 @@ public final class NodeUtils {
         NodeReadStrategy readStrategy = node.getReadStrategy();
         switch (readStrategy) {
             case SLAVES:
+            case ADAPTIVE:
                 List<Instance> slaves = NodeUtils.getSlaves(node);
                 if (slaves.size() > 1) {
                     Collections.shuffle(slaves);
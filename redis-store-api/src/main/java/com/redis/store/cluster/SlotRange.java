@@ -0,0 +1,74 @@
+package com.redis.store.cluster;
+
+import org.codehaus.jackson.annotate.JsonIgnoreProperties;
+
+import java.io.Serializable;
+import java.util.Objects;
+
+/**
+ * SLOT策略下的一段slot分配：[start, end](闭区间，与redis cluster一致)归属nodeName。
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class SlotRange implements Serializable {
+
+    private static final long serialVersionUID = 2417086313930386531L;
+    private int start;
+    private int end;
+    private String nodeName;
+
+    public SlotRange() {
+        // For jackson.
+    }
+
+    public SlotRange(int start, int end, String nodeName) {
+        this.start = start;
+        this.end = end;
+        this.nodeName = nodeName;
+    }
+
+    public int getStart() {
+        return start;
+    }
+
+    public void setStart(int start) {
+        this.start = start;
+    }
+
+    public int getEnd() {
+        return end;
+    }
+
+    public void setEnd(int end) {
+        this.end = end;
+    }
+
+    public String getNodeName() {
+        return nodeName;
+    }
+
+    public void setNodeName(String nodeName) {
+        this.nodeName = nodeName;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof SlotRange)) {
+            return false;
+        }
+        SlotRange other = (SlotRange) o;
+        return start == other.start && end == other.end && Objects.equals(nodeName, other.nodeName);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(start, end, nodeName);
+    }
+
+    @Override
+    public String toString() {
+        return "slotRange[" + start + "-" + end + ":" + nodeName + "]";
+    }
+}
@@ -10,7 +10,13 @@ public enum ClusterShardStrategy {
 
     REGION_SUFFIX,
 
-    HEX_PREFIX_MOD;
+    HEX_PREFIX_MOD,
+
+    JUMP_HASH,
+
+    RENDEZVOUS_HASH,
+
+    SLOT;
 
     @Override
     public String toString() {
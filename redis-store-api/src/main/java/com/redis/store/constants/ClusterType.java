@@ -6,7 +6,9 @@ public enum ClusterType {
 
     MONGODB("/mongoclusters"),
 
-    MYSQL("/mysqlclusters");
+    MYSQL("/mysqlclusters"),
+
+    ONESTORE("/onestoreclusters");
 
     private final String configRootPath;
 
@@ -0,0 +1,34 @@
+package com.redis.store.constants;
+
+/**
+ * MUILTI_MASTER写策略下，写命令何时算完成。
+ */
+public enum MultiMasterWritePolicy {
+    /** 依次写每个master，任一失败即抛出(原有行为) */
+    SEQUENTIAL("sequential"),
+    /** 并行写所有master，全部成功后返回 */
+    ALL("all"),
+    /** 并行写所有master，过半成功后返回，其余在后台完成 */
+    QUORUM("quorum"),
+    /** 并行写所有master，第一个成功后返回，其余在后台完成 */
+    FIRST_ACK("first_ack");
+
+    private String value;
+
+    MultiMasterWritePolicy(String value) {
+        this.value = value;
+    }
+
+    @Override
+    public String toString() {
+        return value;
+    }
+
+    public static MultiMasterWritePolicy valueof(String value) {
+        for (MultiMasterWritePolicy v : values()) {
+            if (v.value.equalsIgnoreCase(value))
+                return v;
+        }
+        throw new IllegalArgumentException();
+    }
+}
@@ -1,7 +1,7 @@
 package com.redis.store.constants;
 
 public enum NodeReadStrategy {
-    MASTER("master"), SLAVES("slaves"), RANDOM("random");
+    MASTER("master"), SLAVES("slaves"), RANDOM("random"), ADAPTIVE("adaptive");
     
     private String value;
 
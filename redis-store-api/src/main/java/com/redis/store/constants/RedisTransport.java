@@ -0,0 +1,30 @@
+package com.redis.store.constants;
+
+/**
+ * 客户端与redis实例之间的传输方式，按集群在RedisConfigStoreProxy.getProxyInstance中指定。
+ */
+public enum RedisTransport {
+    /** 每个命令从JedisPool借一个连接(原有行为) */
+    POOLED("pooled"),
+    /** 每个实例少量非阻塞连接，多个线程的命令合并写出(自动pipeline)，按FIFO匹配响应；不支持的命令仍走连接池 */
+    MULTIPLEXED("multiplexed");
+
+    private String value;
+
+    RedisTransport(String value) {
+        this.value = value;
+    }
+
+    @Override
+    public String toString() {
+        return value;
+    }
+
+    public static RedisTransport valueof(String value) {
+        for (RedisTransport v : values()) {
+            if (v.value.equalsIgnoreCase(value))
+                return v;
+        }
+        throw new IllegalArgumentException();
+    }
+}
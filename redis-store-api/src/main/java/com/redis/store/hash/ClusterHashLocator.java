@@ -31,7 +31,7 @@ public class ClusterHashLocator {
 
         switch (strategy) {
             case CONSISTENT_HASH:
-                hashLocator = new KetamaHashLocator(nodeList);
+                hashLocator = new KetamaHashLocator(nodeList, cluster.getConsistentHashAlgorithm());
                 break;
             case MOD:
                 hashLocator = new ModLocator(nodeList);
@@ -45,6 +45,15 @@ public class ClusterHashLocator {
             case HEX_PREFIX_MOD:
                 hashLocator = new HexPrefixModLocator(nodeList);
                 break;
+            case JUMP_HASH:
+                hashLocator = new JumpHashLocator(nodeList);
+                break;
+            case RENDEZVOUS_HASH:
+                hashLocator = new RendezvousHashLocator(nodeList);
+                break;
+            case SLOT:
+                hashLocator = new SlotHashLocator(nodeList, cluster.getSlotRanges());
+                break;
             default:
                 break;
         }
@@ -55,6 +64,35 @@ public class ClusterHashLocator {
         return hashLocator.getNodeByKey(hashKey);
     }
 
+    /**
+     * 节点状态变化(未触发rehash)时调用。
+     */
+    public void nodeStatusChanged() {
+        if (hashLocator instanceof KetamaHashLocator) {
+            ((KetamaHashLocator) hashLocator).refreshActive();
+        }
+    }
+
+    /**
+     * 节点权重(priority)变化时调用，重建按权重分布的locator。
+     */
+    public void nodeWeightChanged() {
+        if (hashLocator instanceof KetamaHashLocator) {
+            ((KetamaHashLocator) hashLocator).rebuild();
+        } else if (hashLocator instanceof RendezvousHashLocator) {
+            ((RendezvousHashLocator) hashLocator).rebuild();
+        }
+    }
+
+    /**
+     * 节点的start/end变化时调用，重建按区间划分的locator的索引。
+     */
+    public void nodeRangeChanged() {
+        if (hashLocator instanceof RegionHashLocator) {
+            ((RegionHashLocator) hashLocator).rebuild();
+        }
+    }
+
     public ClusterShardStrategy getStrategy() {
         return strategy;
     }
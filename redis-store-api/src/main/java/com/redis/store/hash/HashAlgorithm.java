@@ -28,6 +28,13 @@ public enum HashAlgorithm {
      */
     KETAMA_HASH,
 
+    /**
+     * MurmurHash3 x86_32(seed 0) over the UTF-8 bytes of the key. Much cheaper
+     * than KETAMA_HASH, but places keys differently, so it must be chosen
+     * explicitly for a cluster.
+     */
+    MURMUR3_HASH,
+
     /** 11 % 10 = 1 */
     MOD,
 
@@ -57,6 +64,9 @@ public enum HashAlgorithm {
             byte[] bKey = computeMd5(k);
             rv = (long) (bKey[3] & 0xFF) << 24 | (long) (bKey[2] & 0xFF) << 16 | (long) (bKey[1] & 0xFF) << 8 | bKey[0] & 0xFF;
             break;
+        case MURMUR3_HASH:
+            rv = murmur3(k);
+            break;
         default:
             assert false;
         }
@@ -86,6 +96,9 @@ public enum HashAlgorithm {
                         (long) (bytesMd5[1] & 0xFF) << 8 |
                         bytesMd5[0] & 0xFF;
                 break;
+            case MURMUR3_HASH:
+                rv = murmur3(bytes);
+                break;
             default:
                 throw new Error();
         }
@@ -116,6 +129,79 @@ public enum HashAlgorithm {
         return md5.digest();
     }
 
+    private static final int MURMUR3_C1 = 0xcc9e2d51;
+    private static final int MURMUR3_C2 = 0x1b873593;
+
+    /**
+     * 纯ASCII的key(绝大多数情况)直接按char计算，与其UTF-8字节的结果相同，不分配byte[]。
+     */
+    private static int murmur3(String k) {
+        int length = k.length();
+        if (length == 0) {
+            throw new IllegalArgumentException("Key must not be blank");
+        }
+        for (int i = 0; i < length; i++) {
+            if (k.charAt(i) >= 0x80) {
+                return murmur3(getBytes(k));
+            }
+        }
+
+        int h1 = 0;
+        int i = 0;
+        for (; i + 4 <= length; i += 4) {
+            int k1 = k.charAt(i) | k.charAt(i + 1) << 8 | k.charAt(i + 2) << 16 | k.charAt(i + 3) << 24;
+            h1 = murmur3MixH1(h1, murmur3MixK1(k1));
+        }
+        int k1 = 0;
+        for (int shift = 0; i < length; i++, shift += 8) {
+            k1 |= k.charAt(i) << shift;
+        }
+        if ((length & 3) != 0) {
+            h1 ^= murmur3MixK1(k1);
+        }
+        return murmur3Fmix(h1, length);
+    }
+
+    private static int murmur3(byte[] bytes) {
+        int length = bytes.length;
+        int h1 = 0;
+        int i = 0;
+        for (; i + 4 <= length; i += 4) {
+            int k1 = (bytes[i] & 0xFF) | (bytes[i + 1] & 0xFF) << 8 | (bytes[i + 2] & 0xFF) << 16 | (bytes[i + 3] & 0xFF) << 24;
+            h1 = murmur3MixH1(h1, murmur3MixK1(k1));
+        }
+        int k1 = 0;
+        for (int shift = 0; i < length; i++, shift += 8) {
+            k1 |= (bytes[i] & 0xFF) << shift;
+        }
+        if ((length & 3) != 0) {
+            h1 ^= murmur3MixK1(k1);
+        }
+        return murmur3Fmix(h1, length);
+    }
+
+    private static int murmur3MixK1(int k1) {
+        k1 *= MURMUR3_C1;
+        k1 = Integer.rotateLeft(k1, 15);
+        return k1 * MURMUR3_C2;
+    }
+
+    private static int murmur3MixH1(int h1, int k1) {
+        h1 ^= k1;
+        h1 = Integer.rotateLeft(h1, 13);
+        return h1 * 5 + 0xe6546b64;
+    }
+
+    private static int murmur3Fmix(int h1, int length) {
+        h1 ^= length;
+        h1 ^= h1 >>> 16;
+        h1 *= 0x85ebca6b;
+        h1 ^= h1 >>> 13;
+        h1 *= 0xc2b2ae35;
+        h1 ^= h1 >>> 16;
+        return h1;
+    }
+
     private static final byte[] getBytes(String k) {
         if (k == null || k.length() == 0) {
             throw new IllegalArgumentException("Key must not be blank");
@@ -3,36 +3,26 @@ package com.redis.store.hash;
 import com.redis.store.cluster.Node;
 import org.apache.log4j.Logger;
 
-import java.util.HashMap;
+import java.util.Arrays;
 import java.util.List;
-import java.util.Map;
 
 public class HexPrefixModLocator implements IHashLocator {
     private static Logger logger = Logger.getLogger(HexPrefixModLocator.class);
 
-    private static final Map<Character, Integer> MAP;
+    /** 字符 -> 十六进制值，只接受0-9和大写A-F，其余为-1 */
+    private static final int[] HEX = new int[128];
 
     static {
-        MAP = new HashMap<>();
-        MAP.put('0', 0);
-        MAP.put('1', 1);
-        MAP.put('2', 2);
-        MAP.put('3', 3);
-        MAP.put('4', 4);
-        MAP.put('5', 5);
-        MAP.put('6', 6);
-        MAP.put('7', 7);
-        MAP.put('8', 8);
-        MAP.put('9', 9);
-        MAP.put('A', 10);
-        MAP.put('B', 11);
-        MAP.put('C', 12);
-        MAP.put('D', 13);
-        MAP.put('E', 14);
-        MAP.put('F', 15);
+        Arrays.fill(HEX, -1);
+        for (char c = '0'; c <= '9'; c++) {
+            HEX[c] = c - '0';
+        }
+        for (char c = 'A'; c <= 'F'; c++) {
+            HEX[c] = c - 'A' + 10;
+        }
     }
 
-    private List<Node> allNodes;
+    private volatile List<Node> allNodes;
 
     HexPrefixModLocator(List<Node> nodes) {
         this.allNodes = nodes;
@@ -40,14 +30,16 @@ public class HexPrefixModLocator implements IHashLocator {
 
     @Override
     public Node getNodeByKey(String hashKey) {
-        Integer prefix = MAP.get(hashKey.charAt(0));
-        if (prefix == null) {
+        char first = hashKey.charAt(0);
+        int prefix = first < HEX.length ? HEX[first] : -1;
+        if (prefix < 0) {
             logger.error("Get node error for: " + hashKey);
             return null;
         }
 
-        int index = prefix % allNodes.size();
-        return allNodes.get(index);
+        List<Node> nodes = allNodes;
+        int index = prefix % nodes.size();
+        return nodes.get(index);
     }
 
     @Override
@@ -0,0 +1,119 @@
+package com.redis.store.hash;
+
+import com.redis.store.cluster.Node;
+import com.redis.store.constants.NodeStatus;
+import org.apache.log4j.Logger;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Jump consistent hash(Lamping & Veach)：不需要环，内存O(1)，各节点分到的key几乎完全均匀。
+ * <p/>
+ * 节点即桶，桶号为节点在列表中的位置(ClusterHashLocator按start、secondShardKey、name排序)。
+ * 节点数从n增加到n+1时，只有约1/(n+1)的key移动，且全部移到新增的最后一个桶；
+ * 因此新节点必须排在最后(例如按加入顺序递增设置start)，插在中间或删除非最后的节点会使其后所有桶的key重新分布。
+ * <p/>
+ * 构建后变为非ACTIVE的节点不重建桶：落在该节点的key以新的种子重新jump，直到落到ACTIVE节点，其他key不受影响；
+ * 重新jump桶数次仍未落到ACTIVE节点时顺序查找，只有所有节点都不是ACTIVE时才返回null。
+ */
+public class JumpHashLocator implements IHashLocator {
+    private static Logger logger = Logger.getLogger(JumpHashLocator.class);
+
+    private volatile Node[] buckets;
+
+    public JumpHashLocator(List<Node> nodes) {
+        this.buckets = nodes.toArray(new Node[nodes.size()]);
+    }
+
+    @Override
+    public Node getNodeByKey(String hashKey) {
+        Node[] current = this.buckets;
+        if (current.length == 0) {
+            return null;
+        }
+
+        long key = fmix64(HashAlgorithm.MURMUR3_HASH.hash(hashKey));
+        int bucket = 0;
+        for (int i = 0; i < current.length; i++) {
+            bucket = jump(key, current.length);
+            Node node = current[bucket];
+            if (node.getStatus() == NodeStatus.ACTIVE) {
+                return node;
+            }
+            key = fmix64(key + 1);
+        }
+        // 重新jump仍未落到ACTIVE节点时，从最后一次落到的桶开始顺序找下一个ACTIVE节点，同一个key结果固定
+        for (int i = 1; i < current.length; i++) {
+            Node node = current[(bucket + i) % current.length];
+            if (node.getStatus() == NodeStatus.ACTIVE) {
+                return node;
+            }
+        }
+        logger.error("fail to get hash node, the hash key:" + hashKey);
+        return null;
+    }
+
+    static int jump(long key, int buckets) {
+        long b = -1;
+        long j = 0;
+        while (j < buckets) {
+            b = j;
+            key = key * 2862933555777941757L + 1;
+            j = (long) ((b + 1) * ((double) (1L << 31) / (double) ((key >>> 33) + 1)));
+        }
+        return (int) b;
+    }
+
+    static long fmix64(long k) {
+        k ^= k >>> 33;
+        k *= 0xff51afd7ed558ccdL;
+        k ^= k >>> 33;
+        k *= 0xc4ceb9fe1a85ec53L;
+        k ^= k >>> 33;
+        return k;
+    }
+
+    /**
+     * 新节点追加为最后一个桶。
+     */
+    @Override
+    public synchronized void addNode(Node node) {
+        List<Node> nodes = toList();
+        if (!nodes.contains(node)) {
+            nodes.add(node);
+            this.buckets = nodes.toArray(new Node[nodes.size()]);
+        }
+    }
+
+    @Override
+    public synchronized void removeNode(Node node) {
+        List<Node> nodes = toList();
+        if (nodes.size() > 1 && nodes.remove(node)) {
+            this.buckets = nodes.toArray(new Node[nodes.size()]);
+        }
+    }
+
+    @Override
+    public void removeNode(Node node, boolean noPing) {
+        removeNode(node);
+    }
+
+    @Override
+    public synchronized void updateNodes(List<Node> nodes) {
+        this.buckets = nodes.toArray(new Node[nodes.size()]);
+    }
+
+    private List<Node> toList() {
+        List<Node> nodes = new ArrayList<>(buckets.length + 1);
+        for (Node node : buckets) {
+            nodes.add(node);
+        }
+        return nodes;
+    }
+
+    @Override
+    public String toString() {
+        return "JumpHashLocator [buckets=" + buckets.length + "]";
+    }
+}
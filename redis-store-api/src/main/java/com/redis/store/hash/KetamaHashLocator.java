@@ -13,10 +13,17 @@ public class KetamaHashLocator implements IHashLocator {
 
     protected final HashAlgorithm hashAlg;
     protected final Set<Node> nodes = Collections.synchronizedSet(new HashSet<Node>());
-    protected transient volatile TreeMap<Long, Node> ketamaNodes = new TreeMap<>();
+    protected transient volatile Ring ring = Ring.EMPTY;
 
     public KetamaHashLocator(Collection<Node> nodes) {
-        this.hashAlg = HashAlgorithm.KETAMA_HASH;
+        this(nodes, HashAlgorithm.KETAMA_HASH);
+    }
+
+    public KetamaHashLocator(Collection<Node> nodes, HashAlgorithm hashAlg) {
+        if (hashAlg == HashAlgorithm.MOD || hashAlg == HashAlgorithm.HEX_PREFIX_MOD) {
+            throw new IllegalArgumentException("unsupported consistent hash algorithm: " + hashAlg);
+        }
+        this.hashAlg = hashAlg == null ? HashAlgorithm.KETAMA_HASH : hashAlg;
         this.nodes.addAll(nodes);
 
         buildMap();
@@ -56,20 +63,56 @@ public class KetamaHashLocator implements IHashLocator {
     }
 
     protected synchronized void buildMap() {
-
+        // 先用TreeMap去重，hash冲突时的归属与原TreeMap实现一致
         TreeMap<Long, Node> nodeMap = new TreeMap<>();
+        long totalWeight = 0;
+        for (Node node : nodes) {
+            totalWeight += weightOf(node);
+        }
         for (Node node : nodes) {
             /** Duplicate 160 X weight references */
+            int reps = virtualNodes(node, totalWeight);
             if (hashAlg == HashAlgorithm.KETAMA_HASH) {
-                this.compute(NUM_REPS, nodeMap, node);
+                this.compute(reps, nodeMap, node);
             } else {
-                for (int i = 0; i < NUM_REPS; i++) {
+                for (int i = 0; i < reps; i++) {
                     long key = hashAlg.hash(node.getName() + "-" + i);
                     nodeMap.put(key, node);
                 }
             }
         }
-        this.ketamaNodes = nodeMap;
+        this.ring = new Ring(nodeMap);
+    }
+
+    /**
+     * 与libketama相同：节点的虚拟节点数为 NUM_REPS * n * weight / totalWeight(按4个一组取整)，
+     * 所有节点权重相等时每个节点都是NUM_REPS，与不带权重时的分布完全一致。
+     */
+    private int virtualNodes(Node node, long totalWeight) {
+        int size = nodes.size();
+        long groups = (NUM_REPS / 4) * size * weightOf(node) / totalWeight;
+        return (int) Math.max(groups, 1) * 4;
+    }
+
+    /**
+     * 权重取Node.priority，未设置(<=0)时按1处理。
+     */
+    static int weightOf(Node node) {
+        return node.getPriority() > 0 ? node.getPriority() : 1;
+    }
+
+    /**
+     * 节点权重变化后重建环。
+     */
+    public void rebuild() {
+        buildMap();
+    }
+
+    /**
+     * 节点状态变化后重新计算跳过非ACTIVE节点的下标，环本身不变。
+     */
+    public synchronized void refreshActive() {
+        this.ring = this.ring.refresh();
     }
 
     @Override
@@ -78,45 +121,38 @@ public class KetamaHashLocator implements IHashLocator {
     }
 
     private Node getNodeByHash(long hash) {
-        TreeMap<Long, Node> nodeMap = this.ketamaNodes;
-        if (nodeMap == null || nodeMap.size() == 0) {
+        Ring current = this.ring;
+        int size = current.hashes.length;
+        if (size == 0) {
             return null;
         }
 
-        Long resultHash = hash;
-        if (nodeMap.containsKey(hash)) {
-            Node resultNode = nodeMap.get(resultHash);
-            if (resultNode.getStatus() == NodeStatus.ACTIVE)
-                return resultNode;
-
+        int index = Arrays.binarySearch(current.hashes, hash);
+        if (index < 0) {
+            index = -index - 1;
+            if (index == size) {
+                index = 0;
+            }
+        }
+        Node node = current.nodes[index];
+        if (node.getStatus() == NodeStatus.ACTIVE) {
+            return node;
         }
 
-        int i = 0;
-        SortedMap<Long, Node> tailMap = nodeMap.tailMap(hash);
-        if (tailMap.isEmpty()) {
-            tailMap = nodeMap.tailMap(0L);
+        int next = current.nextActive[index];
+        if (next >= 0 && current.nodes[next].getStatus() == NodeStatus.ACTIVE) {
+            return current.nodes[next];
         }
 
-        Iterator<Long> it = tailMap.keySet().iterator();
-        while (it.hasNext()) {
-            long tmpHash = it.next();
-            Node node = tailMap.get(tmpHash);
+        // 构建后节点状态又有变化，顺序查找
+        for (int i = 1; i < size; i++) {
+            node = current.nodes[(index + i) % size];
             if (node.getStatus() == NodeStatus.ACTIVE) {
-                resultHash = tmpHash;
-                break;
+                return node;
             }
-            i++;
-        }
-
-        Node node = nodeMap.get(resultHash);
-        if (node == null) {
-            logger.error("fail to get hash node for the:" + hash);
-            return null;
         }
-
-        logger.debug("get hash node the node is:" + node.getName()
-                + "the status is:" + node.getStatus() + " the i is:" + i);
-        return node;
+        logger.error("fail to get hash node for the:" + hash);
+        return null;
     }
 
     @Override
@@ -139,5 +175,58 @@ public class KetamaHashLocator implements IHashLocator {
         }
     }
 
+    /**
+     * 不可变的环：hashes升序，nodes[i]为hashes[i]对应的节点，
+     * nextActive[i]为从i开始(含i)顺时针第一个ACTIVE节点的下标，没有时为-1。
+     */
+    protected static final class Ring {
+
+        static final Ring EMPTY = new Ring(new long[0], new Node[0]);
+
+        final long[] hashes;
+
+        final Node[] nodes;
+
+        final int[] nextActive;
+
+        Ring(SortedMap<Long, Node> nodeMap) {
+            this(toHashes(nodeMap), nodeMap.values().toArray(new Node[nodeMap.size()]));
+        }
+
+        private Ring(long[] hashes, Node[] nodes) {
+            this.hashes = hashes;
+            this.nodes = nodes;
+            this.nextActive = computeNextActive(nodes);
+        }
+
+        Ring refresh() {
+            return new Ring(hashes, nodes);
+        }
+
+        private static long[] toHashes(SortedMap<Long, Node> nodeMap) {
+            long[] hashes = new long[nodeMap.size()];
+            int i = 0;
+            for (Long hash : nodeMap.keySet()) {
+                hashes[i++] = hash;
+            }
+            return hashes;
+        }
 
+        private static int[] computeNextActive(Node[] nodes) {
+            int size = nodes.length;
+            int[] nextActive = new int[size];
+            int next = -1;
+            // 倒序走两圈，第二圈补上环尾回绕到环头的情况
+            for (int i = 2 * size - 1; i >= 0; i--) {
+                int index = i % size;
+                if (nodes[index].getStatus() == NodeStatus.ACTIVE) {
+                    next = index;
+                }
+                if (i < size) {
+                    nextActive[index] = next;
+                }
+            }
+            return nextActive;
+        }
+    }
 }
@@ -13,7 +13,7 @@ public class ModLocator implements IHashLocator {
     private static Logger logger = Logger.getLogger(ModLocator.class);
 
     private List<Node> allNodes; // 所有节点的列表，一旦设置不可以进行修改。用于记录每个节点的位置。
-    private List<Node> availableNodes; // 当前可用的节点列表。
+    private volatile List<Node> availableNodes; // 当前可用的节点列表。
     private final ReentrantLock lock = new ReentrantLock();
 
     public ModLocator(List<Node> nodes) {
@@ -26,14 +26,15 @@ public class ModLocator implements IHashLocator {
      */
     @Override
     public Node getNodeByKey(String hashKey) {
-        long key = Math.abs(Long.valueOf(hashKey));
+        long key = Math.abs(Long.parseLong(hashKey));
 
-        if (availableNodes.isEmpty()) {
+        List<Node> nodes = availableNodes;
+        if (nodes.isEmpty()) {
             return null;
         }
 
-        int index = (int) (key % availableNodes.size());
-        Node node = availableNodes.get(index);
+        int index = (int) (key % nodes.size());
+        Node node = nodes.get(index);
         if (node == null) {
             logger.error("failt to get hash node, the hash key:" + hashKey);
         }
@@ -88,11 +89,10 @@ public class ModLocator implements IHashLocator {
         final ReentrantLock lock = this.lock;
         lock.lock();
         try {
-            allNodes.clear();
             allNodes = Collections.unmodifiableList(nodes);
 
-            availableNodes.clear();
-            availableNodes.addAll(nodes);
+            // 一次性替换，避免clear之后、addAll之前的查找看到空列表
+            availableNodes = new CopyOnWriteArrayList<>(nodes);
 
         } finally {
             lock.unlock();
@@ -5,6 +5,7 @@ import com.redis.store.constants.NodeStatus;
 import org.apache.log4j.Logger;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.concurrent.locks.ReentrantLock;
@@ -15,11 +16,13 @@ public class RegionHashLocator implements IHashLocator {
     protected List<Node> allNodes; // 所有节点的列表，一旦设置不可以进行修改。用于记录每个节点的位置。
     protected List<Node> availableNodes; // 当前可用的节点列表。
     protected final ReentrantLock lock = new ReentrantLock();
+    protected volatile RegionIndex regionIndex; // 按[start, end)切分的区间索引，节点列表变化时整体替换。
 
     public RegionHashLocator(List<Node> nodes) {
         this.allNodes = Collections.unmodifiableList(nodes);
         this.availableNodes = new ArrayList<>(nodes);
         this.availableNodes.sort((node1, node2) -> (int) (node1.getStart() - node2.getStart()));
+        this.regionIndex = new RegionIndex(nodes);
     }
 
     /**
@@ -27,15 +30,14 @@ public class RegionHashLocator implements IHashLocator {
      */
     @Override
     public Node getNodeByKey(String hashKey) {
-        long key = Math.abs(Long.valueOf(hashKey));
+        long key = Math.abs(Long.parseLong(hashKey));
 
         if (availableNodes.isEmpty()) {
             return null;
         }
-        for (Node node : allNodes) {
-            if (node.getStatus() != NodeStatus.ACTIVE)
-                continue;
-            if (node.getStart() <= key && node.getEnd() > key)
+        Node[] candidates = regionIndex.find(key);
+        for (Node node : candidates) {
+            if (node.getStatus() == NodeStatus.ACTIVE)
                 return node;
         }
         logger.error("failt to get hash node, the hash key:" + hashKey);
@@ -90,17 +92,32 @@ public class RegionHashLocator implements IHashLocator {
         final ReentrantLock lock = this.lock;
         lock.lock();
         try {
-            allNodes.clear();
+            RegionIndex newIndex = new RegionIndex(nodes);
             allNodes = Collections.unmodifiableList(nodes);
 
             availableNodes.clear();
             availableNodes.addAll(nodes);
+            regionIndex = newIndex;
 
         } finally {
             lock.unlock();
         }
     }
 
+    /**
+     * 节点的start/end在原对象上修改后调用，按当前的start/end重建区间索引。
+     */
+    public void rebuild() {
+        final ReentrantLock lock = this.lock;
+        lock.lock();
+        try {
+            availableNodes.sort((node1, node2) -> Long.compare(node1.getStart(), node2.getStart()));
+            regionIndex = new RegionIndex(allNodes);
+        } finally {
+            lock.unlock();
+        }
+    }
+
     @Override
     public String toString() {
         return "RegionHashLocator [availableNodes=" + availableNodes + "]";
@@ -110,4 +127,65 @@ public class RegionHashLocator implements IHashLocator {
     public void removeNode(Node node, boolean noPing) {
 
     }
-}
\ No newline at end of file
+
+    /**
+     * 把所有节点的start/end排序去重后切成互不重叠的区间[bounds[i], bounds[i + 1])，
+     * candidates[i]为覆盖该区间的节点，保持原节点列表的顺序，查找时二分定位区间。
+     */
+    protected static final class RegionIndex {
+
+        private static final Node[] NONE = new Node[0];
+
+        private final long[] bounds;
+
+        private final Node[][] candidates;
+
+        RegionIndex(List<Node> nodes) {
+            long[] points = new long[nodes.size() * 2];
+            int count = 0;
+            for (Node node : nodes) {
+                points[count++] = node.getStart();
+                points[count++] = node.getEnd();
+            }
+            Arrays.sort(points, 0, count);
+            int unique = 0;
+            for (int i = 0; i < count; i++) {
+                if (unique == 0 || points[unique - 1] != points[i]) {
+                    points[unique++] = points[i];
+                }
+            }
+            this.bounds = Arrays.copyOf(points, unique);
+
+            List<List<Node>> segments = new ArrayList<>(Math.max(unique - 1, 0));
+            for (int i = 0; i < unique - 1; i++) {
+                segments.add(new ArrayList<>(1));
+            }
+            for (Node node : nodes) {
+                if (node.getStart() >= node.getEnd()) {
+                    continue;
+                }
+                int from = Arrays.binarySearch(bounds, node.getStart());
+                int to = Arrays.binarySearch(bounds, node.getEnd());
+                for (int i = from; i < to; i++) {
+                    segments.get(i).add(node);
+                }
+            }
+            this.candidates = new Node[segments.size()][];
+            for (int i = 0; i < segments.size(); i++) {
+                List<Node> segment = segments.get(i);
+                candidates[i] = segment.isEmpty() ? NONE : segment.toArray(new Node[segment.size()]);
+            }
+        }
+
+        Node[] find(long key) {
+            int index = Arrays.binarySearch(bounds, key);
+            if (index < 0) {
+                index = -index - 2;
+            }
+            if (index < 0 || index >= candidates.length) {
+                return NONE;
+            }
+            return candidates[index];
+        }
+    }
+}
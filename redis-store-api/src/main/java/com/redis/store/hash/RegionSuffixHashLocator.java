@@ -18,16 +18,16 @@ public class RegionSuffixHashLocator extends RegionHashLocator {
      */
     @Override
     public Node getNodeByKey(String hashKey) {
-        long key = Math.abs(Long.valueOf(hashKey));
+        long key = Math.abs(Long.parseLong(hashKey));
         long suffix = key % 10;
 
         if (availableNodes.isEmpty()) {
             return null;
         }
 
-        for (Node node : allNodes) {
-            if (node.getStart() <= key && node.getEnd() > key
-                    && node.getSecondShardKey() == suffix)
+        Node[] candidates = regionIndex.find(key);
+        for (Node node : candidates) {
+            if (node.getSecondShardKey() == suffix)
                 return node;
         }
         logger.error("fail to get hash node, the hash key:" + hashKey + " the suffix is:" + suffix);
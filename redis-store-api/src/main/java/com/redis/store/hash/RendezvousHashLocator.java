@@ -0,0 +1,125 @@
+package com.redis.store.hash;
+
+import com.redis.store.cluster.Node;
+import com.redis.store.constants.NodeStatus;
+import org.apache.log4j.Logger;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 加权rendezvous(HRW)hash：key与每个节点分别计算一个分数，取分数最大的ACTIVE节点，权重为Node.priority(<=0按1处理)。
+ * <p/>
+ * 分数为 -weight / ln(u)，u为(key, node)的hash映射到(0, 1)，节点分到的key占比等于其权重占比。
+ * 加入权重为w的节点时，约w/(W+w)的key移动，且全部移到新节点；移除或停用节点时只有该节点的key移动，
+ * 按其余节点的权重比例分散。与节点顺序无关，查找为O(n)，适合节点数不多的集群。
+ */
+public class RendezvousHashLocator implements IHashLocator {
+    private static Logger logger = Logger.getLogger(RendezvousHashLocator.class);
+
+    private volatile Entry[] entries;
+
+    public RendezvousHashLocator(List<Node> nodes) {
+        this.entries = build(nodes);
+    }
+
+    @Override
+    public Node getNodeByKey(String hashKey) {
+        Entry[] current = this.entries;
+        long keyHash = HashAlgorithm.MURMUR3_HASH.hash(hashKey);
+
+        Node result = null;
+        double maxScore = Double.NEGATIVE_INFINITY;
+        for (Entry entry : current) {
+            if (entry.node.getStatus() != NodeStatus.ACTIVE) {
+                continue;
+            }
+            double score = entry.score(keyHash);
+            if (score > maxScore) {
+                maxScore = score;
+                result = entry.node;
+            }
+        }
+        if (result == null) {
+            logger.error("fail to get hash node, the hash key:" + hashKey);
+        }
+        return result;
+    }
+
+    private static Entry[] build(List<Node> nodes) {
+        Entry[] entries = new Entry[nodes.size()];
+        for (int i = 0; i < entries.length; i++) {
+            entries[i] = new Entry(nodes.get(i));
+        }
+        return entries;
+    }
+
+    @Override
+    public synchronized void addNode(Node node) {
+        List<Node> nodes = toList();
+        if (!nodes.contains(node)) {
+            nodes.add(node);
+            this.entries = build(nodes);
+        }
+    }
+
+    @Override
+    public synchronized void removeNode(Node node) {
+        List<Node> nodes = toList();
+        if (nodes.size() > 1 && nodes.remove(node)) {
+            this.entries = build(nodes);
+        }
+    }
+
+    @Override
+    public void removeNode(Node node, boolean noPing) {
+
+    }
+
+    @Override
+    public synchronized void updateNodes(List<Node> nodes) {
+        this.entries = build(nodes);
+    }
+
+    /**
+     * 节点权重变化后重新读取权重。
+     */
+    public synchronized void rebuild() {
+        this.entries = build(toList());
+    }
+
+    private List<Node> toList() {
+        List<Node> nodes = new ArrayList<>(entries.length + 1);
+        for (Entry entry : entries) {
+            nodes.add(entry.node);
+        }
+        return nodes;
+    }
+
+    @Override
+    public String toString() {
+        return "RendezvousHashLocator [nodes=" + entries.length + "]";
+    }
+
+    private static final class Entry {
+
+        private final Node node;
+
+        private final long seed;
+
+        private final double weight;
+
+        private Entry(Node node) {
+            this.node = node;
+            this.seed = HashAlgorithm.MURMUR3_HASH.hash(node.getName());
+            this.weight = KetamaHashLocator.weightOf(node);
+        }
+
+        private double score(long keyHash) {
+            long h = JumpHashLocator.fmix64(keyHash << 32 ^ seed);
+            // 取高53位映射到(0, 1)
+            double u = ((h >>> 11) + 0.5) / (double) (1L << 53);
+            return -weight / Math.log(u);
+        }
+    }
+}
@@ -0,0 +1,210 @@
+package com.redis.store.hash;
+
+import com.redis.store.cluster.Node;
+import com.redis.store.cluster.SlotRange;
+import org.apache.commons.collections.CollectionUtils;
+import org.apache.log4j.Logger;
+
+import java.io.UnsupportedEncodingException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 与redis cluster相同的slot分配：slot = CRC16(key) & 16383，key中含非空的{tag}时只对tag计算，
+ * 同一tag的key一定落在同一节点。slot到节点的对应关系来自Cluster.slotRanges，查找时只做一次数组下标访问。
+ * <p/>
+ * slotRanges为空时按节点顺序平均分配(与redis-cli --cluster create相同)；迁移节点只需修改slotRanges并走rehash流程，
+ * 只有被移动的slot上的key受影响。未分配或归属节点不可用的slot返回null。
+ */
+public class SlotHashLocator implements IHashLocator {
+    private static Logger logger = Logger.getLogger(SlotHashLocator.class);
+
+    public static final int SLOT_COUNT = 16384;
+
+    private static final int[] CRC16_TABLE = new int[256];
+
+    static {
+        // CRC16-CCITT(XMODEM)，多项式0x1021
+        for (int i = 0; i < 256; i++) {
+            int crc = i << 8;
+            for (int j = 0; j < 8; j++) {
+                crc = (crc & 0x8000) != 0 ? (crc << 1) ^ 0x1021 : crc << 1;
+            }
+            CRC16_TABLE[i] = crc & 0xFFFF;
+        }
+    }
+
+    private final List<SlotRange> slotRanges;
+
+    private List<Node> nodes;
+
+    private volatile Node[] slots;
+
+    public SlotHashLocator(List<Node> nodes, List<SlotRange> slotRanges) {
+        this.slotRanges = slotRanges == null ? new ArrayList<>() : new ArrayList<>(slotRanges);
+        this.nodes = new ArrayList<>(nodes);
+        this.slots = buildSlots(this.nodes, this.slotRanges);
+    }
+
+    @Override
+    public Node getNodeByKey(String hashKey) {
+        Node node = slots[getSlot(hashKey)];
+        if (node == null) {
+            logger.error("fail to get hash node, the hash key:" + hashKey + " the slot is:" + getSlot(hashKey));
+        }
+        return node;
+    }
+
+    public static int getSlot(String key) {
+        int length = key.length();
+        for (int i = 0; i < length; i++) {
+            if (key.charAt(i) >= 0x80) {
+                return getSlot(getBytes(key));
+            }
+        }
+
+        int start = 0;
+        int end = length;
+        int open = key.indexOf('{');
+        if (open >= 0) {
+            int close = key.indexOf('}', open + 1);
+            if (close > open + 1) {
+                start = open + 1;
+                end = close;
+            }
+        }
+        int crc = 0;
+        for (int i = start; i < end; i++) {
+            crc = (crc << 8) ^ CRC16_TABLE[((crc >>> 8) ^ key.charAt(i)) & 0xFF];
+        }
+        return crc & (SLOT_COUNT - 1);
+    }
+
+    public static int getSlot(byte[] key) {
+        int start = 0;
+        int end = key.length;
+        for (int open = 0; open < key.length; open++) {
+            if (key[open] == '{') {
+                for (int close = open + 1; close < key.length; close++) {
+                    if (key[close] == '}') {
+                        if (close > open + 1) {
+                            start = open + 1;
+                            end = close;
+                        }
+                        break;
+                    }
+                }
+                break;
+            }
+        }
+        int crc = 0;
+        for (int i = start; i < end; i++) {
+            crc = (crc << 8) ^ CRC16_TABLE[((crc >>> 8) ^ key[i]) & 0xFF];
+        }
+        return crc & (SLOT_COUNT - 1);
+    }
+
+    private static Node[] buildSlots(List<Node> nodes, List<SlotRange> slotRanges) {
+        Node[] slots = new Node[SLOT_COUNT];
+        if (nodes.isEmpty()) {
+            return slots;
+        }
+
+        if (CollectionUtils.isEmpty(slotRanges)) {
+            for (int i = 0; i < nodes.size(); i++) {
+                int start = (int) ((long) SLOT_COUNT * i / nodes.size());
+                int end = (int) ((long) SLOT_COUNT * (i + 1) / nodes.size());
+                for (int slot = start; slot < end; slot++) {
+                    slots[slot] = nodes.get(i);
+                }
+            }
+            return slots;
+        }
+
+        Map<String, Node> nodeMap = new HashMap<>();
+        for (Node node : nodes) {
+            nodeMap.put(node.getName(), node);
+        }
+        String[] owners = new String[SLOT_COUNT];
+        for (SlotRange range : slotRanges) {
+            if (range.getStart() < 0 || range.getEnd() >= SLOT_COUNT || range.getStart() > range.getEnd()) {
+                throw new IllegalArgumentException("invalid slot range: " + range);
+            }
+            Node node = nodeMap.get(range.getNodeName());
+            if (node == null) {
+                logger.warn("the node of the slot range is not active: " + range);
+            }
+            for (int slot = range.getStart(); slot <= range.getEnd(); slot++) {
+                if (owners[slot] != null) {
+                    throw new IllegalArgumentException("the slot " + slot + " is assigned to both " + owners[slot] + " and " + range.getNodeName());
+                }
+                owners[slot] = range.getNodeName();
+                slots[slot] = node;
+            }
+        }
+
+        int unassigned = 0;
+        for (String owner : owners) {
+            if (owner == null) {
+                unassigned++;
+            }
+        }
+        if (unassigned > 0) {
+            logger.warn("there are " + unassigned + " slots not assigned to any node");
+        }
+        return slots;
+    }
+
+    private static byte[] getBytes(String key) {
+        try {
+            return key.getBytes(HashAlgorithm.CHARSET);
+        } catch (UnsupportedEncodingException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * 添加节点后重建slot表：有slotRanges时只有分配给该节点的slot指向它，否则按新的节点列表重新平均分配。
+     */
+    @Override
+    public synchronized void addNode(Node node) {
+        if (!nodes.contains(node)) {
+            List<Node> newNodes = new ArrayList<>(nodes);
+            newNodes.add(node);
+            this.slots = buildSlots(newNodes, slotRanges);
+            this.nodes = newNodes;
+        }
+    }
+
+    /**
+     * 移除节点后重建slot表：有slotRanges时该节点的slot变为未分配，否则由剩余节点重新平均分配；至少保留一个节点。
+     */
+    @Override
+    public synchronized void removeNode(Node node) {
+        if (nodes.size() > 1 && nodes.contains(node)) {
+            List<Node> newNodes = new ArrayList<>(nodes);
+            newNodes.remove(node);
+            this.slots = buildSlots(newNodes, slotRanges);
+            this.nodes = newNodes;
+        }
+    }
+
+    @Override
+    public void removeNode(Node node, boolean noPing) {
+        removeNode(node);
+    }
+
+    @Override
+    public synchronized void updateNodes(List<Node> nodes) {
+        List<Node> newNodes = new ArrayList<>(nodes);
+        this.slots = buildSlots(newNodes, slotRanges);
+        this.nodes = newNodes;
+    }
+
+    @Override
+    public String toString() {
+        return "SlotHashLocator [slotRanges=" + slotRanges + "]";
+    }
+}
@@ -0,0 +1,108 @@
+package com.redis.store.benchmark;
+
+import com.redis.store.dao.InstrumentedJedisPool;
+import com.redis.store.dao.StripedJedisPool;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import redis.clients.jedis.Jedis;
+import redis.clients.jedis.JedisPool;
+import redis.clients.jedis.JedisPoolConfig;
+import redis.clients.util.Pool;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 64个线程同时借还连接：GenericObjectPool(JedisPool、InstrumentedJedisPool)与StripedJedisPool对比。
+ * <p/>
+ * 借出后不执行命令，只测连接池本身的开销；连接在setup中预先建好，需要一个可连接的redis(host/port/password参数)。
+ * maxTotal小于线程数时包含等待连接的时间。
+ * 运行：java -jar redis-store-benchmark/target/benchmarks.jar PoolContentionBenchmark -p port=6379
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Threads(64)
+@Fork(1)
+public class PoolContentionBenchmark {
+
+    @Param({"jedis", "instrumented", "striped"})
+    private String pool;
+
+    @Param({"16", "64"})
+    private int maxTotal;
+
+    @Param("127.0.0.1")
+    private String host;
+
+    @Param("6379")
+    private int port;
+
+    @Param("")
+    private String password;
+
+    private Pool<Jedis> jedisPool;
+
+    @Setup
+    public void setup() {
+        JedisPoolConfig config = new JedisPoolConfig();
+        config.setMaxTotal(maxTotal);
+        config.setMaxIdle(maxTotal);
+        config.setMinIdle(0);
+        config.setMaxWaitMillis(-1);
+        config.setTestOnBorrow(false);
+        config.setTestOnReturn(false);
+        config.setTestWhileIdle(false);
+        config.setTimeBetweenEvictionRunsMillis(-1);
+        config.setJmxEnabled(false);
+
+        String auth = password.isEmpty() ? null : password;
+        if ("jedis".equals(pool)) {
+            jedisPool = new JedisPool(config, host, port, 2000, auth);
+        } else if ("instrumented".equals(pool)) {
+            jedisPool = new InstrumentedJedisPool(config, host, port, 2000, auth);
+        } else if ("striped".equals(pool)) {
+            jedisPool = new StripedJedisPool(config, host, port, 2000, auth);
+        } else {
+            throw new IllegalArgumentException("unknown pool " + pool);
+        }
+
+        // 预先建好maxTotal个连接，测量期间不新建连接
+        List<Jedis> warm = new ArrayList<>();
+        for (int i = 0; i < maxTotal; i++) {
+            warm.add(jedisPool.getResource());
+        }
+        for (Jedis jedis : warm) {
+            jedis.close();
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        jedisPool.destroy();
+    }
+
+    @Benchmark
+    public boolean borrowAndReturn() {
+        Jedis jedis = jedisPool.getResource();
+        try {
+            return jedis.isConnected();
+        } finally {
+            jedis.close();
+        }
+    }
+}
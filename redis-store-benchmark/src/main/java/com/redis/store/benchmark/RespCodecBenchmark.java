@@ -0,0 +1,136 @@
+package com.redis.store.benchmark;
+
+import com.redis.store.dao.resp.IBulkSink;
+import com.redis.store.dao.resp.RespCodec;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import redis.clients.jedis.Protocol;
+import redis.clients.util.RedisInputStream;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 解析GET/MGET/HGETALL回复：Jedis的Protocol.read与RespCodec(返回byte[]、交给IBulkSink、按16KB分段到达)对比。
+ * <p/>
+ * 回复在内存中构造，不需要redis；size为回复中value的总字节数，MGET为8个key，HGETALL为8个field。
+ * 运行：java -jar redis-store-benchmark/target/benchmarks.jar RespCodecBenchmark -prof gc
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RespCodecBenchmark {
+
+    private static final int VALUES = 8;
+
+    /** 一次socket读取的字节数，与MultiplexedConnection的接收缓冲区相同量级 */
+    private static final int READ_SIZE = 16 * 1024;
+
+    @Param({"GET", "MGET", "HGETALL"})
+    private String command;
+
+    @Param({"1024", "16384", "262144", "1048576"})
+    private int size;
+
+    private byte[] reply;
+
+    private ByteBuffer buffer;
+
+    private RespCodec.ScanState state;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(size);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        if ("GET".equals(command)) {
+            writeBulk(out, value(random, size));
+        } else if ("MGET".equals(command)) {
+            writeLine(out, '*', VALUES);
+            for (int i = 0; i < VALUES; i++) {
+                writeBulk(out, value(random, size / VALUES));
+            }
+        } else if ("HGETALL".equals(command)) {
+            writeLine(out, '*', VALUES * 2);
+            for (int i = 0; i < VALUES; i++) {
+                writeBulk(out, ("field" + i).getBytes());
+                writeBulk(out, value(random, size / VALUES));
+            }
+        } else {
+            throw new IllegalArgumentException("unknown command " + command);
+        }
+        reply = out.toByteArray();
+        buffer = ByteBuffer.wrap(reply);
+        state = new RespCodec.ScanState();
+    }
+
+    @Benchmark
+    public Object jedis() {
+        return Protocol.read(new RedisInputStream(new ByteArrayInputStream(reply)));
+    }
+
+    @Benchmark
+    public Object codec() {
+        buffer.clear();
+        return RespCodec.decode(buffer);
+    }
+
+    @Benchmark
+    public Object codecSink(Blackhole blackhole) {
+        buffer.clear();
+        return RespCodec.decode(buffer, value -> blackhole.consume(value == null ? -1 : value.remaining()));
+    }
+
+    /**
+     * 回复按READ_SIZE分段到达，每段到达后解析一次，ScanState记录已扫描的位置。
+     */
+    @Benchmark
+    public Object codecChunked(Blackhole blackhole) {
+        IBulkSink sink = value -> blackhole.consume(value == null ? -1 : value.remaining());
+        buffer.clear();
+        int limit = 0;
+        Object result;
+        do {
+            limit = Math.min(limit + READ_SIZE, reply.length);
+            buffer.limit(limit);
+            result = RespCodec.decode(buffer, sink, state);
+        } while (result == RespCodec.NEED_MORE);
+        return result;
+    }
+
+    private static byte[] value(Random random, int length) {
+        byte[] value = new byte[length];
+        random.nextBytes(value);
+        return value;
+    }
+
+    private static void writeBulk(ByteArrayOutputStream out, byte[] value) {
+        writeLine(out, '$', value.length);
+        out.write(value, 0, value.length);
+        out.write('\r');
+        out.write('\n');
+    }
+
+    private static void writeLine(ByteArrayOutputStream out, char type, int value) {
+        out.write(type);
+        byte[] digits = Integer.toString(value).getBytes();
+        out.write(digits, 0, digits.length);
+        out.write('\r');
+        out.write('\n');
+    }
+}
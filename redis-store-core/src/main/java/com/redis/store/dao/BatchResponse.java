@@ -0,0 +1,52 @@
+package com.redis.store.dao;
+
+/**
+ * IShardedBatch中单条命令的结果，execute之后可用。
+ */
+public class BatchResponse<T> {
+
+    private volatile boolean done;
+
+    private T value;
+
+    private Exception exception;
+
+    public void set(T value) {
+        this.value = value;
+        this.done = true;
+    }
+
+    public void setException(Exception exception) {
+        this.exception = exception;
+        this.done = true;
+    }
+
+    public boolean isDone() {
+        return done;
+    }
+
+    public boolean isFailed() {
+        return exception != null;
+    }
+
+    public Exception getException() {
+        return exception;
+    }
+
+    /**
+     * @throws IllegalStateException 批次尚未执行
+     * @throws RuntimeException      命令本身出错，或所在node失败、超时
+     */
+    public T get() {
+        if (!done) {
+            throw new IllegalStateException("the batch has not been executed");
+        }
+        if (exception != null) {
+            if (exception instanceof RuntimeException) {
+                throw (RuntimeException) exception;
+            }
+            throw new RuntimeException(exception);
+        }
+        return value;
+    }
+}
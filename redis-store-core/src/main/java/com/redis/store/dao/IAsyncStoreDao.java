@@ -0,0 +1,274 @@
+package com.redis.store.dao;
+
+import com.redis.store.executor.IExecutor;
+import org.apache.commons.lang3.tuple.Pair;
+import redis.clients.jedis.*;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * IStoreDao的异步版本，路由规则与IStoreDao相同，所有命令立即返回CompletableFuture。
+ * <p/>
+ * 每个实例同时执行的命令数有上限，超出的命令排队等待，队列已满时future以RejectedExecutionException结束。
+ */
+public interface IAsyncStoreDao {
+
+    CompletableFuture<List<String>> blpop(String hashKey, String key, int timeout);
+
+    CompletableFuture<List<String>> blpop(String hashKey, int timeout, String... keys);
+
+    CompletableFuture<Long> del(String hashKey, String key);
+
+    CompletableFuture<byte[]> dump(String hashKey, byte[] key);
+
+    CompletableFuture<Boolean> exists(String hashKey, String key);
+
+    CompletableFuture<String> rename(String hashKey, String key, String newKey);
+
+    CompletableFuture<Long> renamenx(String hashKey, String key, String newKey);
+
+    CompletableFuture<String> restore(String hashKey, byte[] key, int ttl, byte[] serializedValue);
+
+    CompletableFuture<Long> expire(String hashKey, String key, int seconds);
+
+    CompletableFuture<Long> expire(String hashKey, byte[] key, int seconds);
+
+    CompletableFuture<String> get(String hashKey, String key);
+
+    CompletableFuture<byte[]> get(String hashKey, byte[] key);
+
+    CompletableFuture<Long> hdel(String hashKey, String key, String fields);
+
+    CompletableFuture<String> hget(String hashKey, String key, String field);
+
+    CompletableFuture<Boolean> hexists(String hashKey, String key, String field);
+
+    CompletableFuture<Map<String, String>> hgetAll(String hashKey, String key);
+
+    CompletableFuture<Long> hinc(String hashKey, String key, String field, long val);
+
+    CompletableFuture<Double> hincrByFloat(String hashKey, byte[] key, byte[] field, double increment);
+
+    CompletableFuture<Set<String>> hkeys(String hashKey, String key);
+
+    CompletableFuture<Long> hlen(String hashKey, String key);
+
+    CompletableFuture<List<String>> hmget(String hashKey, String key, String... fields);
+
+    CompletableFuture<String> hmset(String hashKey, String key, Map<String, String> map);
+
+    CompletableFuture<Long> hset(String hashKey, String key, String field, String val);
+
+    CompletableFuture<Long> inc(String hashKey, String key, long val);
+
+    CompletableFuture<Double> incrByFloat(String hashKey, byte[] key, double increment);
+
+    CompletableFuture<Long> decr(String hashKey, String key, long val);
+
+    CompletableFuture<byte[]> lindex(String hashKey, byte[] key, int i);
+
+    CompletableFuture<String> lindex(String hashKey, String key, int i);
+
+    CompletableFuture<Long> llen(String hashKey, byte[] key);
+
+    CompletableFuture<Long> llen(String hashKey, String key);
+
+    CompletableFuture<byte[]> lpop(String hashKey, byte[] key);
+
+    CompletableFuture<String> lpop(String hashKey, String key);
+
+    CompletableFuture<Long> lpush(String hashKey, byte[] key, byte[] val);
+
+    CompletableFuture<Long> lpush(String hashKey, String key, String val);
+
+    CompletableFuture<List<String>> lrange(String hashKey, String key, int start, int end);
+
+    CompletableFuture<Long> lrem(String hashKey, String key, long count, String value);
+
+    CompletableFuture<String> ltrim(String hashKey, String key, long start, long end);
+
+    CompletableFuture<List<String>> mget(String hashKey, String... keys);
+
+    CompletableFuture<String> mset(String hashKey, String... keysvalues);
+
+    CompletableFuture<String> psetex(String hashKey, byte[] key, int milliseconds, byte[] value);
+
+    CompletableFuture<Long> publish(String hashKey, String channel, String message);
+
+    CompletableFuture<byte[]> rpop(String hashKey, byte[] key);
+
+    CompletableFuture<String> rpop(String hashKey, String key);
+
+    CompletableFuture<Long> rpush(String hashKey, byte[] key, byte[] val);
+
+    CompletableFuture<Long> rpush(String hashKey, String key, String val);
+
+    CompletableFuture<Long> sadd(String hashKey, String key, String val);
+
+    CompletableFuture<Long> sadd(String hashKey, String key, String[] members);
+
+    CompletableFuture<Long> scard(String hashKey, String key);
+
+    CompletableFuture<String> set(String hashKey, String key, String val);
+
+    CompletableFuture<String> set(String hashKey, byte[] key, byte[] val);
+
+    CompletableFuture<String> set(String hashKey, String key, String val, int expireSecond);
+
+    CompletableFuture<Long> setnx(String hashKey, String key, String val);
+
+    CompletableFuture<Boolean> sismember(String hashKey, String key, String val);
+
+    CompletableFuture<Set<String>> smembers(String hashKey, String key);
+
+    CompletableFuture<String> spop(String hashKey, String key);
+
+    CompletableFuture<String> srandmember(String hashKey, String key);
+
+    CompletableFuture<Long> srem(String hashKey, String key, String val);
+
+    CompletableFuture<Void> pipeline(String hashKey, IExecutor<Pipeline> executor);
+
+    CompletableFuture<Void> pipeline(String hashKey, IExecutor<Pair<Pipeline, List<String>>> executor, List<String> keys);
+
+    CompletableFuture<Void> subscribe(String hashKey, JedisPubSub jedisPubSub, String... channel);
+
+    CompletableFuture<Long> ttl(String hashKey, String key);
+
+    CompletableFuture<Long> zadd(String hashKey, String key, double score, String member);
+
+    CompletableFuture<Long> zadd(String hashKey, String key, Map<String, Double> scoreMembers);
+
+    CompletableFuture<Long> zcard(String hashKey, String key);
+
+    CompletableFuture<Long> zcount(String hashKey, String key, double min, double max);
+
+    CompletableFuture<Double> zincrby(String hashKey, String key, double increment, String member);
+
+    CompletableFuture<Set<String>> zrange(String hashkey, String key, int start, int stop);
+
+    @Deprecated
+    CompletableFuture<Set<String>> zrangeByOffset(String hashKey, String key, int offset, int count);
+
+    @Deprecated
+    CompletableFuture<Set<Tuple>> zrangeByOffsetWithScores(String hashKey, String key, int offset, int count);
+
+    CompletableFuture<Set<Tuple>> zrangeWithScores(String hashKey, String key, int start, int end);
+
+    CompletableFuture<Set<Tuple>> zrangeByScore(String hashKey, String key, double min, double max);
+
+    CompletableFuture<Set<Tuple>> zrangeByScore(String hashKey, String key, double min, double max, int offset, int count);
+
+    CompletableFuture<Set<Tuple>> zrangeByScore(String hashKey, byte[] key, double min, double max, int offset, int count);
+
+    CompletableFuture<Long> zrank(String hashKey, String key, String member);
+
+    CompletableFuture<Long> zrem(String hashKey, String key, String member);
+
+    CompletableFuture<Long> zremrangeByScore(String hashKey, String key, double start, double end);
+
+    CompletableFuture<Long> zremrangebyrank(String hashkey, String key, long start, long stop);
+
+    CompletableFuture<Long> zremrangebyrank(String hashKey, byte[] key, long start, long end);
+
+    CompletableFuture<Set<String>> zrevrangeV2(String hashKey, String key, int start, int end);
+
+    CompletableFuture<Set<Tuple>> zrevrangeByOffsetWithScores(String hashKey, String key, int offset, int count);
+
+    CompletableFuture<Set<Tuple>> zrevrangeWithScore(String hashKey, String key, int startIdx, int endIdx);
+
+    CompletableFuture<Set<String>> zrevrangeByScore(String hashkey, String key, double max, double min);
+
+    CompletableFuture<Set<Tuple>> zrevrangeByScoreWithScores(String hashKey, String key, double max, double min);
+
+    CompletableFuture<Set<String>> zrevrangeByScore(String hashkey, String key, double max, double min, int offset, int count);
+
+    CompletableFuture<Set<Tuple>> zrevrangeByScoreWithScores(String hashKey, String key, double max, double min, int offset, int count);
+
+    CompletableFuture<Double> zscore(String hashKey, String key, String member);
+
+    CompletableFuture<Boolean> setbit(String hashKey, String key, long offset, boolean value);
+
+    CompletableFuture<Boolean> getbit(String hashKey, String key, long offset);
+
+    CompletableFuture<String> getSet(String hashKey, String key, String val);
+
+    CompletableFuture<Long> persist(String hashKey, byte[] key);
+
+    CompletableFuture<Long> pexpire(String hashKey, byte[] key, int milliseconds);
+
+    CompletableFuture<Long> pexpireAt(String hashKey, byte[] key, long millisecondsTimestamp);
+
+    CompletableFuture<Long> pttl(String hashKey, byte[] key);
+
+    CompletableFuture<List<byte[]>> hvals(String hashKey, byte[] key);
+
+    CompletableFuture<List<String>> hvals(String hashKey, String key);
+
+    CompletableFuture<Long> append(String hashKey, byte[] key, byte[] val);
+
+    CompletableFuture<Long> bitcount(String hashKey, byte[] key, long start, long end);
+
+    CompletableFuture<Long> bitop(String hashKey, BitOP op, byte[] destKey, byte[]... srcKeys);
+
+    CompletableFuture<Long> linsert(String hashKey, byte[] key, BinaryClient.LIST_POSITION listPosition, byte[] pivot, byte[] value);
+
+    CompletableFuture<Long> lpushx(String hashKey, byte[] key, byte[] val);
+
+    CompletableFuture<String> lset(String hashKey, byte[] key, int index, byte[] value);
+
+    CompletableFuture<Long> rpushx(String hashKey, byte[] key, byte[] val);
+
+    CompletableFuture<Long> setrange(String hashKey, byte[] key, long offset, byte[] val);
+
+    CompletableFuture<Long> strlen(String hashKey, byte[] key);
+
+    CompletableFuture<Long> smove(String hashKey, byte[] srckey, byte[] dstkey, byte[] member);
+
+    CompletableFuture<String> type(String hashKey, byte[] key);
+
+    CompletableFuture<Long> zinterstore(String hashKey, byte[] dstkey, byte[]... sets);
+
+    CompletableFuture<Long> zinterstore(String hashKey, byte[] dstkey, ZParams zParams, byte[]... sets);
+
+    CompletableFuture<Set<byte[]>> sdiff(String hashKey, byte[]... keys);
+
+    CompletableFuture<Long> sdiffstore(String hashKey, byte[] dstkey, byte[]... keys);
+
+    CompletableFuture<Set<byte[]>> sinter(String hashKey, byte[]... keys);
+
+    CompletableFuture<Set<byte[]>> sunion(String hashKey, byte[]... keys);
+
+    CompletableFuture<Long> zunionstore(String hashKey, byte[] dstkey, byte[]... sets);
+
+    CompletableFuture<Long> zunionstore(String hashKey, byte[] dstkey, ZParams zParams, byte[]... sets);
+
+    CompletableFuture<Object> eval(String hashKey, byte[] script, byte[] keyCount, byte[][] params);
+
+    CompletableFuture<String> scriptLoad(String hashkey, String script);
+
+    CompletableFuture<Object> evalsha(String hashKey, String script, int keyCount, String... params);
+
+    CompletableFuture<String> getrange(String hashKey, byte[] key, long startOffset, long endOffset);
+
+    CompletableFuture<byte[]> rpoplpush(String hashKey, byte[] key, byte[] dest);
+
+    CompletableFuture<Boolean> hsetnx(String hashKey, String key, String field, String value);
+
+    CompletableFuture<Long> sinterstore(String hashKey, String destination, String... keys);
+
+    CompletableFuture<Long> sunionstore(String hashKey, String destination, String... keys);
+
+    CompletableFuture<Long> zrevrank(String hashKey, byte[] key, byte[] member);
+
+    CompletableFuture<List<String>> sort(String hashkey, String key);
+
+    CompletableFuture<List<String>> sort(String hashkey, String key, SortingParams sortingParams);
+
+    CompletableFuture<Long> sort(String hashkey, String key, SortingParams sortingParams, String dstkey);
+
+    CompletableFuture<Long> sort(String hashkey, String key, String dstkey);
+}
@@ -14,6 +14,16 @@ public interface IRedisDao {
 
     JedisPool getJedisPool();
 
+    /**
+     * 阻塞命令和订阅使用的连接池，可能在第一次调用时创建。
+     */
+    JedisPool getBlockingJedisPool();
+
+    /**
+     * 已创建的阻塞命令连接池，尚未创建时返回null，供监控使用，不会触发创建。
+     */
+    JedisPool getCreatedBlockingJedisPool();
+
     Set<String> keys(String var1);
 
     Long persist(byte[] var1);
@@ -195,6 +205,10 @@ public interface IRedisDao {
 
     void psubscribe(JedisPubSub var1, String... var2);
 
+    void unsubscribe(JedisPubSub var1, String... var2);
+
+    void punsubscribe(JedisPubSub var1, String... var2);
+
     Long ttl(String var1);
 
     String type(byte[] var1);
@@ -315,5 +329,7 @@ public interface IRedisDao {
 
     Map<JedisPubSub, String[]> getJedisPubsubMap();
 
+    Map<JedisPubSub, String[]> getJedisPsubscribeMap();
+
     boolean ping();
 }
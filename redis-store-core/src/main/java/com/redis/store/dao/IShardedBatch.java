@@ -0,0 +1,20 @@
+package com.redis.store.dao;
+
+import com.redis.store.executor.IPipelineCommand;
+
+/**
+ * 跨node的pipeline：每条命令带有自己的hashKey，execute时按node分组，每个node一个Pipeline并行执行。
+ * <p/>
+ * 命令在node的写实例上执行，与IStoreDao.pipeline相同。一个批次只能execute一次。
+ */
+public interface IShardedBatch {
+
+    <T> BatchResponse<T> add(String hashKey, IPipelineCommand<T> command);
+
+    int size();
+
+    /**
+     * @return 按提交顺序排列的各命令结果，keys为各命令的hashKey；失败的node记录在nodeFailures中
+     */
+    ShardedResult<Object> execute(long timeoutMillis);
+}
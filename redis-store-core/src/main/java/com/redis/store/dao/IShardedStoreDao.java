@@ -0,0 +1,37 @@
+package com.redis.store.dao;
+
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * 跨分片的批量命令：每个key有自己的hashKey，按node分组后每个node只发送一条MGET/MSET/DEL，各node并行执行。
+ * <p/>
+ * timeoutMillis对每个node单独生效，超时或失败的node不影响其他node的结果，见ShardedResult。
+ */
+public interface IShardedStoreDao {
+
+    /**
+     * @param keyHashKeys key -> hashKey，结果按map的迭代顺序排列
+     */
+    ShardedResult<String> mget(Map<String, String> keyHashKeys, long timeoutMillis);
+
+    ShardedResult<String> mget(List<String> keys, Function<String, String> hashKeyFunction, long timeoutMillis);
+
+    /**
+     * @return 每个key所在node的MSET是否成功
+     */
+    ShardedResult<Boolean> mset(Map<String, String> keyValues, Function<String, String> hashKeyFunction, long timeoutMillis);
+
+    /**
+     * @return 每个key所在node的DEL是否成功，DEL返回的删除数量按node汇总，无法对应到单个key
+     */
+    ShardedResult<Boolean> del(Map<String, String> keyHashKeys, long timeoutMillis);
+
+    ShardedResult<Boolean> del(List<String> keys, Function<String, String> hashKeyFunction, long timeoutMillis);
+
+    /**
+     * 创建一个跨node的pipeline批次。
+     */
+    IShardedBatch newBatch();
+}
@@ -172,11 +172,17 @@ public interface IStoreDao {
 
     Long zremrangebyrank(String hashkey, String key, long start, long stop);
 
+    /**
+     * 删除排名[offset, offset + count - 1]的成员
+     */
     @Deprecated
     Long zremrangeByRank(String hashKey, String key, int offset, int count);
 
     Long zremrangebyrank(String hashKey, byte[] key, long start, long end);
 
+    /**
+     * 倒序排名[offset, offset + count - 1]的成员
+     */
     @Deprecated
     Set<String> zrevrange(String hashKey, String key, int offset, int count);
 
@@ -256,6 +262,9 @@ public interface IStoreDao {
 
     Object eval(String hashKey, byte[] script, byte[] keyCount, byte[][] params);
 
+    /**
+     * 没有hashKey参数：keyCount大于0时按第一个key路由，否则按script路由。
+     */
     Object eval(String script, int keyCount, String... params);
 
     String scriptLoad(String hashkey, String script);
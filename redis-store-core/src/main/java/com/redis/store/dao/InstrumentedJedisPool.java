@@ -0,0 +1,109 @@
+package com.redis.store.dao;
+
+import com.redis.store.monitor.PoolMetrics;
+import org.apache.commons.pool2.impl.GenericObjectPoolConfig;
+import redis.clients.jedis.Jedis;
+import redis.clients.jedis.JedisPool;
+
+import java.util.Collections;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 在借出/归还连接时更新PoolMetrics的JedisPool。
+ */
+public class InstrumentedJedisPool extends JedisPool {
+
+    private final PoolMetrics metrics;
+
+    /** 默认对象池借出中的连接：GenericObjectPool.invalidateObject不检查连接是否借出，重复close会销毁一个空闲连接并重复计数 */
+    private final Set<Jedis> borrowed = Collections.newSetFromMap(new ConcurrentHashMap<Jedis, Boolean>());
+
+    public InstrumentedJedisPool(GenericObjectPoolConfig poolConfig, String host, int port, int timeout, String password) {
+        this(poolConfig, host, port, timeout, password, PoolMetrics.DEFAULT_POOL);
+    }
+
+    /**
+     * pool区分同一实例的多个连接池，见PoolMetrics.BLOCKING_POOL。
+     */
+    public InstrumentedJedisPool(GenericObjectPoolConfig poolConfig, String host, int port, int timeout, String password, String pool) {
+        super(poolConfig, host, port, timeout, password);
+        this.metrics = PoolMetrics.register(host + ":" + port, pool, poolConfig.getMaxTotal());
+    }
+
+    @Override
+    public Jedis getResource() {
+        long begin = metrics.beginBorrow();
+        Jedis jedis;
+        try {
+            jedis = borrowResource();
+        } catch (RuntimeException e) {
+            // jedis把对象池等待超时的NoSuchElementException包装为JedisException，连接失败包装为JedisConnectionException
+            metrics.borrowFailed(begin, e.getCause() instanceof NoSuchElementException);
+            throw e;
+        }
+        metrics.borrowed(begin);
+        return jedis;
+    }
+
+    /**
+     * 以下三个方法是实际的借出/归还/销毁，子类可以替换底层的对象池。
+     */
+    protected Jedis borrowResource() {
+        Jedis jedis = super.getResource();
+        borrowed.add(jedis);
+        return jedis;
+    }
+
+    @SuppressWarnings("deprecation")
+    protected void releaseResource(Jedis resource) {
+        if (!borrowed.remove(resource)) {
+            throw new IllegalStateException("Object has already been returned to this pool or is invalid");
+        }
+        try {
+            super.returnResourceObject(resource);
+        } catch (RuntimeException e) {
+            // returnResource随后会以returnBrokenResource销毁该连接
+            borrowed.add(resource);
+            throw e;
+        }
+    }
+
+    protected void invalidateResource(Jedis resource) {
+        if (!borrowed.remove(resource)) {
+            throw new IllegalStateException("Invalidated object not currently part of this pool");
+        }
+        super.returnBrokenResourceObject(resource);
+    }
+
+    /**
+     * returnResource在resetState失败时会转为returnBrokenResource，因此在最终归还到对象池的这两个方法中计数，每个连接只计一次。
+     * 未借出(如重复close)的连接在归还/销毁时抛出异常，不计数。
+     */
+    @Override
+    @SuppressWarnings("deprecation")
+    public void returnResourceObject(Jedis resource) {
+        releaseResource(resource);
+        metrics.returned();
+    }
+
+    @Override
+    protected void returnBrokenResourceObject(Jedis resource) {
+        invalidateResource(resource);
+        metrics.returned();
+    }
+
+    /**
+     * close也会调用destroy，销毁后不再保留该连接池的统计。
+     */
+    @Override
+    public void destroy() {
+        PoolMetrics.unregister(metrics);
+        super.destroy();
+    }
+
+    public PoolMetrics getMetrics() {
+        return metrics;
+    }
+}
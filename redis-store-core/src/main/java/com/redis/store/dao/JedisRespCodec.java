@@ -0,0 +1,96 @@
+package com.redis.store.dao;
+
+import com.redis.store.dao.resp.IBulkSink;
+import com.redis.store.dao.resp.RespCodec;
+import redis.clients.jedis.Client;
+import redis.clients.jedis.Jedis;
+import redis.clients.jedis.exceptions.JedisConnectionException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+
+/**
+ * 在连接池借出的Jedis连接上用RespCodec收发一条命令，回复的解析与MultiplexedConnection相同(可交给IBulkSink，不创建byte[])。
+ * <p/>
+ * Jedis每条命令都会flush并读完回复，借出的连接上没有残留数据，因此直接使用socket的流；
+ * 读写失败时断开连接并标记为broken，close时由连接池销毁。接收缓冲区每个线程一个，大回复临时扩容，用完后不保留。
+ */
+final class JedisRespCodec {
+
+    private static final int BUFFER_SIZE = 16 * 1024;
+
+    private static final ThreadLocal<ByteBuffer> BUFFERS = ThreadLocal.withInitial(() -> ByteBuffer.allocate(BUFFER_SIZE));
+
+    private JedisRespCodec() {
+    }
+
+    /**
+     * sink为null时返回解析后的回复，否则返回bulk的个数；错误回复返回JedisDataException，由调用方抛出。
+     */
+    static Object execute(Jedis jedis, IBulkSink sink, byte[]... args) {
+        Client client = jedis.getClient();
+        try {
+            Socket socket = client.getSocket();
+            int size = 16;
+            for (byte[] arg : args) {
+                size += arg.length + 16;
+            }
+            ByteBuffer out = RespCodec.encode(ByteBuffer.allocate(size), args);
+            OutputStream output = socket.getOutputStream();
+            output.write(out.array(), 0, out.position());
+            output.flush();
+
+            InputStream input = socket.getInputStream();
+            RespCodec.ScanState state = new RespCodec.ScanState();
+            ByteBuffer in = BUFFERS.get();
+            in.clear();
+            while (true) {
+                if (!in.hasRemaining()) {
+                    // 一个回复比缓冲区大
+                    ByteBuffer grown = ByteBuffer.allocate(in.capacity() * 2);
+                    in.flip();
+                    grown.put(in);
+                    in = grown;
+                }
+                int read = input.read(in.array(), in.arrayOffset() + in.position(), in.remaining());
+                if (read < 0) {
+                    throw new IOException("connection closed by the server");
+                }
+                in.position(in.position() + read);
+                in.flip();
+                Object reply = sink == null ? RespCodec.decode(in, state) : RespCodec.decode(in, sink, state);
+                if (reply != RespCodec.NEED_MORE) {
+                    if (in.hasRemaining()) {
+                        throw new IOException("unexpected data after the reply");
+                    }
+                    return reply;
+                }
+                in.compact();
+            }
+        } catch (IOException e) {
+            broken(jedis);
+            throw new JedisConnectionException(e);
+        } catch (JedisConnectionException e) {
+            broken(jedis);
+            throw e;
+        }
+    }
+
+    /**
+     * 断开后读一次，Jedis把读失败的连接标记为broken，与SubscriptionManager相同。
+     */
+    private static void broken(Jedis jedis) {
+        if (jedis.getClient().isBroken()) {
+            return;
+        }
+        jedis.disconnect();
+        try {
+            jedis.getClient().getOne();
+        } catch (JedisConnectionException e) {
+            // 预期的读失败，连接已标记为broken
+        }
+    }
+}
@@ -0,0 +1,363 @@
+package com.redis.store.dao;
+
+import com.redis.store.dao.resp.DirectBufferPool;
+import com.redis.store.dao.resp.IBulkSink;
+import com.redis.store.dao.resp.RespCodec;
+import org.apache.log4j.Logger;
+import redis.clients.jedis.Protocol;
+import redis.clients.jedis.exceptions.JedisConnectionException;
+import redis.clients.jedis.exceptions.JedisDataException;
+import redis.clients.util.SafeEncoder;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetSocketAddress;
+import java.net.SocketTimeoutException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 到一个redis实例的非阻塞连接，多个线程共享。send把命令放入pending队列，由MultiplexedEventLoop合并写出；
+ * 已写出的命令按顺序进入inFlight，响应按FIFO与之匹配。收发缓冲区是DirectBufferPool中的direct buffer，
+ * 大响应撑大后在空闲时换回默认大小。
+ * <p/>
+ * 连接断开时，所有未完成的命令以JedisConnectionException失败，下一次send时重连，连续失败时按100ms到3s退避。
+ * 最早写出的命令超过timeout仍未收到响应时，连接视为已断开，避免服务端不再响应时连接上的命令一直超时。
+ */
+final class MultiplexedConnection {
+
+    private static final Logger LOGGER = Logger.getLogger(MultiplexedConnection.class);
+
+    private static final int BUFFER_SIZE = 16 * 1024;
+
+    private static final long MIN_RECONNECT_BACKOFF = 100;
+
+    private static final long MAX_RECONNECT_BACKOFF = 3000;
+
+    private final HostPort hostPort;
+
+    private final String password;
+
+    private final int timeout;
+
+    private final MultiplexedEventLoop eventLoop;
+
+    private final Queue<Command> pending = new ConcurrentLinkedQueue<>();
+
+    private final AtomicBoolean scheduled = new AtomicBoolean();
+
+    private volatile SocketChannel channel;
+
+    private volatile boolean closed;
+
+    private long reconnectAfter;
+
+    private long reconnectBackoff = MIN_RECONNECT_BACKOFF;
+
+    // 以下字段只在event loop线程中访问
+
+    private final ArrayDeque<Command> inFlight = new ArrayDeque<>();
+
+    private SelectionKey key;
+
+    /** 写模式，position之前是待写出的数据 */
+    private ByteBuffer out = DirectBufferPool.acquire(BUFFER_SIZE);
+
+    /** 写模式，position之前是已读入未解析的数据 */
+    private ByteBuffer in = DirectBufferPool.acquire(BUFFER_SIZE);
+
+    /** in中第一个未完成回复的扫描进度，大回复分多次到达时不从头重新扫描 */
+    private final RespCodec.ScanState scanState = new RespCodec.ScanState();
+
+    MultiplexedConnection(HostPort hostPort, String password, int timeout) {
+        this.hostPort = hostPort;
+        this.password = password;
+        this.timeout = timeout;
+        this.eventLoop = MultiplexedEventLoop.next();
+    }
+
+    CompletableFuture<Object> send(byte[]... args) {
+        return send(null, args);
+    }
+
+    /**
+     * sink不为空时，响应中的bulk以分片的形式交给sink，future的结果是bulk的个数。
+     */
+    CompletableFuture<Object> send(IBulkSink sink, byte[]... args) {
+        SocketChannel current = channel;
+        if (current == null) {
+            current = connect();
+        }
+        Command command = new Command(args, sink, current);
+        pending.offer(command);
+        if (scheduled.compareAndSet(false, true)) {
+            eventLoop.schedule(this);
+        }
+        return command.future;
+    }
+
+    void close() {
+        closed = true;
+        SocketChannel current = channel;
+        if (current != null) {
+            closeQuietly(current);
+        }
+        // 由event loop失败inFlight和pending中的命令
+        eventLoop.schedule(this);
+    }
+
+    private synchronized SocketChannel connect() {
+        if (closed) {
+            throw new JedisConnectionException("the connection is closed: " + hostPort);
+        }
+        if (channel != null) {
+            return channel;
+        }
+        long now = System.currentTimeMillis();
+        if (now < reconnectAfter) {
+            throw new JedisConnectionException("fail to connect, retry after " + (reconnectAfter - now) + "ms: " + hostPort);
+        }
+        SocketChannel newChannel = null;
+        try {
+            newChannel = SocketChannel.open();
+            newChannel.socket().setTcpNoDelay(true);
+            newChannel.socket().setKeepAlive(true);
+            newChannel.socket().setSoTimeout(timeout);
+            newChannel.socket().connect(new InetSocketAddress(hostPort.getHost(), hostPort.getPort()), timeout);
+            if (password != null) {
+                auth(newChannel);
+            }
+            newChannel.configureBlocking(false);
+        } catch (Exception e) {
+            if (newChannel != null) {
+                closeQuietly(newChannel);
+            }
+            reconnectAfter = now + reconnectBackoff;
+            reconnectBackoff = Math.min(reconnectBackoff * 2, MAX_RECONNECT_BACKOFF);
+            throw e instanceof JedisDataException ? (JedisDataException) e : new JedisConnectionException("fail to connect: " + hostPort, e);
+        }
+        reconnectBackoff = MIN_RECONNECT_BACKOFF;
+        channel = newChannel;
+        return newChannel;
+    }
+
+    /**
+     * 连接发布给其它线程之前以阻塞方式完成AUTH，保证AUTH是连接上的第一个命令。
+     */
+    private void auth(SocketChannel newChannel) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(256);
+        buffer = RespCodec.encode(buffer, new byte[][]{Protocol.Command.AUTH.raw, SafeEncoder.encode(password)});
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            newChannel.write(buffer);
+        }
+        // 阻塞模式下socket的输入流遵守soTimeout
+        InputStream input = newChannel.socket().getInputStream();
+        StringBuilder line = new StringBuilder();
+        int b;
+        while ((b = input.read()) != '\n') {
+            if (b < 0) {
+                throw new IOException("connection closed during auth");
+            }
+            if (b != '\r') {
+                line.append((char) b);
+            }
+        }
+        if (line.length() == 0 || line.charAt(0) != '+') {
+            throw new JedisDataException(line.length() > 0 ? line.substring(1) : "auth failed");
+        }
+    }
+
+    /**
+     * event loop线程：把pending中的命令全部编码后写出。
+     */
+    void flush(Selector selector) {
+        scheduled.set(false);
+        SocketChannel current = channel;
+        if (current == null || closed) {
+            if (key != null) {
+                key.cancel();
+                key = null;
+            }
+            failAll(new JedisConnectionException("the connection is closed: " + hostPort));
+            if (closed && in != null) {
+                DirectBufferPool.release(in);
+                DirectBufferPool.release(out);
+                in = null;
+                out = null;
+            }
+            return;
+        }
+        try {
+            if (key == null || key.channel() != current) {
+                failInFlight(new JedisConnectionException("the connection is reset: " + hostPort));
+                in.clear();
+                out.clear();
+                scanState.reset();
+                key = current.register(selector, SelectionKey.OP_READ, this);
+            }
+            Command command;
+            while ((command = pending.poll()) != null) {
+                if (command.channel != current) {
+                    command.future.completeExceptionally(new JedisConnectionException("the connection is reset: " + hostPort));
+                    continue;
+                }
+                out = RespCodec.encode(out, command.args);
+                command.sentAt = System.nanoTime();
+                inFlight.add(command);
+            }
+            out.flip();
+            current.write(out);
+            out.compact();
+            out = shrinkIfEmpty(out);
+            key.interestOps(out.position() > 0 ? SelectionKey.OP_READ | SelectionKey.OP_WRITE : SelectionKey.OP_READ);
+        } catch (Exception e) {
+            broken(current, e);
+        }
+    }
+
+    /**
+     * event loop线程：读入数据，解析出完整的响应后按顺序完成inFlight中的命令。
+     */
+    void read() {
+        SocketChannel current = channel;
+        if (current == null || key == null || key.channel() != current) {
+            return;
+        }
+        try {
+            if (current.read(in) < 0) {
+                throw new IOException("connection closed by the server");
+            }
+            in.flip();
+            while (in.hasRemaining()) {
+                Command command = inFlight.peek();
+                if (command == null) {
+                    throw new IOException("unexpected reply without a command");
+                }
+                Object reply;
+                if (command.sink == null) {
+                    reply = RespCodec.decode(in, scanState);
+                } else {
+                    try {
+                        reply = RespCodec.decode(in, command.sink, scanState);
+                    } catch (RuntimeException e) {
+                        // 调用方sink的异常，回复已被完整跳过，只失败这一个命令
+                        reply = e;
+                    }
+                }
+                if (reply == RespCodec.NEED_MORE) {
+                    break;
+                }
+                inFlight.poll();
+                if (reply instanceof RuntimeException) {
+                    command.future.completeExceptionally((RuntimeException) reply);
+                } else {
+                    command.future.complete(reply);
+                }
+            }
+            in.compact();
+            if (!in.hasRemaining()) {
+                // 一个响应比缓冲区大
+                in = DirectBufferPool.grow(in, in.capacity() * 2);
+            } else {
+                in = shrinkIfEmpty(in);
+            }
+        } catch (Exception e) {
+            broken(current, e);
+        }
+    }
+
+    /**
+     * event loop线程：最早的未完成命令超过timeout时断开连接，未完成的命令全部失败。
+     */
+    void checkStalled(long now) {
+        Command oldest = inFlight.peek();
+        SocketChannel current = channel;
+        if (oldest == null || current == null || timeout <= 0) {
+            return;
+        }
+        long elapsed = now - oldest.sentAt;
+        if (elapsed > TimeUnit.MILLISECONDS.toNanos(timeout)) {
+            broken(current, new SocketTimeoutException("no reply in " + TimeUnit.NANOSECONDS.toMillis(elapsed) + "ms"));
+        }
+    }
+
+    private void broken(SocketChannel current, Exception e) {
+        LOGGER.error("the multiplexed connection is broken: " + hostPort, e);
+        synchronized (this) {
+            if (channel == current) {
+                channel = null;
+            }
+        }
+        closeQuietly(current);
+        if (key != null && key.channel() == current) {
+            key.cancel();
+            key = null;
+        }
+        failInFlight(new JedisConnectionException("the connection is broken: " + hostPort, e));
+        if (in != null) {
+            in.clear();
+            out.clear();
+        }
+        scanState.reset();
+    }
+
+    private static ByteBuffer shrinkIfEmpty(ByteBuffer buffer) {
+        if (buffer.position() > 0 || buffer.capacity() <= BUFFER_SIZE) {
+            return buffer;
+        }
+        DirectBufferPool.release(buffer);
+        return DirectBufferPool.acquire(BUFFER_SIZE);
+    }
+
+    private void failAll(Exception e) {
+        failInFlight(e);
+        Command command;
+        while ((command = pending.poll()) != null) {
+            command.future.completeExceptionally(e);
+        }
+    }
+
+    private void failInFlight(Exception e) {
+        Command command;
+        while ((command = inFlight.poll()) != null) {
+            command.future.completeExceptionally(e);
+        }
+    }
+
+    private static void closeQuietly(SocketChannel channel) {
+        try {
+            channel.close();
+        } catch (IOException e) {
+            // ignore
+        }
+    }
+
+    private static final class Command {
+
+        private final byte[][] args;
+
+        private final IBulkSink sink;
+
+        private final SocketChannel channel;
+
+        private final CompletableFuture<Object> future = new CompletableFuture<>();
+
+        /** 编码进发送缓冲区的时间，只在event loop线程中访问 */
+        private long sentAt;
+
+        private Command(byte[][] args, IBulkSink sink, SocketChannel channel) {
+            this.args = args;
+            this.sink = sink;
+            this.channel = channel;
+        }
+    }
+}
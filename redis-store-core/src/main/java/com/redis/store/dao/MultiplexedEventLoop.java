@@ -0,0 +1,106 @@
+package com.redis.store.dao;
+
+import com.redis.store.constants.Constants;
+import com.redis.store.service.NamedThreadFactory;
+import org.apache.log4j.Logger;
+
+import java.io.IOException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 多路复用连接共享的IO线程：一个Selector负责若干连接的读写。调用线程只把命令放入连接的队列并唤醒本线程，
+ * 本线程一次取出队列中的全部命令合并写出，这就是自动pipeline。线程数由config.multiplexed.event.loops指定(默认2)，所有实例共享。
+ * 每STALL_CHECK_MILLIS检查一次各连接上最早的未完成命令是否超时。
+ */
+final class MultiplexedEventLoop implements Runnable {
+
+    private static final Logger LOGGER = Logger.getLogger(MultiplexedEventLoop.class);
+
+    private static final MultiplexedEventLoop[] EVENT_LOOPS;
+
+    private static final AtomicInteger NEXT = new AtomicInteger();
+
+    private static final long STALL_CHECK_MILLIS = 100;
+
+    static {
+        int count = Math.max(Integer.getInteger(Constants.REDIS_CONFIG_MULTIPLEXED_EVENT_LOOPS_KEY, 2), 1);
+        EVENT_LOOPS = new MultiplexedEventLoop[count];
+        NamedThreadFactory threadFactory = new NamedThreadFactory("MultiplexedEventLoop", true);
+        for (int i = 0; i < count; i++) {
+            try {
+                EVENT_LOOPS[i] = new MultiplexedEventLoop();
+            } catch (IOException e) {
+                throw new IllegalStateException("fail to open the selector", e);
+            }
+            threadFactory.newThread(EVENT_LOOPS[i]).start();
+        }
+    }
+
+    private final Selector selector;
+
+    /** 需要注册或有命令待写出的连接 */
+    private final Queue<MultiplexedConnection> ready = new ConcurrentLinkedQueue<>();
+
+    private long lastStallCheck = System.nanoTime();
+
+    private MultiplexedEventLoop() throws IOException {
+        this.selector = Selector.open();
+    }
+
+    static MultiplexedEventLoop next() {
+        return EVENT_LOOPS[(NEXT.getAndIncrement() & Integer.MAX_VALUE) % EVENT_LOOPS.length];
+    }
+
+    void schedule(MultiplexedConnection connection) {
+        ready.offer(connection);
+        selector.wakeup();
+    }
+
+    @Override
+    public void run() {
+        while (true) {
+            try {
+                selector.select(STALL_CHECK_MILLIS);
+
+                MultiplexedConnection connection;
+                while ((connection = ready.poll()) != null) {
+                    connection.flush(selector);
+                }
+
+                Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+                    MultiplexedConnection attachment = (MultiplexedConnection) key.attachment();
+                    if (!key.isValid()) {
+                        continue;
+                    }
+                    if (key.isReadable()) {
+                        attachment.read();
+                    }
+                    if (key.isValid() && key.isWritable()) {
+                        attachment.flush(selector);
+                    }
+                }
+
+                long now = System.nanoTime();
+                if (now - lastStallCheck >= TimeUnit.MILLISECONDS.toNanos(STALL_CHECK_MILLIS)) {
+                    lastStallCheck = now;
+                    for (SelectionKey key : selector.keys()) {
+                        if (key.isValid()) {
+                            ((MultiplexedConnection) key.attachment()).checkStalled(now);
+                        }
+                    }
+                }
+            } catch (Throwable t) {
+                LOGGER.error("multiplexed event loop error", t);
+            }
+        }
+    }
+}
@@ -0,0 +1,327 @@
+package com.redis.store.dao;
+
+import com.redis.store.dao.resp.IBulkSink;
+import redis.clients.jedis.BuilderFactory;
+import redis.clients.jedis.JedisPool;
+import redis.clients.jedis.Protocol;
+import redis.clients.jedis.exceptions.JedisConnectionException;
+import redis.clients.util.SafeEncoder;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * RedisTransport.MULTIPLEXED的IRedisDao：常用的单key命令通过少量共享的MultiplexedConnection发送，
+ * 多个线程的命令合并写出，不占用连接池；阻塞命令、pubsub、pipeline、事务等其它命令仍使用SimpleRedisDao的连接池。
+ * <p/>
+ * 带IBulkSink参数的方法(见SimpleRedisDao)同样通过MultiplexedConnection发送，value以接收缓冲区的分片交给sink。
+ */
+public class MultiplexedRedisDao extends SimpleRedisDao {
+
+    private final MultiplexedConnection[] connections;
+
+    private final int timeout;
+
+    public MultiplexedRedisDao(JedisPool jedisPool, HostPort hostPort, String password, int timeout, int connectionCount) {
+        this(jedisPool, jedisPool, hostPort, password, timeout, connectionCount);
+    }
+
+    public MultiplexedRedisDao(JedisPool jedisPool, JedisPool blockingJedisPool, HostPort hostPort, String password, int timeout, int connectionCount) {
+        super(jedisPool, blockingJedisPool);
+        this.timeout = timeout;
+        this.connections = connect(hostPort, password, timeout, connectionCount);
+        setHostPort(hostPort);
+    }
+
+    /**
+     * 阻塞命令的连接池在第一次阻塞命令或订阅时由blockingJedisPoolFactory创建。
+     */
+    public MultiplexedRedisDao(JedisPool jedisPool, Supplier<JedisPool> blockingJedisPoolFactory, HostPort hostPort, String password, int timeout,
+                               int connectionCount) {
+        super(jedisPool, blockingJedisPoolFactory);
+        this.timeout = timeout;
+        this.connections = connect(hostPort, password, timeout, connectionCount);
+        setHostPort(hostPort);
+    }
+
+    private static MultiplexedConnection[] connect(HostPort hostPort, String password, int timeout, int connectionCount) {
+        MultiplexedConnection[] connections = new MultiplexedConnection[Math.max(connectionCount, 1)];
+        for (int i = 0; i < connections.length; i++) {
+            connections[i] = new MultiplexedConnection(hostPort, password, timeout);
+        }
+        return connections;
+    }
+
+    private Object execute(String command, Object key, byte[]... args) {
+        return execute(command, key, null, args);
+    }
+
+    private Object execute(String command, Object key, IBulkSink sink, byte[]... args) {
+        MultiplexedConnection connection = connections.length == 1 ? connections[0] : connections[ThreadLocalRandom.current().nextInt(connections.length)];
+        try {
+            return connection.send(sink, args).get(timeout, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            throw new RuntimeException("redis " + command + " error, key = " + key, e.getCause());
+        } catch (TimeoutException e) {
+            throw new RuntimeException("redis " + command + " error, key = " + key, new JedisConnectionException("read timed out after " + timeout + "ms", e));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("redis " + command + " interrupted, key = " + key, e);
+        } catch (JedisConnectionException e) {
+            throw new RuntimeException("redis " + command + " error, key = " + key, e);
+        }
+    }
+
+    private static byte[] raw(String value) {
+        return SafeEncoder.encode(value);
+    }
+
+    private static byte[][] raw(Protocol.Command command, String key, String... values) {
+        byte[][] args = new byte[values.length + 2][];
+        args[0] = command.raw;
+        args[1] = raw(key);
+        for (int i = 0; i < values.length; i++) {
+            args[i + 2] = raw(values[i]);
+        }
+        return args;
+    }
+
+    @Override
+    @Deprecated
+    public void destroy() {
+        for (MultiplexedConnection connection : connections) {
+            connection.close();
+        }
+        super.destroy();
+    }
+
+    @Override
+    public String get(String key) {
+        return BuilderFactory.STRING.build(execute("get", key, Protocol.Command.GET.raw, raw(key)));
+    }
+
+    @Override
+    public byte[] get(byte[] key) {
+        return (byte[]) execute("get", key, Protocol.Command.GET.raw, key);
+    }
+
+    @Override
+    public boolean get(byte[] key, IBulkSink sink) {
+        boolean[] found = new boolean[1];
+        execute("get", key, value -> {
+            found[0] = value != null;
+            sink.onBulk(value);
+        }, Protocol.Command.GET.raw, key);
+        return found[0];
+    }
+
+    @Override
+    public void mget(IBulkSink sink, byte[]... keys) {
+        byte[][] args = new byte[keys.length + 1][];
+        args[0] = Protocol.Command.MGET.raw;
+        System.arraycopy(keys, 0, args, 1, keys.length);
+        execute("mget", keys.length, sink, args);
+    }
+
+    @Override
+    public int hgetAll(byte[] key, IBulkSink sink) {
+        return (Integer) execute("hgetAll", key, sink, Protocol.Command.HGETALL.raw, key) / 2;
+    }
+
+    @Override
+    public int hvals(byte[] key, IBulkSink sink) {
+        return (Integer) execute("hvals", key, sink, Protocol.Command.HVALS.raw, key);
+    }
+
+    @Override
+    public int lrange(byte[] key, long start, long end, IBulkSink sink) {
+        return (Integer) execute("lrange", key, sink, Protocol.Command.LRANGE.raw, key, Protocol.toByteArray(start), Protocol.toByteArray(end));
+    }
+
+    @Override
+    public List<byte[]> hvals(byte[] key) {
+        return BuilderFactory.BYTE_ARRAY_LIST.build(execute("hvals", key, Protocol.Command.HVALS.raw, key));
+    }
+
+    @Override
+    public byte[] lindex(byte[] key, int i) {
+        return (byte[]) execute("lindex", key, Protocol.Command.LINDEX.raw, key, Protocol.toByteArray(i));
+    }
+
+    @Override
+    public byte[] lpop(byte[] key) {
+        return (byte[]) execute("lpop", key, Protocol.Command.LPOP.raw, key);
+    }
+
+    @Override
+    public byte[] rpop(byte[] key) {
+        return (byte[]) execute("rpop", key, Protocol.Command.RPOP.raw, key);
+    }
+
+    @Override
+    public Long lpush(byte[] key, byte[] val) {
+        return (Long) execute("lpush", key, Protocol.Command.LPUSH.raw, key, val);
+    }
+
+    @Override
+    public Long rpush(byte[] key, byte[] val) {
+        return (Long) execute("rpush", key, Protocol.Command.RPUSH.raw, key, val);
+    }
+
+    @Override
+    public long llen(byte[] key) {
+        return (Long) execute("llen", key, Protocol.Command.LLEN.raw, key);
+    }
+
+    @Override
+    public Long expire(byte[] key, int seconds) {
+        return (Long) execute("expire", key, Protocol.Command.EXPIRE.raw, key, Protocol.toByteArray(seconds));
+    }
+
+    @Override
+    public Long pttl(byte[] key) {
+        return (Long) execute("pttl", key, Protocol.Command.PTTL.raw, key);
+    }
+
+    @Override
+    public Long persist(byte[] key) {
+        return (Long) execute("persist", key, Protocol.Command.PERSIST.raw, key);
+    }
+
+    @Override
+    public Long strlen(byte[] key) {
+        return (Long) execute("strlen", key, Protocol.Command.STRLEN.raw, key);
+    }
+
+    @Override
+    public Long zcard(byte[] key) {
+        return (Long) execute("zcard", key, Protocol.Command.ZCARD.raw, key);
+    }
+
+    @Override
+    public String set(String key, String val) {
+        return BuilderFactory.STRING.build(execute("set", key, Protocol.Command.SET.raw, raw(key), raw(val)));
+    }
+
+    @Override
+    public String set(byte[] key, byte[] val) {
+        return BuilderFactory.STRING.build(execute("set", key, Protocol.Command.SET.raw, key, val));
+    }
+
+    @Override
+    public String set(String key, String val, int expireSecond) {
+        return BuilderFactory.STRING.build(execute("setex", key, Protocol.Command.SETEX.raw, raw(key), Protocol.toByteArray(expireSecond), raw(val)));
+    }
+
+    @Override
+    public Long del(String key) {
+        return (Long) execute("del", key, Protocol.Command.DEL.raw, raw(key));
+    }
+
+    @Override
+    public boolean exists(String key) {
+        return (Long) execute("exists", key, Protocol.Command.EXISTS.raw, raw(key)) == 1;
+    }
+
+    @Override
+    public Long expire(String key, int seconds) {
+        return (Long) execute("expire", key, Protocol.Command.EXPIRE.raw, raw(key), Protocol.toByteArray(seconds));
+    }
+
+    @Override
+    public Long ttl(String key) {
+        return (Long) execute("ttl", key, Protocol.Command.TTL.raw, raw(key));
+    }
+
+    @Override
+    public String hget(String key, String field) {
+        return BuilderFactory.STRING.build(execute("hget", key, raw(Protocol.Command.HGET, key, field)));
+    }
+
+    @Override
+    public Long hset(String key, String field, String value) {
+        return (Long) execute("hset", key, raw(Protocol.Command.HSET, key, field, value));
+    }
+
+    @Override
+    public Long hdel(String key, String field) {
+        return (Long) execute("hdel", key, raw(Protocol.Command.HDEL, key, field));
+    }
+
+    @Override
+    public boolean hexists(String key, String field) {
+        return (Long) execute("hexists", key, raw(Protocol.Command.HEXISTS, key, field)) == 1;
+    }
+
+    @Override
+    public long hlen(String key) {
+        return (Long) execute("hlen", key, raw(Protocol.Command.HLEN, key));
+    }
+
+    @Override
+    public Map<String, String> hgetAll(String key) {
+        return BuilderFactory.STRING_MAP.build(execute("hgetAll", key, raw(Protocol.Command.HGETALL, key)));
+    }
+
+    @Override
+    public List<String> hmget(String key, String... fields) {
+        return BuilderFactory.STRING_LIST.build(execute("hmget", key, raw(Protocol.Command.HMGET, key, fields)));
+    }
+
+    @Override
+    public List<String> mget(String... keys) {
+        byte[][] args = new byte[keys.length + 1][];
+        args[0] = Protocol.Command.MGET.raw;
+        for (int i = 0; i < keys.length; i++) {
+            args[i + 1] = raw(keys[i]);
+        }
+        return BuilderFactory.STRING_LIST.build(execute("mget", Arrays.toString(keys), args));
+    }
+
+    @Override
+    public Set<String> smembers(String key) {
+        return BuilderFactory.STRING_SET.build(execute("smembers", key, raw(Protocol.Command.SMEMBERS, key)));
+    }
+
+    @Override
+    public boolean sismember(String key, String val) {
+        return (Long) execute("sismember", key, raw(Protocol.Command.SISMEMBER, key, val)) == 1;
+    }
+
+    @Override
+    public Long sadd(String key, String val) {
+        return (Long) execute("sadd", key, raw(Protocol.Command.SADD, key, val));
+    }
+
+    @Override
+    public Long srem(String key, String val) {
+        return (Long) execute("srem", key, raw(Protocol.Command.SREM, key, val));
+    }
+
+    @Override
+    public Long scard(String key) {
+        return (Long) execute("scard", key, raw(Protocol.Command.SCARD, key));
+    }
+
+    @Override
+    public Double zscore(String key, String member) {
+        return BuilderFactory.DOUBLE.build(execute("zscore", key, raw(Protocol.Command.ZSCORE, key, member)));
+    }
+
+    @Override
+    public long llen(String key) {
+        return (Long) execute("llen", key, raw(Protocol.Command.LLEN, key));
+    }
+
+    @Override
+    public List<String> lrange(String key, int start, int end) {
+        return BuilderFactory.STRING_LIST.build(execute("lrange", key, raw(Protocol.Command.LRANGE, key, String.valueOf(start), String.valueOf(end))));
+    }
+}
@@ -0,0 +1,71 @@
+package com.redis.store.dao;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 跨分片批量命令的结果，values与请求中key的顺序一致。
+ * <p/>
+ * 某个node执行失败或超时时，属于该node的key对应的值为null，失败原因记录在nodeFailures中，其他node的结果不受影响。
+ */
+public class ShardedResult<T> {
+
+    private final List<String> keys;
+
+    private final List<T> values;
+
+    private final Map<String, Exception> nodeFailures = new LinkedHashMap<>();
+
+    private final List<String> failedKeys = new ArrayList<>();
+
+    public ShardedResult(List<String> keys) {
+        this.keys = keys;
+        this.values = new ArrayList<>(Collections.<T>nCopies(keys.size(), null));
+    }
+
+    public void set(int index, T value) {
+        values.set(index, value);
+    }
+
+    public void fail(String nodeName, List<Integer> indexes, Exception e) {
+        nodeFailures.put(nodeName, e);
+        for (Integer index : indexes) {
+            failedKeys.add(keys.get(index));
+        }
+    }
+
+    public T get(int index) {
+        return values.get(index);
+    }
+
+    public List<String> getKeys() {
+        return keys;
+    }
+
+    public List<T> getValues() {
+        return values;
+    }
+
+    /**
+     * node名称 -> 失败原因，超时为TimeoutException。
+     */
+    public Map<String, Exception> getNodeFailures() {
+        return nodeFailures;
+    }
+
+    public List<String> getFailedKeys() {
+        return failedKeys;
+    }
+
+    public boolean isComplete() {
+        return nodeFailures.isEmpty();
+    }
+
+    @Override
+    public String toString() {
+        return "ShardedResult [keys=" + keys.size() + ", failedNodes=" + nodeFailures.keySet() + "]";
+    }
+}
@@ -2,20 +2,21 @@ package com.redis.store.dao;
 
 import com.google.common.base.Joiner;
 import com.google.common.collect.Iterators;
+import com.redis.store.dao.resp.IBulkSink;
 import com.redis.store.executor.IExecutor;
+import com.redis.store.monitor.BorrowWait;
 import com.redis.store.util.JsonUtils;
 import com.redis.store.utils.StringUtils;
 import org.apache.commons.io.Charsets;
-import org.apache.commons.lang.math.RandomUtils;
 import org.apache.commons.lang3.tuple.Pair;
 import org.apache.log4j.Logger;
 import redis.clients.jedis.*;
-import redis.clients.jedis.exceptions.JedisConnectionException;
 import redis.clients.util.SafeEncoder;
 import redis.clients.util.Slowlog;
 
 import java.util.*;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
 
 /**
  * Author LTY
@@ -23,25 +24,47 @@ import java.util.concurrent.atomic.AtomicBoolean;
  */
 public class SimpleRedisDao implements IRedisDao {
 
-    private static final int SUBSCRIBE_RETRY_MAX_INTERVAL = 3000;
-
     private static final Logger LOGGER = Logger.getLogger(SimpleRedisDao.class);
 
     private HostPort hostport;
 
+    /** hostport.toString()的缓存，getHostPort在每次命令的统计路径上调用 */
+    private volatile String hostPortString;
+
     private volatile JedisPool jedisPool;
 
+    /** 阻塞命令(blpop/brpoplpush)和订阅使用的连接池，长时间占用连接不影响普通命令；未单独配置时与jedisPool相同 */
+    private volatile JedisPool blockingJedisPool;
+
+    /** 不为null时blockingJedisPool在第一次阻塞命令或订阅时由它创建 */
+    private final Supplier<JedisPool> blockingJedisPoolFactory;
+
     private volatile boolean close;
 
-    private Map<JedisPubSub, String[]> jedisPubSubMap = Collections.synchronizedMap(new HashMap<JedisPubSub, String[]>());
+    /** 第一次订阅时创建 */
+    private volatile SubscriptionManager subscriptionManager;
 
     public SimpleRedisDao(JedisPool jedisPool) {
+        this(jedisPool, jedisPool);
+    }
+
+    public SimpleRedisDao(JedisPool jedisPool, JedisPool blockingJedisPool) {
+        this.jedisPool = jedisPool;
+        this.blockingJedisPool = blockingJedisPool == null ? jedisPool : blockingJedisPool;
+        this.blockingJedisPoolFactory = null;
+    }
+
+    /**
+     * 阻塞命令的连接池延迟到第一次阻塞命令或订阅时创建，不使用阻塞命令的实例不占用额外连接。
+     */
+    public SimpleRedisDao(JedisPool jedisPool, Supplier<JedisPool> blockingJedisPoolFactory) {
         this.jedisPool = jedisPool;
+        this.blockingJedisPoolFactory = blockingJedisPoolFactory;
     }
 
     @Override
     public String getHostPort() {
-        return hostport.toString();
+        return hostPortString;
     }
 
     @Override
@@ -49,8 +72,32 @@ public class SimpleRedisDao implements IRedisDao {
         return jedisPool;
     }
 
+    @Override
+    public JedisPool getBlockingJedisPool() {
+        JedisPool pool = blockingJedisPool;
+        if (pool == null) {
+            synchronized (this) {
+                pool = blockingJedisPool;
+                if (pool == null) {
+                    pool = blockingJedisPoolFactory.get();
+                    blockingJedisPool = pool;
+                    if (close && pool != jedisPool) {
+                        pool.destroy();
+                    }
+                }
+            }
+        }
+        return pool;
+    }
+
+    @Override
+    public JedisPool getCreatedBlockingJedisPool() {
+        return blockingJedisPool;
+    }
+
     public SimpleRedisDao setHostPort(HostPort hostport) {
         this.hostport = hostport;
+        this.hostPortString = hostport.toString();
         return this;
     }
 
@@ -180,8 +227,19 @@ public class SimpleRedisDao implements IRedisDao {
     @Override
     @Deprecated
     public void destroy() {
+        SubscriptionManager manager = subscriptionManager;
+        if (manager != null) {
+            manager.close();
+        }
         jedisPool.destroy();
-        close = true;
+        JedisPool blockingPool;
+        synchronized (this) {
+            close = true;
+            blockingPool = blockingJedisPool;
+        }
+        if (blockingPool != null && blockingPool != jedisPool) {
+            blockingPool.destroy();
+        }
     }
 
     @Override
@@ -193,7 +251,7 @@ public class SimpleRedisDao implements IRedisDao {
     public byte[] brpoplpush(byte[] key, byte[] dest, int timeout) {
         Jedis jedis = null;
         try {
-            jedis = getJedisResource();
+            jedis = getBlockingJedisResource();
             return jedis.brpoplpush(key, dest, timeout);
         } catch (Exception e) {
             if (jedis != null) {
@@ -234,7 +292,7 @@ public class SimpleRedisDao implements IRedisDao {
         List<String> result;
         Jedis jedis = null;
         try {
-            jedis = getJedisResource();
+            jedis = getBlockingJedisResource();
             result = jedis.blpop(timeout, key);
         } catch (Exception e) {
             if (jedis != null) {
@@ -256,7 +314,7 @@ public class SimpleRedisDao implements IRedisDao {
         List<String> result;
         Jedis jedis = null;
         try {
-            jedis = getJedisResource();
+            jedis = getBlockingJedisResource();
             result = jedis.blpop(timeout, keys);
         } catch (Exception e) {
             if (jedis != null) {
@@ -606,6 +664,43 @@ public class SimpleRedisDao implements IRedisDao {
         return val;
     }
 
+    /**
+     * value(不存在时为null)交给sink，返回key是否存在；回复由RespCodec解析，不创建byte[]。
+     */
+    public boolean get(byte[] key, IBulkSink sink) {
+        boolean[] found = new boolean[1];
+        executeResp("get", key, value -> {
+            found[0] = value != null;
+            sink.onBulk(value);
+        }, Protocol.Command.GET.raw, key);
+        return found[0];
+    }
+
+    /**
+     * 各个key的value按顺序交给sink，不存在的key为null。
+     */
+    public void mget(IBulkSink sink, byte[]... keys) {
+        byte[][] args = new byte[keys.length + 1][];
+        args[0] = Protocol.Command.MGET.raw;
+        System.arraycopy(keys, 0, args, 1, keys.length);
+        executeResp("mget", keys.length, sink, args);
+    }
+
+    /**
+     * field和value交替交给sink，返回field的个数。
+     */
+    public int hgetAll(byte[] key, IBulkSink sink) {
+        return (Integer) executeResp("hgetAll", key, sink, Protocol.Command.HGETALL.raw, key) / 2;
+    }
+
+    public int hvals(byte[] key, IBulkSink sink) {
+        return (Integer) executeResp("hvals", key, sink, Protocol.Command.HVALS.raw, key);
+    }
+
+    public int lrange(byte[] key, long start, long end, IBulkSink sink) {
+        return (Integer) executeResp("lrange", key, sink, Protocol.Command.LRANGE.raw, key, Protocol.toByteArray(start), Protocol.toByteArray(end));
+    }
+
     @Override
     public Long hdel(String key, String field) {
         Jedis jedis = null;
@@ -2048,69 +2143,41 @@ public class SimpleRedisDao implements IRedisDao {
         }
     }
 
+    /**
+     * 只登记订阅，消息由本实例共用的订阅连接和线程分发，见SubscriptionManager。
+     */
     @Override
     public void subscribe(final JedisPubSub jedisPubSub, final String... channel) {
-        new Thread(() -> {
-            while (!Thread.interrupted() && !isDestroyed()) {
-                Jedis jedis = null;
-                try {
-                    jedis = getJedisResource();
-
-                    jedisPubSubMap.put(jedisPubSub, channel);
-
-                    jedis.subscribe(jedisPubSub, channel);
-                } catch (Exception e) {
-                    if (jedis != null) {
-                        jedis.close();
-                        jedis = null;
-                    }
-                    LOGGER.error("jedis.subscribe() error, channel: " + Arrays.toString(channel));
-
-                    try {
-                        Thread.sleep(RandomUtils.nextInt(SUBSCRIBE_RETRY_MAX_INTERVAL));
-                    } catch (InterruptedException e1) {
-                        LOGGER.error(e1);
-                    }
-                    continue;
+        getSubscriptionManager().subscribe(jedisPubSub, channel);
+    }
 
-                } finally {
-                    if (jedis != null) {
-                        jedis.close();
-                    }
-                }
-                break;
-            }
-            jedisPubSubMap.remove(jedisPubSub);
-            LOGGER.error("jedis.subscribe() finished: " + Arrays.toString(channel));
-        }).start();
+    @Override
+    public void psubscribe(JedisPubSub jedisPubSub, String... patterns) {
+        getSubscriptionManager().psubscribe(jedisPubSub, patterns);
     }
 
+    @Override
+    public void unsubscribe(JedisPubSub jedisPubSub, String... channels) {
+        getSubscriptionManager().unsubscribe(jedisPubSub, channels);
+    }
 
     @Override
-    public void psubscribe(JedisPubSub jedisPubSub, String... patterns) {
-        while (true) {
-            Jedis jedis = null;
+    public void punsubscribe(JedisPubSub jedisPubSub, String... patterns) {
+        getSubscriptionManager().punsubscribe(jedisPubSub, patterns);
+    }
 
-            try {
-                jedis = getJedisResource();
-                jedis.psubscribe(jedisPubSub, patterns);
-            } catch (Exception e) {
-                if (jedis != null) {
-                    jedis.close();
-                    jedis = null;
+    private SubscriptionManager getSubscriptionManager() {
+        SubscriptionManager manager = subscriptionManager;
+        if (manager == null) {
+            synchronized (this) {
+                manager = subscriptionManager;
+                if (manager == null) {
+                    manager = new SubscriptionManager(this);
+                    subscriptionManager = manager;
                 }
-                LOGGER.error("psubscribe(" + jedisPubSub + "," + Arrays.toString(patterns) + ")", e);
-            } finally {
-                if (jedis != null) {
-                    jedis.close();
-                }
-            }
-            try {
-                Thread.sleep(RandomUtils.nextInt(SUBSCRIBE_RETRY_MAX_INTERVAL));
-            } catch (InterruptedException e) {
-                LOGGER.error(e);
             }
         }
+        return manager;
     }
 
     @Override
@@ -2885,11 +2952,40 @@ public class SimpleRedisDao implements IRedisDao {
 
 
     private Jedis getJedisResource() {
-        long start = System.currentTimeMillis();
+        return getJedisResource(getJedisPool());
+    }
+
+    private Object executeResp(String command, Object key, IBulkSink sink, byte[]... args) {
+        String keyString = key instanceof byte[] ? Arrays.toString((byte[]) key) : String.valueOf(key);
+        Object reply;
+        Jedis jedis = null;
+        try {
+            jedis = getJedisResource();
+            reply = JedisRespCodec.execute(jedis, sink, args);
+        } catch (Exception e) {
+            LOGGER.error(StringUtils.format("SimpleRedisDao.{0}() error, host:{1}, key: {2}", command, hostport, keyString), e);
+            throw new RuntimeException("redis " + command + " error, key = " + keyString, e);
+        } finally {
+            if (jedis != null) {
+                jedis.close();
+            }
+        }
+        if (reply instanceof RuntimeException) {
+            throw new RuntimeException("redis " + command + " error, key = " + keyString, (RuntimeException) reply);
+        }
+        return reply;
+    }
+
+    private Jedis getBlockingJedisResource() {
+        return getJedisResource(getBlockingJedisPool());
+    }
+
+    private Jedis getJedisResource(JedisPool pool) {
+        long begin = System.nanoTime();
         try {
-            return getJedisPool().getResource();
+            return pool.getResource();
         } catch (Exception e) {
-            LOGGER.error(StringUtils.format("getJedisResource error, timeCost={0}, hostport = {1}", System.currentTimeMillis() - start, hostport.toString()), e);
+            LOGGER.error(StringUtils.format("getJedisResource error, timeCost={0}, hostport = {1}", (System.nanoTime() - begin) / 1000000, hostport.toString()), e);
 
             // ping()
             try {
@@ -2899,8 +2995,7 @@ public class SimpleRedisDao implements IRedisDao {
             }
 
             // pool is full
-            if (e instanceof JedisConnectionException
-                    && e.getCause() instanceof NoSuchElementException) {
+            if (e.getCause() instanceof NoSuchElementException) {
                 throw new RuntimeException("jedis pool is full: " + hostport.toString(), e);
             }
 
@@ -2908,9 +3003,8 @@ public class SimpleRedisDao implements IRedisDao {
             throw new RuntimeException("getJedisResource() error: " + hostport.toString(), e);
 
         } finally {
-            long end = System.currentTimeMillis();
-            LOGGER.info("getJedisResource()" + (end - start) + " " + hostport);
-//            RedisDaoLog.info("getJedisPool().getResource()", "getJedisResource()", (end - start), hostport);
+            // 等待时间由BorrowWait和连接池的PoolMetrics统计，不在每次借连接时打日志
+            BorrowWait.add(System.nanoTime() - begin);
         }
     }
 
@@ -3120,7 +3214,14 @@ public class SimpleRedisDao implements IRedisDao {
 
     @Override
     public Map<JedisPubSub, String[]> getJedisPubsubMap() {
-        return jedisPubSubMap;
+        SubscriptionManager manager = subscriptionManager;
+        return manager == null ? Collections.<JedisPubSub, String[]>emptyMap() : manager.getSubscriptions(false);
+    }
+
+    @Override
+    public Map<JedisPubSub, String[]> getJedisPsubscribeMap() {
+        SubscriptionManager manager = subscriptionManager;
+        return manager == null ? Collections.<JedisPubSub, String[]>emptyMap() : manager.getSubscriptions(true);
     }
 
     private String str(byte[] bytes) {
@@ -0,0 +1,429 @@
+package com.redis.store.dao;
+
+import com.redis.store.service.NamedThreadFactory;
+import org.apache.commons.pool2.impl.GenericObjectPoolConfig;
+import org.apache.log4j.Logger;
+import redis.clients.jedis.Jedis;
+import redis.clients.jedis.exceptions.JedisConnectionException;
+import redis.clients.jedis.exceptions.JedisException;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 不使用GenericObjectPool的JedisPool：空闲连接按线程id分散在多个无锁的stripe(ConcurrentLinkedDeque)中，
+ * 线程优先从自己的stripe取/还连接，取不到时再从其它stripe取，借还都没有全局锁。
+ * <p/>
+ * 支持JedisPoolConfig中的maxTotal/maxIdle/minIdle/maxWaitMillis/blockWhenExhausted、testOnCreate/testOnBorrow/testOnReturn/testWhileIdle
+ * 以及minEvictableIdleTimeMillis/softMinEvictableIdleTimeMillis/timeBetweenEvictionRunsMillis，空闲连接总是LIFO，
+ * 每次检查全部空闲连接(不使用numTestsPerEvictionRun)。借出的连接数由Semaphore限制在maxTotal以内，等待连接的线程数即其排队数。
+ * <p/>
+ * 持有名额的线程只会在evictor检查或补充连接时暂时拿不到连接，此时在signals上等待evictor放回或销毁连接，不自旋。
+ */
+public class StripedJedisPool extends InstrumentedJedisPool {
+
+    private static final Logger LOGGER = Logger.getLogger(StripedJedisPool.class);
+
+    private static final ScheduledExecutorService EVICTOR = Executors.newSingleThreadScheduledExecutor(new NamedThreadFactory("StripedJedisPoolEvictor", true));
+
+    private final String host;
+
+    private final int port;
+
+    private final int timeout;
+
+    private final String password;
+
+    private final GenericObjectPoolConfig config;
+
+    private final Stripe[] stripes;
+
+    private final int mask;
+
+    /** 未借出的名额，maxTotal为负数时不限制 */
+    private final Semaphore permits;
+
+    /** 已借出的连接和开始借的时间(nanoTime)，用于识别重复归还 */
+    private final ConcurrentMap<Jedis, Long> borrowed = new ConcurrentHashMap<>();
+
+    private final AtomicInteger idleCount = new AtomicInteger();
+
+    private final AtomicInteger totalCount = new AtomicInteger();
+
+    /** 最近约100次借连接等待时间的指数移动平均，与GenericObjectPool的meanBorrowWaitTimeMillis近似 */
+    private final AtomicLong meanBorrowWaitNanos = new AtomicLong();
+
+    private final AtomicLong maxBorrowWaitNanos = new AtomicLong();
+
+    /** evictor放回或销毁连接的次数，持有名额却拿不到连接的线程以此判断是否需要继续等待 */
+    private final AtomicInteger signals = new AtomicInteger();
+
+    /** 在signals上等待的线程数，没有等待者时signal不加锁 */
+    private final AtomicInteger signalWaiters = new AtomicInteger();
+
+    private final ScheduledFuture<?> evictor;
+
+    private volatile boolean closed;
+
+    public StripedJedisPool(GenericObjectPoolConfig poolConfig, String host, int port, int timeout, String password) {
+        super(delegateConfig(poolConfig), host, port, timeout, password);
+        this.host = host;
+        this.port = port;
+        this.timeout = timeout;
+        this.password = password;
+        this.config = poolConfig.clone();
+
+        int stripeCount = Integer.highestOneBit(Math.max(Runtime.getRuntime().availableProcessors() * 2 - 1, 1));
+        this.stripes = new Stripe[stripeCount];
+        for (int i = 0; i < stripeCount; i++) {
+            stripes[i] = new Stripe();
+        }
+        this.mask = stripeCount - 1;
+        this.permits = new Semaphore(config.getMaxTotal() < 0 ? Integer.MAX_VALUE : config.getMaxTotal());
+
+        long period = config.getTimeBetweenEvictionRunsMillis();
+        this.evictor = period > 0 ? EVICTOR.scheduleWithFixedDelay(this::evict, period, period, TimeUnit.MILLISECONDS) : null;
+    }
+
+    /**
+     * 父类的GenericObjectPool不会被使用，只保留maxTotal供PoolMetrics使用，不创建连接、不启动evictor、不注册JMX。
+     */
+    private static GenericObjectPoolConfig delegateConfig(GenericObjectPoolConfig poolConfig) {
+        GenericObjectPoolConfig delegate = poolConfig.clone();
+        delegate.setMinIdle(0);
+        delegate.setTimeBetweenEvictionRunsMillis(-1);
+        delegate.setJmxEnabled(false);
+        return delegate;
+    }
+
+    @Override
+    protected Jedis borrowResource() {
+        long begin = System.nanoTime();
+        acquirePermit();
+        Jedis jedis;
+        try {
+            jedis = takeOrCreate();
+        } catch (RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+        borrowed.put(jedis, begin);
+        jedis.setDataSource(this);
+
+        long waitNanos = System.nanoTime() - begin;
+        long mean;
+        do {
+            mean = meanBorrowWaitNanos.get();
+        } while (!meanBorrowWaitNanos.compareAndSet(mean, mean + (waitNanos - mean) / 100));
+        long max;
+        do {
+            max = maxBorrowWaitNanos.get();
+        } while (waitNanos > max && !maxBorrowWaitNanos.compareAndSet(max, waitNanos));
+        return jedis;
+    }
+
+    private void acquirePermit() {
+        if (closed) {
+            throw new JedisException("Could not get a resource from the pool", new IllegalStateException("Pool not open"));
+        }
+        boolean acquired;
+        try {
+            if (!config.getBlockWhenExhausted()) {
+                acquired = permits.tryAcquire();
+            } else if (config.getMaxWaitMillis() < 0) {
+                permits.acquire();
+                acquired = true;
+            } else {
+                acquired = permits.tryAcquire(config.getMaxWaitMillis(), TimeUnit.MILLISECONDS);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new JedisException("Could not get a resource from the pool", e);
+        }
+        if (!acquired) {
+            // 与GenericObjectPool耗尽时的异常一致，InstrumentedJedisPool据此统计耗尽次数
+            throw new JedisException("Could not get a resource from the pool", new NoSuchElementException(
+                    config.getBlockWhenExhausted() ? "Timeout waiting for idle object" : "Pool exhausted"));
+        }
+    }
+
+    /**
+     * 已持有名额：取一个空闲连接，没有时新建；连接总数已到maxTotal说明evictor正在检查或新建连接，等它放回或销毁连接后重试。
+     */
+    private Jedis takeOrCreate() {
+        while (true) {
+            int signal = signals.get();
+            Jedis jedis = takeIdle();
+            if (jedis == null) {
+                jedis = create(true);
+            }
+            if (jedis != null) {
+                return jedis;
+            }
+            if (closed) {
+                throw new JedisException("Could not get a resource from the pool", new IllegalStateException("Pool not open"));
+            }
+            awaitSignal(signal);
+        }
+    }
+
+    /**
+     * 先登记等待者再检查signals，signal先增加signals再检查等待者，因此不会错过唤醒。
+     */
+    private void awaitSignal(int signal) {
+        signalWaiters.incrementAndGet();
+        try {
+            synchronized (signals) {
+                while (signals.get() == signal && !closed) {
+                    signals.wait();
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new JedisException("Could not get a resource from the pool", e);
+        } finally {
+            signalWaiters.decrementAndGet();
+        }
+    }
+
+    private void signal() {
+        signals.incrementAndGet();
+        if (signalWaiters.get() > 0) {
+            synchronized (signals) {
+                signals.notifyAll();
+            }
+        }
+    }
+
+    private Jedis takeIdle() {
+        int home = home();
+        for (int i = 0; i <= mask; i++) {
+            ConcurrentLinkedDeque<IdleJedis> stripe = stripes[(home + i) & mask];
+            IdleJedis idle;
+            while ((idle = stripe.pollFirst()) != null) {
+                idleCount.decrementAndGet();
+                if (!config.getTestOnBorrow() || validate(idle.jedis)) {
+                    return idle.jedis;
+                }
+                destroy(idle.jedis);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 连接总数达到maxTotal时返回null，连接或认证失败时抛出JedisConnectionException。
+     */
+    private Jedis create(boolean testOnCreate) {
+        int maxTotal = config.getMaxTotal();
+        int total;
+        do {
+            total = totalCount.get();
+            if (maxTotal >= 0 && total >= maxTotal) {
+                return null;
+            }
+        } while (!totalCount.compareAndSet(total, total + 1));
+
+        Jedis jedis = new Jedis(host, port, timeout);
+        try {
+            jedis.connect();
+            if (password != null) {
+                jedis.auth(password);
+            }
+            if (testOnCreate && config.getTestOnCreate() && !validate(jedis)) {
+                throw new JedisConnectionException("fail to validate the new connection");
+            }
+        } catch (RuntimeException e) {
+            destroy(jedis);
+            throw new JedisConnectionException("Could not get a resource from the pool", e);
+        }
+        return jedis;
+    }
+
+    @Override
+    protected void releaseResource(Jedis resource) {
+        if (borrowed.remove(resource) == null) {
+            throw new IllegalStateException("Object has already been returned to this pool or is invalid");
+        }
+        try {
+            if (closed || (config.getTestOnReturn() && !validate(resource))) {
+                destroy(resource);
+            } else if (config.getMaxIdle() >= 0 && idleCount.get() >= config.getMaxIdle()) {
+                destroy(resource);
+            } else {
+                idleCount.incrementAndGet();
+                stripes[home()].offerFirst(new IdleJedis(resource));
+                if (closed) {
+                    clear();
+                }
+            }
+        } finally {
+            permits.release();
+        }
+    }
+
+    @Override
+    protected void invalidateResource(Jedis resource) {
+        if (borrowed.remove(resource) == null) {
+            throw new IllegalStateException("Invalidated object not currently part of this pool");
+        }
+        destroy(resource);
+        permits.release();
+    }
+
+    /**
+     * 清除空闲过久的连接、检查空闲连接(testWhileIdle)，并把空闲连接补足到minIdle。
+     */
+    private void evict() {
+        try {
+            long now = System.currentTimeMillis();
+            long minEvictableIdle = config.getMinEvictableIdleTimeMillis();
+            long softMinEvictableIdle = config.getSoftMinEvictableIdleTimeMillis();
+            for (ConcurrentLinkedDeque<IdleJedis> stripe : stripes) {
+                // 队尾是空闲最久的连接
+                Iterator<IdleJedis> iterator = stripe.descendingIterator();
+                while (iterator.hasNext()) {
+                    IdleJedis idle = iterator.next();
+                    long idleMillis = now - idle.idleSince;
+                    boolean evictable = (minEvictableIdle > 0 && idleMillis > minEvictableIdle)
+                            || (softMinEvictableIdle > 0 && idleMillis > softMinEvictableIdle && idleCount.get() > config.getMinIdle());
+                    if (!evictable && !config.getTestWhileIdle()) {
+                        continue;
+                    }
+                    // 先从stripe中移除，避免检查期间被借出
+                    if (!stripe.removeFirstOccurrence(idle)) {
+                        continue;
+                    }
+                    idleCount.decrementAndGet();
+                    if (evictable || !validate(idle.jedis)) {
+                        destroy(idle.jedis);
+                    } else {
+                        idleCount.incrementAndGet();
+                        stripe.offerLast(idle);
+                        signal();
+                    }
+                }
+            }
+            ensureMinIdle();
+        } catch (Exception e) {
+            LOGGER.error("fail to evict idle connections: " + host + ":" + port, e);
+        }
+    }
+
+    private void ensureMinIdle() {
+        int stripe = 0;
+        while (!closed && idleCount.get() < config.getMinIdle()) {
+            Jedis jedis = create(false);
+            if (jedis == null) {
+                return;
+            }
+            idleCount.incrementAndGet();
+            stripes[stripe++ & mask].offerLast(new IdleJedis(jedis));
+            signal();
+        }
+    }
+
+    private boolean validate(Jedis jedis) {
+        try {
+            return jedis.isConnected() && "PONG".equals(jedis.ping());
+        } catch (Exception e) {
+            return false;
+        }
+    }
+
+    private void destroy(Jedis jedis) {
+        totalCount.decrementAndGet();
+        signal();
+        try {
+            if (jedis.isConnected()) {
+                try {
+                    jedis.quit();
+                } catch (Exception e) {
+                    // ignore
+                }
+                jedis.disconnect();
+            }
+        } catch (Exception e) {
+            // ignore
+        }
+    }
+
+    private void clear() {
+        for (ConcurrentLinkedDeque<IdleJedis> stripe : stripes) {
+            IdleJedis idle;
+            while ((idle = stripe.pollFirst()) != null) {
+                idleCount.decrementAndGet();
+                destroy(idle.jedis);
+            }
+        }
+    }
+
+    private int home() {
+        return (int) Thread.currentThread().getId() & mask;
+    }
+
+    @Override
+    public void destroy() {
+        closed = true;
+        signal();
+        if (evictor != null) {
+            evictor.cancel(false);
+        }
+        clear();
+        super.destroy();
+    }
+
+    @Override
+    public int getNumActive() {
+        return closed ? -1 : borrowed.size();
+    }
+
+    @Override
+    public int getNumIdle() {
+        return closed ? -1 : idleCount.get();
+    }
+
+    @Override
+    public int getNumWaiters() {
+        return closed ? -1 : permits.getQueueLength();
+    }
+
+    @Override
+    public long getMeanBorrowWaitTimeMillis() {
+        return closed ? -1 : TimeUnit.NANOSECONDS.toMillis(meanBorrowWaitNanos.get());
+    }
+
+    @Override
+    public long getMaxBorrowWaitTimeMillis() {
+        return closed ? -1 : TimeUnit.NANOSECONDS.toMillis(maxBorrowWaitNanos.get());
+    }
+
+    /**
+     * 具体类型，避免创建泛型数组
+     */
+    private static final class Stripe extends ConcurrentLinkedDeque<IdleJedis> {
+
+        private static final long serialVersionUID = 1L;
+    }
+
+    private static final class IdleJedis {
+
+        private final Jedis jedis;
+
+        private final long idleSince = System.currentTimeMillis();
+
+        private IdleJedis(Jedis jedis) {
+            this.jedis = jedis;
+        }
+    }
+}
@@ -0,0 +1,357 @@
+package com.redis.store.dao;
+
+import com.redis.store.service.NamedThreadFactory;
+import org.apache.log4j.Logger;
+import redis.clients.jedis.Jedis;
+import redis.clients.jedis.JedisPubSub;
+import redis.clients.jedis.exceptions.JedisConnectionException;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArraySet;
+
+/**
+ * 一个redis实例的所有订阅共用一个连接和一个线程：subscribe/psubscribe只登记监听者，
+ * 在已订阅的连接上增量发送SUBSCRIBE/UNSUBSCRIBE(PSUBSCRIBE/PUNSUBSCRIBE)，收到的消息按channel/pattern分发给登记的JedisPubSub。
+ * <p/>
+ * 连接从阻塞命令的连接池借出，断开后按100ms到3s退避重连并恢复全部订阅；没有订阅时关闭连接，线程等待新的订阅。
+ * 监听者不绑定连接，取消订阅要调用unsubscribe/punsubscribe，而不是JedisPubSub自己的unsubscribe()；
+ * 回调在订阅线程中执行，不应阻塞。
+ */
+final class SubscriptionManager implements Runnable {
+
+    private static final Logger LOGGER = Logger.getLogger(SubscriptionManager.class);
+
+    private static final long MIN_RECONNECT_BACKOFF = 100;
+
+    private static final long MAX_RECONNECT_BACKOFF = 3000;
+
+    private final SimpleRedisDao redisDao;
+
+    private final ConcurrentMap<String, Set<JedisPubSub>> channels = new ConcurrentHashMap<>();
+
+    private final ConcurrentMap<String, Set<JedisPubSub>> patterns = new ConcurrentHashMap<>();
+
+    // 以下字段由this保护
+
+    private Thread thread;
+
+    private volatile boolean closed;
+
+    private Jedis jedis;
+
+    /** 当前连接上正在订阅的Dispatcher，收到第一个订阅确认之前为null */
+    private Dispatcher active;
+
+    /** 已在当前连接上发送订阅的channel和pattern */
+    private final Set<String> sentChannels = new HashSet<>();
+
+    private final Set<String> sentPatterns = new HashSet<>();
+
+    /** 只在订阅线程中访问 */
+    private long reconnectBackoff = MIN_RECONNECT_BACKOFF;
+
+    SubscriptionManager(SimpleRedisDao redisDao) {
+        this.redisDao = redisDao;
+    }
+
+    void subscribe(JedisPubSub listener, String... names) {
+        register(channels, listener, names);
+    }
+
+    void psubscribe(JedisPubSub listener, String... names) {
+        register(patterns, listener, names);
+    }
+
+    /**
+     * names为空时取消listener的全部channel订阅。
+     */
+    void unsubscribe(JedisPubSub listener, String... names) {
+        unregister(channels, listener, names);
+    }
+
+    void punsubscribe(JedisPubSub listener, String... names) {
+        unregister(patterns, listener, names);
+    }
+
+    /**
+     * listener到其订阅的channel(或pattern)的快照，实例切换时用于把订阅转移到新的IRedisDao。
+     */
+    Map<JedisPubSub, String[]> getSubscriptions(boolean pattern) {
+        Map<JedisPubSub, List<String>> subscriptions = new HashMap<>();
+        for (Map.Entry<String, Set<JedisPubSub>> entry : (pattern ? patterns : channels).entrySet()) {
+            for (JedisPubSub listener : entry.getValue()) {
+                List<String> names = subscriptions.get(listener);
+                if (names == null) {
+                    names = new ArrayList<>();
+                    subscriptions.put(listener, names);
+                }
+                names.add(entry.getKey());
+            }
+        }
+        Map<JedisPubSub, String[]> result = new HashMap<>();
+        for (Map.Entry<JedisPubSub, List<String>> entry : subscriptions.entrySet()) {
+            result.put(entry.getKey(), entry.getValue().toArray(new String[0]));
+        }
+        return result;
+    }
+
+    /**
+     * 断开订阅连接并结束线程，保留登记的监听者供getSubscriptions使用。
+     */
+    synchronized void close() {
+        closed = true;
+        if (jedis != null) {
+            jedis.disconnect();
+        }
+        notifyAll();
+    }
+
+    private synchronized void register(ConcurrentMap<String, Set<JedisPubSub>> registry, JedisPubSub listener, String... names) {
+        if (closed) {
+            throw new IllegalStateException("the redis dao is destroyed: " + redisDao.getHostPort());
+        }
+        for (String name : names) {
+            Set<JedisPubSub> listeners = registry.get(name);
+            if (listeners == null) {
+                listeners = new CopyOnWriteArraySet<>();
+                registry.put(name, listeners);
+            }
+            listeners.add(listener);
+        }
+        if (thread == null) {
+            thread = new NamedThreadFactory("RedisSubscriber-" + redisDao.getHostPort(), true).newThread(this);
+            thread.start();
+        }
+        sync();
+        notifyAll();
+    }
+
+    private synchronized void unregister(ConcurrentMap<String, Set<JedisPubSub>> registry, JedisPubSub listener, String... names) {
+        Iterable<String> targets = names.length == 0 ? new ArrayList<>(registry.keySet()) : Arrays.asList(names);
+        for (String name : targets) {
+            Set<JedisPubSub> listeners = registry.get(name);
+            if (listeners != null) {
+                listeners.remove(listener);
+                if (listeners.isEmpty()) {
+                    registry.remove(name);
+                }
+            }
+        }
+        sync();
+    }
+
+    /**
+     * 让当前连接上的订阅与登记的一致：先订阅新增的，再取消多余的，避免订阅数中途降为0使连接退出订阅状态。
+     */
+    private void sync() {
+        if (active == null) {
+            return;
+        }
+        try {
+            String[] addChannels = difference(channels.keySet(), sentChannels);
+            String[] addPatterns = difference(patterns.keySet(), sentPatterns);
+            String[] removeChannels = difference(sentChannels, channels.keySet());
+            String[] removePatterns = difference(sentPatterns, patterns.keySet());
+            if (addChannels.length > 0) {
+                active.subscribe(addChannels);
+                sentChannels.addAll(Arrays.asList(addChannels));
+            }
+            if (addPatterns.length > 0) {
+                active.psubscribe(addPatterns);
+                sentPatterns.addAll(Arrays.asList(addPatterns));
+            }
+            if (removeChannels.length > 0) {
+                active.unsubscribe(removeChannels);
+                sentChannels.removeAll(Arrays.asList(removeChannels));
+            }
+            if (removePatterns.length > 0) {
+                active.punsubscribe(removePatterns);
+                sentPatterns.removeAll(Arrays.asList(removePatterns));
+            }
+        } catch (Exception e) {
+            // 连接已断开，订阅线程会重连并恢复全部订阅
+            LOGGER.error("fail to update the subscriptions: " + redisDao.getHostPort(), e);
+        }
+    }
+
+    private static String[] difference(Set<String> left, Set<String> right) {
+        List<String> result = new ArrayList<>();
+        for (String name : left) {
+            if (!right.contains(name)) {
+                result.add(name);
+            }
+        }
+        return result.toArray(new String[0]);
+    }
+
+    @Override
+    public void run() {
+        while (!closed) {
+            synchronized (this) {
+                while (!closed && channels.isEmpty() && patterns.isEmpty()) {
+                    try {
+                        wait();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        return;
+                    }
+                }
+                if (closed) {
+                    return;
+                }
+            }
+
+            // 借连接可能等待连接池或建立连接，不持有锁，避免阻塞subscribe/unsubscribe
+            Jedis connection;
+            try {
+                connection = redisDao.getBlockingJedisPool().getResource();
+            } catch (Exception e) {
+                LOGGER.error("fail to get the subscriber connection, retry after " + reconnectBackoff + "ms: " + redisDao.getHostPort(), e);
+                backoff();
+                continue;
+            }
+
+            String[] initialChannels;
+            String[] initialPatterns;
+            synchronized (this) {
+                initialChannels = channels.keySet().toArray(new String[0]);
+                initialPatterns = initialChannels.length > 0 ? new String[0] : patterns.keySet().toArray(new String[0]);
+                if (closed || (initialChannels.length == 0 && initialPatterns.length == 0)) {
+                    // 借连接期间已关闭或订阅已全部取消，连接未使用，直接归还
+                    connection.close();
+                    continue;
+                }
+                jedis = connection;
+                sentChannels.addAll(Arrays.asList(initialChannels));
+                sentPatterns.addAll(Arrays.asList(initialPatterns));
+            }
+
+            boolean broken = false;
+            try {
+                Dispatcher dispatcher = new Dispatcher();
+                if (initialChannels.length > 0) {
+                    connection.subscribe(dispatcher, initialChannels);
+                } else {
+                    connection.psubscribe(dispatcher, initialPatterns);
+                }
+                // 全部订阅都已取消
+            } catch (Exception e) {
+                broken = true;
+                if (!closed) {
+                    LOGGER.error("the subscriber connection is broken, retry after " + reconnectBackoff + "ms: " + redisDao.getHostPort(), e);
+                }
+            } finally {
+                synchronized (this) {
+                    active = null;
+                    jedis = null;
+                    sentChannels.clear();
+                    sentPatterns.clear();
+                }
+                closeBroken(connection);
+            }
+            if (broken && !closed) {
+                backoff();
+            }
+        }
+    }
+
+    /**
+     * 退出订阅状态时连接上可能还有未读的订阅回复，不能归还给连接池：断开后读一次，Jedis把读失败的连接标记为broken，
+     * close时连接池销毁它而不是归还。
+     */
+    private void closeBroken(Jedis connection) {
+        try {
+            if (!connection.getClient().isBroken()) {
+                connection.disconnect();
+                try {
+                    connection.getClient().getOne();
+                } catch (JedisConnectionException e) {
+                    // 预期的读失败，连接已标记为broken
+                }
+            }
+            connection.close();
+        } catch (Exception e) {
+            LOGGER.error("fail to close the subscriber connection: " + redisDao.getHostPort(), e);
+        }
+    }
+
+    private void backoff() {
+        try {
+            Thread.sleep(reconnectBackoff);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            closed = true;
+        }
+        reconnectBackoff = Math.min(reconnectBackoff * 2, MAX_RECONNECT_BACKOFF);
+    }
+
+    private static void dispatch(Set<JedisPubSub> listeners, ListenerCall call) {
+        if (listeners == null) {
+            return;
+        }
+        for (JedisPubSub listener : listeners) {
+            try {
+                call.apply(listener);
+            } catch (Exception e) {
+                LOGGER.error("the pubsub listener failed: " + listener, e);
+            }
+        }
+    }
+
+    private interface ListenerCall {
+        void apply(JedisPubSub listener);
+    }
+
+    /**
+     * 绑定在订阅连接上的JedisPubSub，每个连接一个。
+     */
+    private final class Dispatcher extends JedisPubSub {
+
+        private boolean confirmed;
+
+        @Override
+        public void onMessage(String channel, String message) {
+            dispatch(channels.get(channel), listener -> listener.onMessage(channel, message));
+        }
+
+        @Override
+        public void onPMessage(String pattern, String channel, String message) {
+            dispatch(patterns.get(pattern), listener -> listener.onPMessage(pattern, channel, message));
+        }
+
+        @Override
+        public void onSubscribe(String channel, int subscribedChannels) {
+            activate();
+            dispatch(channels.get(channel), listener -> listener.onSubscribe(channel, subscribedChannels));
+        }
+
+        @Override
+        public void onPSubscribe(String pattern, int subscribedChannels) {
+            activate();
+            dispatch(patterns.get(pattern), listener -> listener.onPSubscribe(pattern, subscribedChannels));
+        }
+
+        /**
+         * 第一个订阅确认到达时连接已进入订阅状态，补发建立连接期间登记和取消的订阅。
+         */
+        private void activate() {
+            if (confirmed) {
+                return;
+            }
+            confirmed = true;
+            reconnectBackoff = MIN_RECONNECT_BACKOFF;
+            synchronized (SubscriptionManager.this) {
+                active = this;
+                sync();
+            }
+        }
+    }
+}
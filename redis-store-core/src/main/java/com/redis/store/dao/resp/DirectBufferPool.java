@@ -0,0 +1,91 @@
+package com.redis.store.dao.resp;
+
+import java.nio.ByteBuffer;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 按2的幂分级(4KB到4MB)复用的direct ByteBuffer，每级缓存的总大小不超过8MB；超过4MB的缓冲区不复用。
+ * acquire得到的缓冲区已clear，用完后release，release之后不能再访问。
+ */
+public final class DirectBufferPool {
+
+    private static final int MIN_SHIFT = 12;
+
+    private static final int MAX_SHIFT = 22;
+
+    private static final int MAX_POOLED_BYTES_PER_CLASS = 8 << 20;
+
+    private static final SizeClass[] SIZE_CLASSES = new SizeClass[MAX_SHIFT - MIN_SHIFT + 1];
+
+    static {
+        for (int i = 0; i < SIZE_CLASSES.length; i++) {
+            SIZE_CLASSES[i] = new SizeClass(1 << (MIN_SHIFT + i));
+        }
+    }
+
+    private DirectBufferPool() {
+    }
+
+    public static ByteBuffer acquire(int minCapacity) {
+        SizeClass sizeClass = sizeClassOf(minCapacity);
+        if (sizeClass == null) {
+            return ByteBuffer.allocateDirect(minCapacity);
+        }
+        ByteBuffer buffer = sizeClass.buffers.poll();
+        if (buffer == null) {
+            return ByteBuffer.allocateDirect(sizeClass.size);
+        }
+        sizeClass.count.decrementAndGet();
+        buffer.clear();
+        return buffer;
+    }
+
+    public static void release(ByteBuffer buffer) {
+        if (buffer == null || !buffer.isDirect()) {
+            return;
+        }
+        SizeClass sizeClass = sizeClassOf(buffer.capacity());
+        if (sizeClass == null || sizeClass.size != buffer.capacity()) {
+            return;
+        }
+        if (sizeClass.count.incrementAndGet() > sizeClass.maxCount) {
+            sizeClass.count.decrementAndGet();
+            return;
+        }
+        sizeClass.buffers.offer(buffer);
+    }
+
+    /**
+     * 把buffer(写模式)中的数据复制到一个至少minCapacity大的新缓冲区，并释放原缓冲区。
+     */
+    public static ByteBuffer grow(ByteBuffer buffer, int minCapacity) {
+        ByteBuffer larger = acquire(Math.max(minCapacity, buffer.capacity() * 2));
+        buffer.flip();
+        larger.put(buffer);
+        release(buffer);
+        return larger;
+    }
+
+    private static SizeClass sizeClassOf(int capacity) {
+        int shift = capacity <= 1 << MIN_SHIFT ? MIN_SHIFT : 32 - Integer.numberOfLeadingZeros(capacity - 1);
+        return shift > MAX_SHIFT ? null : SIZE_CLASSES[shift - MIN_SHIFT];
+    }
+
+    private static final class SizeClass {
+
+        private final int size;
+
+        private final int maxCount;
+
+        private final Queue<ByteBuffer> buffers = new ConcurrentLinkedQueue<>();
+
+        private final AtomicInteger count = new AtomicInteger();
+
+        private SizeClass(int size) {
+            this.size = size;
+            this.maxCount = Math.max(MAX_POOLED_BYTES_PER_CLASS / size, 2);
+        }
+    }
+}
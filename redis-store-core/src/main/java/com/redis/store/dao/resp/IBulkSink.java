@@ -0,0 +1,13 @@
+package com.redis.store.dao.resp;
+
+import java.nio.ByteBuffer;
+
+/**
+ * 以ByteBuffer分片的形式消费bulk回复，数组回复按顺序逐个回调，不存在的值(nil)回调null。
+ * 分片直接指向连接的接收缓冲区，只在回调期间有效，需要保留时自行复制；
+ * 多路复用连接上回调在IO线程中执行，不应阻塞，连接池的连接上在调用线程中执行。
+ */
+public interface IBulkSink {
+
+    void onBulk(ByteBuffer value);
+}
@@ -0,0 +1,317 @@
+package com.redis.store.dao.resp;
+
+import redis.clients.jedis.exceptions.JedisConnectionException;
+import redis.clients.jedis.exceptions.JedisDataException;
+import redis.clients.util.SafeEncoder;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * RESP2编解码，直接在(direct)ByteBuffer上进行：
+ * <ul>
+ * <li>encode把命令写入缓冲区，空间不足时从DirectBufferPool换一个更大的</li>
+ * <li>decode解析一个完整回复：状态回复和bulk为byte[]，整数为Long，数组为List，错误为JedisDataException</li>
+ * <li>decode(buffer, sink)不创建byte[]，bulk以分片交给IBulkSink</li>
+ * </ul>
+ * 两个decode都先用scan确认回复完整(不创建对象)，数据不完整时返回NEED_MORE，且不移动buffer的position，
+ * 因此大回复分多次到达时不会重复创建对象。传入ScanState时，已确认完整的部分(偏移和各层数组剩余的元素数)
+ * 保存在其中，下一次从该处继续，不再从回复开头重新扫描；同一个ScanState只能用于同一个连接上按顺序到达的回复。
+ */
+public final class RespCodec {
+
+    public static final Object NEED_MORE = new Object();
+
+    private static final byte[] CRLF = {'\r', '\n'};
+
+    private static final byte[][] SMALL_INTS = new byte[256][];
+
+    static {
+        for (int i = 0; i < SMALL_INTS.length; i++) {
+            SMALL_INTS[i] = SafeEncoder.encode(Integer.toString(i));
+        }
+    }
+
+    private RespCodec() {
+    }
+
+    /**
+     * buffer为写模式，返回写入后的缓冲区(可能是新的)。
+     */
+    public static ByteBuffer encode(ByteBuffer buffer, byte[][] args) {
+        int size = 16;
+        for (byte[] arg : args) {
+            size += arg.length + 16;
+        }
+        if (buffer.remaining() < size) {
+            buffer = DirectBufferPool.grow(buffer, buffer.position() + size);
+        }
+        buffer.put((byte) '*');
+        putInt(buffer, args.length);
+        for (byte[] arg : args) {
+            buffer.put((byte) '$');
+            putInt(buffer, arg.length);
+            buffer.put(arg);
+            buffer.put(CRLF);
+        }
+        return buffer;
+    }
+
+    private static void putInt(ByteBuffer buffer, int value) {
+        buffer.put(value < SMALL_INTS.length ? SMALL_INTS[value] : SafeEncoder.encode(Integer.toString(value)));
+        buffer.put(CRLF);
+    }
+
+    /**
+     * buffer为读模式，成功时position移到回复之后。
+     */
+    public static Object decode(ByteBuffer buffer) {
+        return decode(buffer, new ScanState());
+    }
+
+    /**
+     * 与decode(buffer)相同，返回NEED_MORE时扫描进度保存在state中，buffer中未解析的数据在compact或扩容后仍从同一回复开始即可。
+     */
+    public static Object decode(ByteBuffer buffer, ScanState state) {
+        if (!scan(buffer, state)) {
+            return NEED_MORE;
+        }
+        state.reset();
+        return decodeReply(buffer);
+    }
+
+    /**
+     * 先确认回复完整，再把其中的bulk依次交给sink；返回bulk(含nil)的个数，错误回复返回JedisDataException。
+     * sink抛出异常时position同样移到回复之后，连接上后续的回复仍可解析。
+     */
+    public static Object decode(ByteBuffer buffer, IBulkSink sink) {
+        return decode(buffer, sink, new ScanState());
+    }
+
+    public static Object decode(ByteBuffer buffer, IBulkSink sink, ScanState state) {
+        int start = buffer.position();
+        if (!scan(buffer, state)) {
+            return NEED_MORE;
+        }
+        int end = start + state.scanned;
+        state.reset();
+        try {
+            return stream(buffer, sink);
+        } finally {
+            buffer.position(end);
+        }
+    }
+
+    private static Object decodeReply(ByteBuffer buffer) {
+        if (!buffer.hasRemaining()) {
+            return NEED_MORE;
+        }
+        byte type = buffer.get();
+        int lineEnd = findLineEnd(buffer);
+        if (lineEnd < 0) {
+            return NEED_MORE;
+        }
+        switch (type) {
+            case '+':
+                return readLine(buffer, lineEnd);
+            case '-':
+                return new JedisDataException(SafeEncoder.encode(readLine(buffer, lineEnd)));
+            case ':':
+                return parseLong(buffer, lineEnd);
+            case '$': {
+                int length = (int) parseLong(buffer, lineEnd);
+                if (length < 0) {
+                    return null;
+                }
+                if (buffer.remaining() < length + 2) {
+                    return NEED_MORE;
+                }
+                byte[] bulk = new byte[length];
+                buffer.get(bulk);
+                buffer.position(buffer.position() + 2);
+                return bulk;
+            }
+            case '*': {
+                int count = (int) parseLong(buffer, lineEnd);
+                if (count < 0) {
+                    return null;
+                }
+                List<Object> replies = new ArrayList<>(count);
+                for (int i = 0; i < count; i++) {
+                    Object reply = decodeReply(buffer);
+                    if (reply == NEED_MORE) {
+                        return NEED_MORE;
+                    }
+                    replies.add(reply);
+                }
+                return replies;
+            }
+            default:
+                throw new JedisConnectionException("unknown reply: " + (char) type);
+        }
+    }
+
+    /**
+     * 从state记录的位置继续确认buffer中的回复是否完整，不创建对象，不移动position；
+     * 完整时返回true，state.scanned为回复的长度。
+     */
+    private static boolean scan(ByteBuffer buffer, ScanState state) {
+        int start = buffer.position();
+        int limit = buffer.limit();
+        int pos = start + state.scanned;
+        while (state.depth > 0) {
+            if (state.remaining[state.depth - 1] == 0) {
+                state.depth--;
+                continue;
+            }
+            if (pos >= limit) {
+                return false;
+            }
+            byte type = buffer.get(pos);
+            int lineEnd = findLineEnd(buffer, pos + 1);
+            if (lineEnd < 0) {
+                return false;
+            }
+            int next = lineEnd + 2;
+            if (type == '$') {
+                long length = parseLong(buffer, pos + 1, lineEnd);
+                if (length >= 0) {
+                    if (limit - next < length + 2) {
+                        return false;
+                    }
+                    next += (int) length + 2;
+                }
+                state.remaining[state.depth - 1]--;
+            } else if (type == '*') {
+                long count = parseLong(buffer, pos + 1, lineEnd);
+                state.remaining[state.depth - 1]--;
+                if (count > 0) {
+                    state.push((int) count);
+                }
+            } else {
+                state.remaining[state.depth - 1]--;
+            }
+            pos = next;
+            state.scanned = pos - start;
+        }
+        return true;
+    }
+
+    private static Object stream(ByteBuffer buffer, IBulkSink sink) {
+        byte type = buffer.get();
+        int lineEnd = findLineEnd(buffer);
+        switch (type) {
+            case '-':
+                return new JedisDataException(SafeEncoder.encode(readLine(buffer, lineEnd)));
+            case '$': {
+                int length = (int) parseLong(buffer, lineEnd);
+                if (length < 0) {
+                    sink.onBulk(null);
+                    return 1;
+                }
+                ByteBuffer slice = buffer.duplicate();
+                slice.limit(buffer.position() + length);
+                sink.onBulk(slice.slice());
+                buffer.position(buffer.position() + length + 2);
+                return 1;
+            }
+            case '*': {
+                int count = (int) parseLong(buffer, lineEnd);
+                int bulks = 0;
+                for (int i = 0; i < count; i++) {
+                    Object result = stream(buffer, sink);
+                    if (result instanceof JedisDataException) {
+                        return result;
+                    }
+                    bulks += (Integer) result;
+                }
+                return bulks;
+            }
+            default:
+                // 状态和整数回复没有bulk
+                buffer.position(lineEnd + 2);
+                return 0;
+        }
+    }
+
+    private static byte[] readLine(ByteBuffer buffer, int lineEnd) {
+        byte[] line = new byte[lineEnd - buffer.position()];
+        buffer.get(line);
+        buffer.position(lineEnd + 2);
+        return line;
+    }
+
+    private static int findLineEnd(ByteBuffer buffer) {
+        return findLineEnd(buffer, buffer.position());
+    }
+
+    private static int findLineEnd(ByteBuffer buffer, int from) {
+        for (int i = from; i < buffer.limit() - 1; i++) {
+            if (buffer.get(i) == '\r' && buffer.get(i + 1) == '\n') {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * 解析[from, lineEnd)中的整数，不移动position。
+     */
+    private static long parseLong(ByteBuffer buffer, int from, int lineEnd) {
+        boolean negative = buffer.get(from) == '-';
+        long value = 0;
+        for (int i = negative ? from + 1 : from; i < lineEnd; i++) {
+            value = value * 10 + (buffer.get(i) - '0');
+        }
+        return negative ? -value : value;
+    }
+
+    private static long parseLong(ByteBuffer buffer, int lineEnd) {
+        boolean negative = buffer.get(buffer.position()) == '-';
+        if (negative) {
+            buffer.get();
+        }
+        long value = 0;
+        while (buffer.position() < lineEnd) {
+            value = value * 10 + (buffer.get() - '0');
+        }
+        buffer.position(lineEnd + 2);
+        return negative ? -value : value;
+    }
+
+    /**
+     * 一个回复的部分解析状态：从回复开头起已确认完整的字节数，以及各层数组还未确认的元素个数。
+     * 回复完整后由decode重置，用于连接上的下一个回复。
+     */
+    public static final class ScanState {
+
+        private int scanned;
+
+        /** remaining[0]为最外层(整个回复算作1个元素) */
+        private int[] remaining = new int[8];
+
+        private int depth;
+
+        public ScanState() {
+            reset();
+        }
+
+        /**
+         * 丢弃进度，连接的接收缓冲区被清空(重连)时调用。
+         */
+        public void reset() {
+            scanned = 0;
+            depth = 1;
+            remaining[0] = 1;
+        }
+
+        private void push(int count) {
+            if (depth == remaining.length) {
+                remaining = Arrays.copyOf(remaining, depth * 2);
+            }
+            remaining[depth++] = count;
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package com.redis.store.executor;
+
+import redis.clients.jedis.Pipeline;
+import redis.clients.jedis.Response;
+
+/**
+ * 向Pipeline中追加一条命令，例如 pipeline -> pipeline.get(key)。
+ */
+public interface IPipelineCommand<T> {
+    Response<T> apply(Pipeline pipeline);
+}
@@ -0,0 +1,43 @@
+package com.redis.store.monitor;
+
+/**
+ * 一个统计周期内某个实例上返回值最大的key之一。size对String/byte[]是长度，对集合类结果是元素个数。
+ */
+public final class BigValue {
+
+    private final String hostPort;
+
+    private final String command;
+
+    private final String key;
+
+    private final long size;
+
+    BigValue(String hostPort, String command, String key, long size) {
+        this.hostPort = hostPort;
+        this.command = command;
+        this.key = key;
+        this.size = size;
+    }
+
+    public String getHostPort() {
+        return hostPort;
+    }
+
+    public String getCommand() {
+        return command;
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    public long getSize() {
+        return size;
+    }
+
+    @Override
+    public String toString() {
+        return "bigValue[" + hostPort + " " + command + " " + key + ":" + size + "]";
+    }
+}
@@ -0,0 +1,318 @@
+package com.redis.store.monitor;
+
+import com.redis.store.constants.Constants;
+import org.apache.log4j.Logger;
+import redis.clients.util.SafeEncoder;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 集群级的大value统计：按1/SAMPLE_RATE采样命令返回值，byte[]取长度，String取UTF-8编码后的字节数，Collection/Map取元素个数，
+ * 其它类型(数字、状态码等)忽略。每个命令维护一个按2的幂分桶的大小直方图，每个实例保留返回值最大的TOP_N个key。
+ * <p/>
+ * 每个周期(config.big.value.interval.ms，默认10s)结束时输出直方图和各实例的大key并重新开始统计，
+ * 上一周期的结果通过RedisStoreMonitor.getBigValues/getValueSizeHistograms查询。
+ */
+final class BigValueDetector {
+
+    private static final Logger LOGGER = Logger.getLogger(BigValueDetector.class);
+
+    static final boolean BIG_VALUE_SWITCH = System.getProperty(Constants.REDIS_CONFIG_BIG_VALUE_SWITCH_KEY, "off").equals("on");
+
+    private static final int SAMPLE_RATE = Math.max(Integer.getInteger(Constants.REDIS_CONFIG_BIG_VALUE_SAMPLE_RATE_KEY, 16), 1);
+
+    private static final long INTERVAL_MILLIS = Long.getLong(Constants.REDIS_CONFIG_BIG_VALUE_INTERVAL_KEY, 10000);
+
+    private static final int TOP_N = 10;
+
+    /** 第0个桶是size为0，第i个桶是[2^(i-1), 2^i) */
+    static final int BUCKETS = 64;
+
+    private static final ConcurrentMap<String, BigValueDetector> DETECTORS = new ConcurrentHashMap<>();
+
+    private final String clusterName;
+
+    private volatile Window window = new Window(System.currentTimeMillis());
+
+    private volatile Window lastWindow;
+
+    private BigValueDetector(String clusterName) {
+        this.clusterName = clusterName;
+    }
+
+    static BigValueDetector of(String clusterName) {
+        BigValueDetector detector = DETECTORS.get(clusterName);
+        if (detector == null) {
+            detector = new BigValueDetector(clusterName);
+            BigValueDetector _detector = DETECTORS.putIfAbsent(clusterName, detector);
+            if (_detector != null) {
+                detector = _detector;
+            }
+        }
+        return detector;
+    }
+
+    static List<BigValue> getBigValues(String clusterName) {
+        BigValueDetector detector = DETECTORS.get(clusterName);
+        Window last = detector == null ? null : detector.lastWindow;
+        return last == null ? Collections.emptyList() : last.bigValues();
+    }
+
+    static Map<String, long[]> getHistograms(String clusterName) {
+        BigValueDetector detector = DETECTORS.get(clusterName);
+        Window last = detector == null ? null : detector.lastWindow;
+        return last == null ? Collections.emptyMap() : last.histograms();
+    }
+
+    void record(String command, Object key, Object result, String hostPort) {
+        if (result == null || hostPort == null) {
+            return;
+        }
+        Window current = this.window;
+        long now = System.currentTimeMillis();
+        if (now - current.start >= INTERVAL_MILLIS) {
+            current = rotate(now);
+        }
+        if (SAMPLE_RATE > 1 && ThreadLocalRandom.current().nextInt(SAMPLE_RATE) != 0) {
+            return;
+        }
+
+        long size = sizeOf(result);
+        if (size < 0) {
+            return;
+        }
+        current.histogram(command).incrementAndGet(bucketOf(size));
+        current.largest(hostPort).offer(command, key, size);
+    }
+
+    static long sizeOf(Object result) {
+        if (result instanceof byte[]) {
+            return ((byte[]) result).length;
+        }
+        if (result instanceof String) {
+            return utf8Length((String) result);
+        }
+        if (result instanceof Collection) {
+            return ((Collection<?>) result).size();
+        }
+        if (result instanceof Map) {
+            return ((Map<?, ?>) result).size();
+        }
+        return -1;
+    }
+
+    /**
+     * 与SafeEncoder.encode(value).length相同，不分配内存；不成对的代理字符按编码器替换成的'?'计1字节。
+     */
+    static long utf8Length(String value) {
+        long length = value.length();
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c < 0x80) {
+                continue;
+            }
+            if (c < 0x800) {
+                length += 1;
+            } else if (Character.isHighSurrogate(c) && i + 1 < value.length() && Character.isLowSurrogate(value.charAt(i + 1))) {
+                // 两个char编码成4字节
+                length += 2;
+                i++;
+            } else if (Character.isSurrogate(c)) {
+                continue;
+            } else {
+                length += 2;
+            }
+        }
+        return length;
+    }
+
+    static int bucketOf(long size) {
+        return 64 - Long.numberOfLeadingZeros(size);
+    }
+
+    private synchronized Window rotate(long now) {
+        Window current = this.window;
+        if (now - current.start < INTERVAL_MILLIS) {
+            return current;
+        }
+        this.window = new Window(now);
+        this.lastWindow = current;
+        if (!current.histograms.isEmpty()) {
+            StringBuilder builder = new StringBuilder("the value sizes of the cluster ").append(clusterName)
+                    .append(" in the last ").append(INTERVAL_MILLIS).append("ms:");
+            for (Map.Entry<String, long[]> entry : current.histograms().entrySet()) {
+                builder.append("\n  ").append(entry.getKey()).append(' ').append(format(entry.getValue()));
+            }
+            builder.append("\n  largest: ").append(current.bigValues());
+            LOGGER.info(builder);
+        }
+        return this.window;
+    }
+
+    /**
+     * 只输出非空的桶，形如[1K,2K):12
+     */
+    private static String format(long[] counts) {
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] == 0) {
+                continue;
+            }
+            long lower = i == 0 ? 0 : 1L << (i - 1);
+            builder.append('[').append(readable(lower)).append(',').append(readable(1L << i)).append("):").append(counts[i]).append(' ');
+        }
+        return builder.toString();
+    }
+
+    private static String readable(long size) {
+        if (size >= 1 << 20 && size % (1 << 20) == 0) {
+            return (size >> 20) + "M";
+        }
+        if (size >= 1 << 10 && size % (1 << 10) == 0) {
+            return (size >> 10) + "K";
+        }
+        return String.valueOf(size);
+    }
+
+    private static final class Window {
+
+        private final long start;
+
+        private final ConcurrentMap<String, AtomicLongArray> histograms = new ConcurrentHashMap<>();
+
+        private final ConcurrentMap<String, Largest> largest = new ConcurrentHashMap<>();
+
+        private Window(long start) {
+            this.start = start;
+        }
+
+        private AtomicLongArray histogram(String command) {
+            AtomicLongArray histogram = histograms.get(command);
+            if (histogram == null) {
+                histogram = new AtomicLongArray(BUCKETS);
+                AtomicLongArray _histogram = histograms.putIfAbsent(command, histogram);
+                if (_histogram != null) {
+                    histogram = _histogram;
+                }
+            }
+            return histogram;
+        }
+
+        private Largest largest(String hostPort) {
+            Largest values = largest.get(hostPort);
+            if (values == null) {
+                values = new Largest(hostPort);
+                Largest _values = largest.putIfAbsent(hostPort, values);
+                if (_values != null) {
+                    values = _values;
+                }
+            }
+            return values;
+        }
+
+        private Map<String, long[]> histograms() {
+            Map<String, long[]> result = new LinkedHashMap<>();
+            List<String> commands = new ArrayList<>(histograms.keySet());
+            Collections.sort(commands);
+            for (String command : commands) {
+                AtomicLongArray histogram = histograms.get(command);
+                long[] counts = new long[BUCKETS];
+                for (int i = 0; i < BUCKETS; i++) {
+                    counts[i] = histogram.get(i) * SAMPLE_RATE;
+                }
+                result.put(command, counts);
+            }
+            return Collections.unmodifiableMap(result);
+        }
+
+        private List<BigValue> bigValues() {
+            List<BigValue> bigValues = new ArrayList<>();
+            for (Largest values : largest.values()) {
+                bigValues.addAll(values.snapshot());
+            }
+            bigValues.sort(Comparator.comparing(BigValue::getHostPort).thenComparing(Comparator.comparingLong(BigValue::getSize).reversed()));
+            return Collections.unmodifiableList(bigValues);
+        }
+    }
+
+    /**
+     * 一个实例上返回值最大的TOP_N个key，同一个key只保留最大的一次。小于当前最小值的记录不加锁直接丢弃。
+     */
+    private static final class Largest {
+
+        private final String hostPort;
+
+        private final BigValue[] values = new BigValue[TOP_N];
+
+        private volatile long floor;
+
+        private Largest(String hostPort) {
+            this.hostPort = hostPort;
+        }
+
+        private void offer(String command, Object key, long size) {
+            if (size <= floor) {
+                return;
+            }
+            String keyString = key instanceof byte[] ? SafeEncoder.encode((byte[]) key) : String.valueOf(key);
+            synchronized (this) {
+                if (size <= floor) {
+                    return;
+                }
+                int slot = -1;
+                for (int i = 0; i < TOP_N; i++) {
+                    BigValue value = values[i];
+                    if (value != null && value.getKey().equals(keyString) && value.getCommand().equals(command)) {
+                        if (value.getSize() >= size) {
+                            return;
+                        }
+                        slot = i;
+                        break;
+                    }
+                }
+                if (slot < 0) {
+                    slot = smallest();
+                }
+                values[slot] = new BigValue(hostPort, command, keyString, size);
+                BigValue smallest = values[smallest()];
+                if (smallest != null) {
+                    // 已满，之后只接受比最小值大的记录
+                    floor = smallest.getSize();
+                }
+            }
+        }
+
+        private int smallest() {
+            int slot = 0;
+            for (int i = 0; i < TOP_N; i++) {
+                if (values[i] == null) {
+                    return i;
+                }
+                if (values[i].getSize() < values[slot].getSize()) {
+                    slot = i;
+                }
+            }
+            return slot;
+        }
+
+        private synchronized List<BigValue> snapshot() {
+            List<BigValue> snapshot = new ArrayList<>(TOP_N);
+            for (BigValue value : values) {
+                if (value != null) {
+                    snapshot.add(value);
+                }
+            }
+            return snapshot;
+        }
+    }
+}
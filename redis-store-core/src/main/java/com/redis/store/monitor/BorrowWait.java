@@ -0,0 +1,28 @@
+package com.redis.store.monitor;
+
+/**
+ * 记录当前线程从连接池获取连接的等待时间，RedisStoreMonitor.begin清零，record时取出，
+ * 使命令耗时和连接池等待时间分开统计。
+ */
+public final class BorrowWait {
+
+    private static final ThreadLocal<long[]> WAIT_NANOS = ThreadLocal.withInitial(() -> new long[1]);
+
+    private BorrowWait() {
+    }
+
+    public static void add(long nanos) {
+        WAIT_NANOS.get()[0] += nanos;
+    }
+
+    static void reset() {
+        WAIT_NANOS.get()[0] = 0;
+    }
+
+    static long take() {
+        long[] wait = WAIT_NANOS.get();
+        long nanos = wait[0];
+        wait[0] = 0;
+        return nanos;
+    }
+}
@@ -1,33 +1,72 @@
 package com.redis.store.monitor;
 
-import java.util.Arrays;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
-import java.util.concurrent.ConcurrentSkipListMap;
-import java.util.concurrent.atomic.AtomicInteger;
 
+/**
+ * 一个命令的统计句柄，按实例(host:port)注册Latency，注册后常驻，不随统计周期重建；实例下线后由retain删除。
+ */
 class CommandExecDetail {
 
-    static final int[] TIMEOUT_SCALE = new int[]{0, 10, 50, 100, 500};
+    final ConcurrentMap<String, Latency> hostPortCommands = new ConcurrentHashMap<>();
 
-    final ConcurrentMap<String, AtomicInteger[]> hostPortCommands = new ConcurrentSkipListMap<>(String::compareTo);
+    void record(String hostPort, long commandNanos, long borrowNanos) {
+        Latency latency = hostPortCommands.get(hostPort);
+        if (latency == null) {
+            latency = new Latency();
+            Latency _latency = hostPortCommands.putIfAbsent(hostPort, latency);
+            if (_latency != null) {
+                latency = _latency;
+            }
+        }
+        latency.record(commandNanos, borrowNanos);
+    }
+
+    /**
+     * 删除不在hostPorts中的实例，近端缓存的统计保留。已删除实例上尚未返回的命令会重新注册，下一次retain时删除。
+     */
+    void retain(Set<String> hostPorts) {
+        hostPortCommands.keySet().removeIf(hostPort -> !hostPorts.contains(hostPort) && !RedisStoreMonitor.NEAR_CACHE_HOST_PORT.equals(hostPort));
+    }
+
+    /**
+     * 一个命令在一个实例上的耗时，双缓冲：记录写入当前周期的Interval，Reporter每个周期调用flip切换并读取上一个周期。
+     * 切换前清空即将启用的Interval(它在上一次切换时退出，距今已有一个周期)。
+     * <p/>
+     * flip不等待写入方：切换前读到current的写入方可能在Reporter读取之后才写入退出的Interval，
+     * 这个样本不会被输出，并在下一次启用该Interval时被清空；也可能在清空之前写入，计入下一个周期。
+     * 每个周期只在切换的瞬间丢失或错计少量样本，换取record路径上没有额外的同步。
+     */
+    static final class Latency {
+
+        private final Interval[] intervals = {new Interval(), new Interval()};
 
-    void record(String hostPort, int duration) {
-        int index = Arrays.binarySearch(TIMEOUT_SCALE, duration);
-        if (index < 0) {
-            index = -index - 2; // (-(-(insertion point) - 1) - 1) - 1
+        private volatile int current;
+
+        private void record(long commandNanos, long borrowNanos) {
+            Interval interval = intervals[current];
+            interval.command.record(commandNanos);
+            interval.borrow.record(borrowNanos);
         }
 
-        AtomicInteger[] counters = hostPortCommands.get(hostPort);
-        if (counters == null) {
-            counters = new AtomicInteger[TIMEOUT_SCALE.length];
-            for (int i = 0; i < TIMEOUT_SCALE.length; ++i) {
-                counters[i] = new AtomicInteger(0);
-            }
-            AtomicInteger[] _counters = hostPortCommands.putIfAbsent(hostPort, counters);
-            if (_counters != null) {
-                counters = _counters;
-            }
+        Interval flip() {
+            int retired = current;
+            Interval next = intervals[retired ^ 1];
+            next.command.reset();
+            next.borrow.reset();
+            current = retired ^ 1;
+            return intervals[retired];
         }
-        counters[index].getAndIncrement();
+    }
+
+    /**
+     * 命令耗时(不含获取连接)和获取连接的等待时间
+     */
+    static final class Interval {
+
+        final LatencyHistogram command = new LatencyHistogram();
+
+        final LatencyHistogram borrow = new LatencyHistogram();
     }
 }
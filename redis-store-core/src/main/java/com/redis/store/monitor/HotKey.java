@@ -0,0 +1,66 @@
+package com.redis.store.monitor;
+
+import java.util.Objects;
+
+/**
+ * 一个统计周期内的热点key：所在实例、命令、key以及估算的访问次数(已按采样率放大)。
+ */
+public final class HotKey {
+
+    private final String hostPort;
+
+    private final String command;
+
+    private final String key;
+
+    private final long count;
+
+    HotKey(String hostPort, String command, String key, long count) {
+        this.hostPort = hostPort;
+        this.command = command;
+        this.key = key;
+        this.count = count;
+    }
+
+    public String getHostPort() {
+        return hostPort;
+    }
+
+    public String getCommand() {
+        return command;
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    HotKey withCount(long count) {
+        return new HotKey(hostPort, command, key, count);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof HotKey)) {
+            return false;
+        }
+        HotKey other = (HotKey) o;
+        return hostPort.equals(other.hostPort) && command.equals(other.command) && key.equals(other.key);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(hostPort, command, key);
+    }
+
+    @Override
+    public String toString() {
+        return "hotKey[" + hostPort + " " + command + " " + key + ":" + count + "]";
+    }
+}
@@ -0,0 +1,263 @@
+package com.redis.store.monitor;
+
+import com.redis.store.constants.Constants;
+import org.apache.log4j.Logger;
+import redis.clients.util.SafeEncoder;
+
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 集群级的热点key统计：按1/SAMPLE_RATE采样命令，用Count-Min sketch估算(实例, 命令, key)的次数。
+ * 每个(实例, 命令)各有一个前TOP_K的候选集合，估算值不低于该集合第TOP_K名(至少MIN_ESTIMATE)的才进入，
+ * 比较在分配对象之前完成，已在集合中的key只更新估算值；因此一个繁忙实例的热点不会挤掉其它实例的热点。
+ * 记录路径只有原子自增，无锁；候选集合的裁剪和周期切换都在Reporter线程中执行(见tick)，
+ * 两次裁剪之间候选数达到MAX_CANDIDATES时新key被丢弃。
+ * <p/>
+ * 每个周期(config.hot.key.interval.ms，默认10s)结束时输出各(实例, 命令)的前TOP_K个热点key并重新开始统计，
+ * 上一周期的结果通过RedisStoreMonitor.getHotKeys查询。
+ */
+final class HotKeyDetector {
+
+    private static final Logger LOGGER = Logger.getLogger(HotKeyDetector.class);
+
+    static final boolean HOT_KEY_SWITCH = System.getProperty(Constants.REDIS_CONFIG_HOT_KEY_SWITCH_KEY, "off").equals("on");
+
+    private static final int SAMPLE_RATE = Math.max(Integer.getInteger(Constants.REDIS_CONFIG_HOT_KEY_SAMPLE_RATE_KEY, 16), 1);
+
+    private static final long INTERVAL_MILLIS = Long.getLong(Constants.REDIS_CONFIG_HOT_KEY_INTERVAL_KEY, 10000);
+
+    private static final int TOP_K = 32;
+
+    private static final int MAX_CANDIDATES = TOP_K * 4;
+
+    /** 采样中至少出现2次才可能成为候选，只出现一次的key不分配对象 */
+    private static final long MIN_ESTIMATE = 2;
+
+    private static final int DEPTH = 4;
+
+    private static final int WIDTH = 1 << 13;
+
+    private static final long[] SEEDS = {0x9E3779B97F4A7C15L, 0xC2B2AE3D27D4EB4FL, 0x165667B19E3779F9L, 0xD6E8FEB86659FD93L};
+
+    private static final ConcurrentMap<String, HotKeyDetector> DETECTORS = new ConcurrentHashMap<>();
+
+    private final String clusterName;
+
+    private volatile Window window = new Window(System.currentTimeMillis());
+
+    /** hostPort -> command -> 热点key */
+    private volatile Map<String, Map<String, List<HotKey>>> lastHotKeys = Collections.emptyMap();
+
+    private HotKeyDetector(String clusterName) {
+        this.clusterName = clusterName;
+    }
+
+    static HotKeyDetector of(String clusterName) {
+        HotKeyDetector detector = DETECTORS.get(clusterName);
+        if (detector == null) {
+            detector = new HotKeyDetector(clusterName);
+            HotKeyDetector _detector = DETECTORS.putIfAbsent(clusterName, detector);
+            if (_detector != null) {
+                detector = _detector;
+            }
+        }
+        return detector;
+    }
+
+    static Map<String, Map<String, List<HotKey>>> getHotKeys(String clusterName) {
+        HotKeyDetector detector = DETECTORS.get(clusterName);
+        return detector == null ? Collections.emptyMap() : detector.lastHotKeys;
+    }
+
+    void record(String command, Object key, String hostPort) {
+        if (key == null || hostPort == null) {
+            return;
+        }
+        if (SAMPLE_RATE > 1 && ThreadLocalRandom.current().nextInt(SAMPLE_RATE) != 0) {
+            return;
+        }
+
+        Window current = this.window;
+        int keyHash = key instanceof byte[] ? Arrays.hashCode((byte[]) key) : key.hashCode();
+        long hash = ((long) hostPort.hashCode() * 31 + command.hashCode()) * 0x100000001B3L ^ keyHash;
+        long estimate = current.increment(hash);
+        TopK topK = current.topK(hostPort, command);
+        if (estimate < topK.threshold) {
+            return;
+        }
+        Candidate candidate = topK.candidates.get(hash);
+        if (candidate != null) {
+            candidate.estimate = Math.max(candidate.estimate, estimate);
+        } else if (topK.candidates.size() < MAX_CANDIDATES) {
+            String keyString = key instanceof byte[] ? SafeEncoder.encode((byte[]) key) : key.toString();
+            topK.candidates.putIfAbsent(hash, new Candidate(new HotKey(hostPort, command, keyString, 0), estimate));
+        }
+    }
+
+    /**
+     * 由Reporter线程每秒调用：周期结束时切换统计窗口，否则裁剪各候选集合并提高进入门槛。
+     */
+    static void tick(long now) {
+        for (HotKeyDetector detector : DETECTORS.values()) {
+            Window current = detector.window;
+            if (now - current.start >= INTERVAL_MILLIS) {
+                detector.rotate(now);
+            } else {
+                current.trim();
+            }
+        }
+    }
+
+    private void rotate(long now) {
+        Window current = this.window;
+        this.window = new Window(now);
+        Map<String, Map<String, List<HotKey>>> hotKeys = current.top();
+        this.lastHotKeys = hotKeys;
+        if (!hotKeys.isEmpty()) {
+            LOGGER.info("the hot keys of the cluster " + clusterName + " in the last " + INTERVAL_MILLIS + "ms: " + hotKeys);
+        }
+    }
+
+    private static final class Window {
+
+        private final long start;
+
+        private final AtomicLongArray counts = new AtomicLongArray(DEPTH * WIDTH);
+
+        /** hostPort -> command -> 候选集合 */
+        private final ConcurrentMap<String, ConcurrentMap<String, TopK>> topKs = new ConcurrentHashMap<>();
+
+        private Window(long start) {
+            this.start = start;
+        }
+
+        private long increment(long hash) {
+            long min = Long.MAX_VALUE;
+            for (int i = 0; i < DEPTH; i++) {
+                int index = i * WIDTH + (int) (mix(hash ^ SEEDS[i]) & (WIDTH - 1));
+                min = Math.min(min, counts.incrementAndGet(index));
+            }
+            return min;
+        }
+
+        private TopK topK(String hostPort, String command) {
+            ConcurrentMap<String, TopK> commands = topKs.get(hostPort);
+            if (commands == null) {
+                commands = new ConcurrentHashMap<>();
+                ConcurrentMap<String, TopK> _commands = topKs.putIfAbsent(hostPort, commands);
+                if (_commands != null) {
+                    commands = _commands;
+                }
+            }
+            TopK topK = commands.get(command);
+            if (topK == null) {
+                topK = new TopK();
+                TopK _topK = commands.putIfAbsent(command, topK);
+                if (_topK != null) {
+                    topK = _topK;
+                }
+            }
+            return topK;
+        }
+
+        private void trim() {
+            for (ConcurrentMap<String, TopK> commands : topKs.values()) {
+                for (TopK topK : commands.values()) {
+                    topK.trim();
+                }
+            }
+        }
+
+        private Map<String, Map<String, List<HotKey>>> top() {
+            Map<String, Map<String, List<HotKey>>> hotKeys = new TreeMap<>();
+            for (Map.Entry<String, ConcurrentMap<String, TopK>> hostPortEntry : topKs.entrySet()) {
+                Map<String, List<HotKey>> commands = new TreeMap<>();
+                for (Map.Entry<String, TopK> commandEntry : hostPortEntry.getValue().entrySet()) {
+                    List<HotKey> top = commandEntry.getValue().top();
+                    if (!top.isEmpty()) {
+                        commands.put(commandEntry.getKey(), top);
+                    }
+                }
+                if (!commands.isEmpty()) {
+                    hotKeys.put(hostPortEntry.getKey(), Collections.unmodifiableMap(commands));
+                }
+            }
+            return Collections.unmodifiableMap(hotKeys);
+        }
+
+        private static long mix(long k) {
+            k ^= k >>> 33;
+            k *= 0xff51afd7ed558ccdL;
+            k ^= k >>> 33;
+            k *= 0xc4ceb9fe1a85ec53L;
+            k ^= k >>> 33;
+            return k;
+        }
+    }
+
+    /**
+     * 一个(实例, 命令)在一个周期内的前TOP_K候选，按(实例, 命令, key)的hash索引，只在Reporter线程中裁剪和读取。
+     */
+    private static final class TopK {
+
+        private final ConcurrentMap<Long, Candidate> candidates = new ConcurrentHashMap<>();
+
+        /** 上次裁剪时第TOP_K名的估算值，不低于MIN_ESTIMATE */
+        private volatile long threshold = MIN_ESTIMATE;
+
+        private void trim() {
+            if (candidates.size() <= TOP_K) {
+                return;
+            }
+            List<Map.Entry<Long, Long>> entries = sorted();
+            for (int i = TOP_K; i < entries.size(); i++) {
+                candidates.remove(entries.get(i).getKey());
+            }
+            threshold = Math.max(entries.get(TOP_K - 1).getValue(), MIN_ESTIMATE);
+        }
+
+        /**
+         * 先取估算值的快照再排序，记录线程同时修改估算值不影响排序。
+         */
+        private List<Map.Entry<Long, Long>> sorted() {
+            List<Map.Entry<Long, Long>> entries = new ArrayList<>(candidates.size());
+            for (Map.Entry<Long, Candidate> entry : candidates.entrySet()) {
+                entries.add(new AbstractMap.SimpleImmutableEntry<>(entry.getKey(), entry.getValue().estimate));
+            }
+            entries.sort((e1, e2) -> Long.compare(e2.getValue(), e1.getValue()));
+            return entries;
+        }
+
+        private List<HotKey> top() {
+            List<Map.Entry<Long, Long>> entries = sorted();
+            List<HotKey> hotKeys = new ArrayList<>(Math.min(entries.size(), TOP_K));
+            for (int i = 0; i < entries.size() && i < TOP_K; i++) {
+                HotKey hotKey = candidates.get(entries.get(i).getKey()).hotKey;
+                hotKeys.add(hotKey.withCount(entries.get(i).getValue() * SAMPLE_RATE));
+            }
+            return Collections.unmodifiableList(hotKeys);
+        }
+    }
+
+    private static final class Candidate {
+
+        private final HotKey hotKey;
+
+        private volatile long estimate;
+
+        private Candidate(HotKey hotKey, long estimate) {
+            this.hotKey = hotKey;
+            this.estimate = estimate;
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package com.redis.store.monitor;
+
+/**
+ * 监控数据的输出扩展点，Reporter每个统计周期(1s)调用一次export。
+ * <p/>
+ * 实现类可以通过MetricsExporters.register注册，也可以在META-INF/services/com.redis.store.monitor.IMetricsExporter中声明，
+ * 由ServiceLoader加载(需要无参构造函数)。export在Reporter线程中执行，不应阻塞。
+ */
+public interface IMetricsExporter {
+
+    void export(MetricsSnapshot snapshot);
+}
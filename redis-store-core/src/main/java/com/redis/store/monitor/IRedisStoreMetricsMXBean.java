@@ -0,0 +1,15 @@
+package com.redis.store.monitor;
+
+import java.util.List;
+
+/**
+ * JMX上看到的最近一个统计周期的监控数据，ObjectName为com.redis.store:type=RedisStoreMetrics。
+ */
+public interface IRedisStoreMetricsMXBean {
+
+    long getTimestamp();
+
+    List<MetricsSnapshot.CommandLatency> getCommandLatencies();
+
+    List<MetricsSnapshot.PoolStats> getPools();
+}
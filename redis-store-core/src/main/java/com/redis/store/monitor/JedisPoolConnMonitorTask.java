@@ -11,10 +11,14 @@ import redis.clients.jedis.JedisPool;
 
 import java.util.ArrayList;
 import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
 
 /**
  * Author LTY
@@ -24,14 +28,28 @@ public class JedisPoolConnMonitorTask implements Runnable {
 
     private static final Logger LOGGER = Logger.getLogger(JedisPoolConnMonitorTask.class);
 
-    private static final String HEADLINE = String.format("%-13s  %-13s  %-13s  %-13s  %-30s", "CONN_ACTIVE", "CONN_IDLE", "THREAD_WAIT", "MEAN_WAIT_MS", "REDIS_HOST_PORT");
+    private static final String OUTPUT_FORMAT = "%-13s  %-13s  %-13s  %-13s  %-13s  %-13s  %-13s  %-13s  %-30s";
+
+    private static final String HEADLINE = String.format(OUTPUT_FORMAT, "CONN_ACTIVE", "CONN_IDLE", "THREAD_WAIT", "MEAN_WAIT_MS",
+            "WAIT_HWM", "BORROW_P99_US", "EXHAUSTED", "SATURATED_MS", "REDIS_HOST_PORT");
 
     private static final Logger JEDIS_POOL_CONN_MONITOR_LOGGER = LogCreator.createLogger("JedisPoolConnMonitor", System.getProperty("redisLogPath", "worker"), new PatternLayout("%m%n"), false);
 
     private Map<String, IRedisDao> redisDaoMap;
 
+    /** 实例是否在failFast列表中，随连接池状态一起输出到MetricsExporters */
+    private Predicate<String> failFast;
+
+    /** 各连接池(PoolMetrics.key)上一秒的累计耗尽次数和饱和时间，日志输出每秒的增量 */
+    private final Map<String, long[]> lastTotals = new HashMap<>();
+
     public JedisPoolConnMonitorTask(Map<String, IRedisDao> redisDaoMap) {
+        this(redisDaoMap, hostPort -> false);
+    }
+
+    public JedisPoolConnMonitorTask(Map<String, IRedisDao> redisDaoMap, Predicate<String> failFast) {
         this.redisDaoMap = redisDaoMap;
+        this.failFast = failFast;
     }
 
 
@@ -53,16 +71,18 @@ public class JedisPoolConnMonitorTask implements Runnable {
             redisDaos.sort(Comparator.comparing(IRedisDao::getHostPort));
 
             List<Pair<Integer, String>> logs = new ArrayList<>(redisDaos.size());
+            List<MetricsSnapshot.PoolStats> poolStats = new ArrayList<>(redisDaos.size());
+            Set<String> poolKeys = new HashSet<>();
             for (IRedisDao redisDao : redisDaos) {
-                JedisPool jedisPool = redisDao.getJedisPool();
-                int connActive = jedisPool.getNumActive();
-                int connIdle = jedisPool.getNumIdle();
-                int threadWait = jedisPool.getNumWaiters();
-                long meanWaitTimeMillis = jedisPool.getMeanBorrowWaitTimeMillis();
-                String redisHostPort = redisDao.getHostPort();
-                logs.add(Pair.of(threadWait, String.format("%-13s  %-13s  %-13s  %-13s  %-30s",
-                        connActive, connIdle, threadWait, meanWaitTimeMillis, redisHostPort)));
+                report(redisDao.getJedisPool(), redisDao.getHostPort(), PoolMetrics.DEFAULT_POOL, logs, poolStats, poolKeys);
+                JedisPool blockingPool = redisDao.getCreatedBlockingJedisPool();
+                if (blockingPool != null && blockingPool != redisDao.getJedisPool()) {
+                    report(blockingPool, redisDao.getHostPort(), PoolMetrics.BLOCKING_POOL, logs, poolStats, poolKeys);
+                }
             }
+            lastTotals.keySet().retainAll(poolKeys);
+            MetricsExporters.updatePools(poolStats);
+
             logs.sort((o1, o2) -> o2.getLeft().compareTo(o1.getLeft()));
             int maxLine = Math.min(logs.size(), 10);
             for (int i = 0; i < maxLine; i++) {
@@ -72,4 +92,41 @@ public class JedisPoolConnMonitorTask implements Runnable {
             LOGGER.error("jedisPoolConnMonitor error", e);
         }
     }
+
+    /**
+     * 阻塞命令的连接池在日志中显示为hostPort/blocking。
+     */
+    private void report(JedisPool jedisPool, String redisHostPort, String pool, List<Pair<Integer, String>> logs,
+                        List<MetricsSnapshot.PoolStats> poolStats, Set<String> poolKeys) {
+        int connActive = jedisPool.getNumActive();
+        int connIdle = jedisPool.getNumIdle();
+        int threadWait = jedisPool.getNumWaiters();
+        long meanWaitTimeMillis = jedisPool.getMeanBorrowWaitTimeMillis();
+        String poolKey = PoolMetrics.key(redisHostPort, pool);
+        poolKeys.add(poolKey);
+
+        int waiterHighWater = threadWait;
+        long borrowP99 = 0;
+        long exhausted = 0;
+        long saturatedMillis = 0;
+        PoolMetrics metrics = PoolMetrics.get(redisHostPort, pool);
+        if (metrics != null) {
+            borrowP99 = metrics.flip().getValueAtPercentile(99);
+            waiterHighWater = Math.max(metrics.getWaiterHighWater(), threadWait);
+            exhausted = metrics.getExhaustedCount();
+            saturatedMillis = metrics.getSaturatedMillis();
+        }
+        long[] last = lastTotals.get(poolKey);
+        if (last == null) {
+            last = new long[2];
+            lastTotals.put(poolKey, last);
+        }
+        logs.add(Pair.of(waiterHighWater, String.format(OUTPUT_FORMAT, connActive, connIdle, threadWait, meanWaitTimeMillis,
+                waiterHighWater, borrowP99 / 1000, exhausted - last[0], saturatedMillis - last[1], poolKey)));
+        last[0] = exhausted;
+        last[1] = saturatedMillis;
+
+        poolStats.add(new MetricsSnapshot.PoolStats(redisHostPort, pool, connActive, connIdle, threadWait, meanWaitTimeMillis, failFast.test(redisHostPort),
+                waiterHighWater, borrowP99, exhausted, saturatedMillis));
+    }
 }
@@ -0,0 +1,53 @@
+package com.redis.store.monitor;
+
+import org.apache.log4j.Logger;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 把最近一个统计周期的快照注册为MXBean，可以用jconsole/jmx采集器读取。
+ */
+final class JmxMetricsExporter implements IMetricsExporter, IRedisStoreMetricsMXBean {
+
+    private static final Logger LOGGER = Logger.getLogger(JmxMetricsExporter.class);
+
+    static final String OBJECT_NAME = "com.redis.store:type=RedisStoreMetrics";
+
+    private volatile MetricsSnapshot snapshot = new MetricsSnapshot(0, Collections.emptyList(), Collections.emptyList());
+
+    JmxMetricsExporter() {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = new ObjectName(OBJECT_NAME);
+            if (!server.isRegistered(name)) {
+                server.registerMBean(this, name);
+            }
+        } catch (Exception e) {
+            LOGGER.error("fail to register the mbean:" + OBJECT_NAME, e);
+        }
+    }
+
+    @Override
+    public void export(MetricsSnapshot snapshot) {
+        this.snapshot = snapshot;
+    }
+
+    @Override
+    public long getTimestamp() {
+        return snapshot.getTimestamp();
+    }
+
+    @Override
+    public List<MetricsSnapshot.CommandLatency> getCommandLatencies() {
+        return snapshot.getCommandLatencies();
+    }
+
+    @Override
+    public List<MetricsSnapshot.PoolStats> getPools() {
+        return snapshot.getPools();
+    }
+}
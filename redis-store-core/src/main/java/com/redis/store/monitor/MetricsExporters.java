@@ -0,0 +1,71 @@
+package com.redis.store.monitor;
+
+import com.redis.store.constants.Constants;
+import org.apache.log4j.Logger;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.ServiceLoader;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * IMetricsExporter的注册表。内置两个实现，默认关闭：
+ * config.metrics.jmx.switch=on时注册JMX MBean，config.metrics.prometheus.port大于0时在该端口的/metrics输出Prometheus文本格式。
+ */
+public final class MetricsExporters {
+
+    private static final Logger LOGGER = Logger.getLogger(MetricsExporters.class);
+
+    private static final CopyOnWriteArrayList<IMetricsExporter> EXPORTERS = new CopyOnWriteArrayList<>();
+
+    /** JedisPoolConnMonitorTask每秒更新，随下一次Reporter的快照输出 */
+    private static volatile List<MetricsSnapshot.PoolStats> pools = Collections.emptyList();
+
+    static {
+        if (System.getProperty(Constants.REDIS_CONFIG_METRICS_JMX_SWITCH_KEY, "off").equals("on")) {
+            register(new JmxMetricsExporter());
+        }
+        int port = Integer.getInteger(Constants.REDIS_CONFIG_METRICS_PROMETHEUS_PORT_KEY, 0);
+        if (port > 0) {
+            try {
+                register(new PrometheusMetricsExporter(port));
+            } catch (Exception e) {
+                LOGGER.error("fail to start the prometheus metrics endpoint, the port is:" + port, e);
+            }
+        }
+        for (IMetricsExporter exporter : ServiceLoader.load(IMetricsExporter.class)) {
+            register(exporter);
+        }
+    }
+
+    private MetricsExporters() {
+    }
+
+    public static void register(IMetricsExporter exporter) {
+        EXPORTERS.addIfAbsent(exporter);
+        LOGGER.info("register the metrics exporter:" + exporter.getClass().getName());
+    }
+
+    public static void unregister(IMetricsExporter exporter) {
+        EXPORTERS.remove(exporter);
+    }
+
+    static boolean isEnabled() {
+        return !EXPORTERS.isEmpty();
+    }
+
+    static void updatePools(List<MetricsSnapshot.PoolStats> poolStats) {
+        pools = poolStats;
+    }
+
+    static void export(List<MetricsSnapshot.CommandLatency> commandLatencies) {
+        MetricsSnapshot snapshot = new MetricsSnapshot(System.currentTimeMillis(), commandLatencies, pools);
+        for (IMetricsExporter exporter : EXPORTERS) {
+            try {
+                exporter.export(snapshot);
+            } catch (Exception e) {
+                LOGGER.error("fail to export metrics, the exporter is:" + exporter.getClass().getName(), e);
+            }
+        }
+    }
+}
@@ -0,0 +1,223 @@
+package com.redis.store.monitor;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 一个统计周期的监控数据：各集群命令在各实例上的耗时分位(纳秒)，以及连接池和failFast状态。
+ */
+public final class MetricsSnapshot {
+
+    private final long timestamp;
+
+    private final List<CommandLatency> commandLatencies;
+
+    private final List<PoolStats> pools;
+
+    MetricsSnapshot(long timestamp, List<CommandLatency> commandLatencies, List<PoolStats> pools) {
+        this.timestamp = timestamp;
+        this.commandLatencies = Collections.unmodifiableList(commandLatencies);
+        this.pools = Collections.unmodifiableList(pools);
+    }
+
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    public List<CommandLatency> getCommandLatencies() {
+        return commandLatencies;
+    }
+
+    public List<PoolStats> getPools() {
+        return pools;
+    }
+
+    public static final class CommandLatency {
+
+        private final String clusterName;
+
+        private final String command;
+
+        private final String hostPort;
+
+        private final long count;
+
+        private final long totalNanos;
+
+        private final long p50;
+
+        private final long p90;
+
+        private final long p99;
+
+        private final long p999;
+
+        private final long max;
+
+        private final long borrowP99;
+
+        private final long borrowMax;
+
+        CommandLatency(String clusterName, String command, String hostPort, LatencyHistogram latency, LatencyHistogram borrow) {
+            this.clusterName = clusterName;
+            this.command = command;
+            this.hostPort = hostPort;
+            this.count = latency.getTotalCount();
+            this.totalNanos = latency.getTotalNanos();
+            this.p50 = latency.getValueAtPercentile(50);
+            this.p90 = latency.getValueAtPercentile(90);
+            this.p99 = latency.getValueAtPercentile(99);
+            this.p999 = latency.getValueAtPercentile(99.9);
+            this.max = latency.getMax();
+            this.borrowP99 = borrow.getValueAtPercentile(99);
+            this.borrowMax = borrow.getMax();
+        }
+
+        public String getClusterName() {
+            return clusterName;
+        }
+
+        public String getCommand() {
+            return command;
+        }
+
+        public String getHostPort() {
+            return hostPort;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        public long getTotalNanos() {
+            return totalNanos;
+        }
+
+        public long getP50() {
+            return p50;
+        }
+
+        public long getP90() {
+            return p90;
+        }
+
+        public long getP99() {
+            return p99;
+        }
+
+        public long getP999() {
+            return p999;
+        }
+
+        public long getMax() {
+            return max;
+        }
+
+        public long getBorrowP99() {
+            return borrowP99;
+        }
+
+        public long getBorrowMax() {
+            return borrowMax;
+        }
+    }
+
+    public static final class PoolStats {
+
+        private final String hostPort;
+
+        private final String pool;
+
+        private final int active;
+
+        private final int idle;
+
+        private final int waiters;
+
+        private final long meanBorrowWaitMillis;
+
+        private final boolean failFast;
+
+        private final int waiterHighWater;
+
+        private final long borrowP99;
+
+        private final long exhaustedCount;
+
+        private final long saturatedMillis;
+
+        PoolStats(String hostPort, String pool, int active, int idle, int waiters, long meanBorrowWaitMillis, boolean failFast,
+                  int waiterHighWater, long borrowP99, long exhaustedCount, long saturatedMillis) {
+            this.hostPort = hostPort;
+            this.pool = pool;
+            this.active = active;
+            this.idle = idle;
+            this.waiters = waiters;
+            this.meanBorrowWaitMillis = meanBorrowWaitMillis;
+            this.failFast = failFast;
+            this.waiterHighWater = waiterHighWater;
+            this.borrowP99 = borrowP99;
+            this.exhaustedCount = exhaustedCount;
+            this.saturatedMillis = saturatedMillis;
+        }
+
+        public String getHostPort() {
+            return hostPort;
+        }
+
+        /**
+         * PoolMetrics.DEFAULT_POOL或PoolMetrics.BLOCKING_POOL
+         */
+        public String getPool() {
+            return pool;
+        }
+
+        public int getActive() {
+            return active;
+        }
+
+        public int getIdle() {
+            return idle;
+        }
+
+        public int getWaiters() {
+            return waiters;
+        }
+
+        public long getMeanBorrowWaitMillis() {
+            return meanBorrowWaitMillis;
+        }
+
+        public boolean isFailFast() {
+            return failFast;
+        }
+
+        /**
+         * 上一秒同时等待连接的线程数的最大值
+         */
+        public int getWaiterHighWater() {
+            return waiterHighWater;
+        }
+
+        /**
+         * 上一秒借连接等待时间的p99(纳秒)
+         */
+        public long getBorrowP99() {
+            return borrowP99;
+        }
+
+        /**
+         * 连接池耗尽的累计次数
+         */
+        public long getExhaustedCount() {
+            return exhaustedCount;
+        }
+
+        /**
+         * 借出数达到maxTotal的累计时间
+         */
+        public long getSaturatedMillis() {
+            return saturatedMillis;
+        }
+    }
+}
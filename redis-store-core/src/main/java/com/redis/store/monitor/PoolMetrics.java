@@ -0,0 +1,227 @@
+package com.redis.store.monitor;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 一个连接池的饱和度统计，由连接池在借出/归还连接时更新，记录路径不打日志、不分配对象：
+ * <ul>
+ * <li>借连接的等待时间直方图(双缓冲，JedisPoolConnMonitorTask每秒flip一次)</li>
+ * <li>连接池耗尽(等待超时)和其它借连接失败的次数</li>
+ * <li>正在借连接的线程数的高水位，近似连接池的waiters</li>
+ * <li>借出的连接数达到maxTotal的累计时间，maxTotal为负数(不限制)时始终为0</li>
+ * </ul>
+ */
+public final class PoolMetrics {
+
+    /** 普通命令的连接池 */
+    public static final String DEFAULT_POOL = "default";
+
+    /** 阻塞命令和订阅的连接池 */
+    public static final String BLOCKING_POOL = "blocking";
+
+    private static final ConcurrentMap<String, PoolMetrics> POOL_METRICS = new ConcurrentHashMap<>();
+
+    private final String hostPort;
+
+    private final String pool;
+
+    private final int maxTotal;
+
+    private final LatencyHistogram[] borrowLatencies = {new LatencyHistogram(), new LatencyHistogram()};
+
+    private volatile int current;
+
+    private final LongAdder borrowCount = new LongAdder();
+
+    private final LongAdder exhaustedCount = new LongAdder();
+
+    private final LongAdder borrowFailureCount = new LongAdder();
+
+    private final AtomicInteger inUse = new AtomicInteger();
+
+    private final AtomicInteger borrowing = new AtomicInteger();
+
+    private final AtomicInteger waiterHighWater = new AtomicInteger();
+
+    private volatile int lastWaiterHighWater;
+
+    private final AtomicInteger maxWaiterHighWater = new AtomicInteger();
+
+    /** 借出数达到maxTotal的开始时间，未饱和时为0 */
+    private final AtomicLong saturatedSince = new AtomicLong();
+
+    private final AtomicLong saturatedNanos = new AtomicLong();
+
+    private PoolMetrics(String hostPort, String pool, int maxTotal) {
+        this.hostPort = hostPort;
+        this.pool = pool;
+        this.maxTotal = maxTotal;
+    }
+
+    /**
+     * 连接池创建时注册，同一实例的连接池重建后替换旧的统计。
+     */
+    public static PoolMetrics register(String hostPort, int maxTotal) {
+        return register(hostPort, DEFAULT_POOL, maxTotal);
+    }
+
+    public static PoolMetrics register(String hostPort, String pool, int maxTotal) {
+        PoolMetrics metrics = new PoolMetrics(hostPort, pool, maxTotal);
+        POOL_METRICS.put(key(hostPort, pool), metrics);
+        return metrics;
+    }
+
+    /**
+     * 连接池销毁时删除，已被同一实例重建的连接池替换时不删除。
+     */
+    public static void unregister(PoolMetrics metrics) {
+        POOL_METRICS.remove(key(metrics.hostPort, metrics.pool), metrics);
+    }
+
+    public static PoolMetrics get(String hostPort) {
+        return get(hostPort, DEFAULT_POOL);
+    }
+
+    public static PoolMetrics get(String hostPort, String pool) {
+        return POOL_METRICS.get(key(hostPort, pool));
+    }
+
+    /**
+     * 普通连接池以hostPort为key，其它连接池为hostPort/pool。
+     */
+    public static String key(String hostPort, String pool) {
+        return DEFAULT_POOL.equals(pool) ? hostPort : hostPort + "/" + pool;
+    }
+
+    public static List<PoolMetrics> getAll() {
+        return new ArrayList<>(POOL_METRICS.values());
+    }
+
+    /**
+     * 开始借连接，返回System.nanoTime()，借到或失败后必须调用borrowed/borrowFailed。
+     */
+    public long beginBorrow() {
+        int waiters = borrowing.incrementAndGet();
+        int highWater = waiterHighWater.get();
+        while (waiters > highWater && !waiterHighWater.compareAndSet(highWater, waiters)) {
+            highWater = waiterHighWater.get();
+        }
+        return System.nanoTime();
+    }
+
+    public void borrowed(long begin) {
+        long now = System.nanoTime();
+        borrowing.decrementAndGet();
+        borrowLatencies[current].record(now - begin);
+        borrowCount.increment();
+        int used = inUse.incrementAndGet();
+        if (maxTotal >= 0 && used >= maxTotal) {
+            saturatedSince.compareAndSet(0, now);
+        }
+    }
+
+    public void borrowFailed(long begin, boolean exhausted) {
+        borrowing.decrementAndGet();
+        borrowLatencies[current].record(System.nanoTime() - begin);
+        if (exhausted) {
+            exhaustedCount.increment();
+        } else {
+            borrowFailureCount.increment();
+        }
+    }
+
+    public void returned() {
+        int used = inUse.getAndDecrement();
+        if (maxTotal >= 0 && used >= maxTotal) {
+            long since = saturatedSince.getAndSet(0);
+            if (since != 0) {
+                saturatedNanos.addAndGet(System.nanoTime() - since);
+            }
+        }
+    }
+
+    /**
+     * 切换借连接等待时间的统计周期，返回刚结束周期的直方图；同时结束waiters高水位的统计周期。
+     */
+    LatencyHistogram flip() {
+        int retired = current;
+        LatencyHistogram next = borrowLatencies[retired ^ 1];
+        next.reset();
+        current = retired ^ 1;
+
+        int highWater = waiterHighWater.getAndSet(borrowing.get());
+        lastWaiterHighWater = highWater;
+        int max = maxWaiterHighWater.get();
+        while (highWater > max && !maxWaiterHighWater.compareAndSet(max, highWater)) {
+            max = maxWaiterHighWater.get();
+        }
+        return borrowLatencies[retired];
+    }
+
+    public String getHostPort() {
+        return hostPort;
+    }
+
+    public String getPool() {
+        return pool;
+    }
+
+    public int getMaxTotal() {
+        return maxTotal;
+    }
+
+    /**
+     * 上一个统计周期借连接的等待时间
+     */
+    public LatencyHistogram getBorrowLatency() {
+        return borrowLatencies[current ^ 1];
+    }
+
+    public long getBorrowCount() {
+        return borrowCount.sum();
+    }
+
+    /**
+     * 连接池耗尽(等待maxWait后仍没有连接)的累计次数
+     */
+    public long getExhaustedCount() {
+        return exhaustedCount.sum();
+    }
+
+    public long getBorrowFailureCount() {
+        return borrowFailureCount.sum();
+    }
+
+    public int getInUse() {
+        return inUse.get();
+    }
+
+    /**
+     * 上一个统计周期同时借连接的线程数的最大值
+     */
+    public int getWaiterHighWater() {
+        return lastWaiterHighWater;
+    }
+
+    public int getMaxWaiterHighWater() {
+        return maxWaiterHighWater.get();
+    }
+
+    /**
+     * 借出数达到maxTotal的累计时间，包括正在饱和的这一段
+     */
+    public long getSaturatedMillis() {
+        long nanos = saturatedNanos.get();
+        long since = saturatedSince.get();
+        if (since != 0) {
+            nanos += System.nanoTime() - since;
+        }
+        return nanos / 1000000;
+    }
+}
@@ -0,0 +1,159 @@
+package com.redis.store.monitor;
+
+import com.redis.store.service.NamedThreadFactory;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.HashSet;
+import java.util.TreeMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.function.Function;
+
+/**
+ * 用JDK自带的HttpServer在/metrics输出Prometheus文本格式(0.0.4)。
+ * <p/>
+ * 分位数和gauge是最近一个统计周期的值；_count和_sum在本exporter内按周期累加，符合Prometheus对summary计数单调递增的要求。
+ */
+final class PrometheusMetricsExporter implements IMetricsExporter {
+
+    private static final String CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+
+    private final HttpServer server;
+
+    /** 按series(集群、命令、实例)累加的次数和耗时，只在Reporter线程中访问 */
+    private final Map<String, Total> totals = new TreeMap<>();
+
+    private volatile byte[] body = new byte[0];
+
+    PrometheusMetricsExporter(int port) throws IOException {
+        this.server = HttpServer.create(new InetSocketAddress(port), 0);
+        this.server.setExecutor(Executors.newSingleThreadExecutor(new NamedThreadFactory("PrometheusMetricsExporter", true)));
+        this.server.createContext("/metrics", exchange -> {
+            byte[] response = body;
+            exchange.getResponseHeaders().set("Content-Type", CONTENT_TYPE);
+            exchange.sendResponseHeaders(200, response.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(response);
+            }
+        });
+        this.server.start();
+    }
+
+    @Override
+    public void export(MetricsSnapshot snapshot) {
+        StringBuilder builder = new StringBuilder(4096);
+
+        builder.append("# HELP redis_store_command_latency_seconds Redis command latency excluding the pool borrow wait.\n");
+        builder.append("# TYPE redis_store_command_latency_seconds summary\n");
+        Set<String> instances = new HashSet<>();
+        for (MetricsSnapshot.PoolStats pool : snapshot.getPools()) {
+            instances.add(pool.getHostPort());
+        }
+        Set<String> current = new HashSet<>();
+        for (MetricsSnapshot.CommandLatency latency : snapshot.getCommandLatencies()) {
+            String labels = labels(latency);
+            current.add(labels);
+            instances.add(latency.getHostPort());
+            Total total = totals.get(labels);
+            if (total == null) {
+                total = new Total(latency.getHostPort());
+                totals.put(labels, total);
+            }
+            total.count += latency.getCount();
+            total.nanos += latency.getTotalNanos();
+
+            quantile(builder, "redis_store_command_latency_seconds", labels, "0.5", latency.getP50());
+            quantile(builder, "redis_store_command_latency_seconds", labels, "0.9", latency.getP90());
+            quantile(builder, "redis_store_command_latency_seconds", labels, "0.99", latency.getP99());
+            quantile(builder, "redis_store_command_latency_seconds", labels, "0.999", latency.getP999());
+        }
+        // 本周期没有调用的series也输出累计值，避免计数断档；实例已不在快照中(下线)的series删除
+        totals.entrySet().removeIf(entry -> !current.contains(entry.getKey()) && !instances.contains(entry.getValue().instance));
+        for (Map.Entry<String, Total> entry : totals.entrySet()) {
+            builder.append("redis_store_command_latency_seconds_count{").append(entry.getKey()).append("} ").append(entry.getValue().count).append('\n');
+            builder.append("redis_store_command_latency_seconds_sum{").append(entry.getKey()).append("} ").append(seconds(entry.getValue().nanos)).append('\n');
+        }
+
+        builder.append("# HELP redis_store_command_latency_max_seconds Max redis command latency in the last interval.\n");
+        builder.append("# TYPE redis_store_command_latency_max_seconds gauge\n");
+        for (MetricsSnapshot.CommandLatency latency : snapshot.getCommandLatencies()) {
+            gauge(builder, "redis_store_command_latency_max_seconds", latency, seconds(latency.getMax()));
+        }
+
+        builder.append("# HELP redis_store_borrow_wait_p99_seconds P99 pool borrow wait in the last interval.\n");
+        builder.append("# TYPE redis_store_borrow_wait_p99_seconds gauge\n");
+        for (MetricsSnapshot.CommandLatency latency : snapshot.getCommandLatencies()) {
+            gauge(builder, "redis_store_borrow_wait_p99_seconds", latency, seconds(latency.getBorrowP99()));
+        }
+
+        builder.append("# HELP redis_store_borrow_wait_max_seconds Max pool borrow wait in the last interval.\n");
+        builder.append("# TYPE redis_store_borrow_wait_max_seconds gauge\n");
+        for (MetricsSnapshot.CommandLatency latency : snapshot.getCommandLatencies()) {
+            gauge(builder, "redis_store_borrow_wait_max_seconds", latency, seconds(latency.getBorrowMax()));
+        }
+
+        poolGauge(builder, snapshot, "redis_store_pool_active", "Active connections of the jedis pool.", MetricsSnapshot.PoolStats::getActive);
+        poolGauge(builder, snapshot, "redis_store_pool_idle", "Idle connections of the jedis pool.", MetricsSnapshot.PoolStats::getIdle);
+        poolGauge(builder, snapshot, "redis_store_pool_waiters", "Threads waiting for a connection of the jedis pool.", MetricsSnapshot.PoolStats::getWaiters);
+        poolGauge(builder, snapshot, "redis_store_pool_mean_borrow_wait_seconds", "Mean borrow wait reported by the jedis pool.", pool -> pool.getMeanBorrowWaitMillis() / 1000.0);
+        poolGauge(builder, snapshot, "redis_store_pool_waiters_high_water", "Max threads waiting for a connection in the last interval.", MetricsSnapshot.PoolStats::getWaiterHighWater);
+        poolGauge(builder, snapshot, "redis_store_pool_borrow_wait_p99_seconds", "P99 borrow wait of the jedis pool in the last interval.", pool -> seconds(pool.getBorrowP99()));
+        poolMetric(builder, snapshot, "redis_store_pool_exhausted_total", "counter", "Borrows failed because the jedis pool was exhausted.", MetricsSnapshot.PoolStats::getExhaustedCount);
+        poolMetric(builder, snapshot, "redis_store_pool_saturated_seconds_total", "counter", "Time the jedis pool had maxTotal connections borrowed.", pool -> pool.getSaturatedMillis() / 1000.0);
+        poolGauge(builder, snapshot, "redis_store_fail_fast", "1 if the instance is in the fail fast list.", pool -> pool.isFailFast() ? 1 : 0);
+
+        this.body = builder.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static void quantile(StringBuilder builder, String name, String labels, String quantile, long nanos) {
+        builder.append(name).append('{').append(labels).append(",quantile=\"").append(quantile).append("\"} ").append(seconds(nanos)).append('\n');
+    }
+
+    private static void gauge(StringBuilder builder, String name, MetricsSnapshot.CommandLatency latency, String value) {
+        builder.append(name).append('{').append(labels(latency)).append("} ").append(value).append('\n');
+    }
+
+    private static String labels(MetricsSnapshot.CommandLatency latency) {
+        return "cluster=\"" + escape(latency.getClusterName()) + "\",command=\"" + escape(latency.getCommand())
+                + "\",instance=\"" + escape(latency.getHostPort()) + "\"";
+    }
+
+    private static void poolGauge(StringBuilder builder, MetricsSnapshot snapshot, String name, String help, Function<MetricsSnapshot.PoolStats, Object> value) {
+        poolMetric(builder, snapshot, name, "gauge", help, value);
+    }
+
+    private static void poolMetric(StringBuilder builder, MetricsSnapshot snapshot, String name, String type, String help, Function<MetricsSnapshot.PoolStats, Object> value) {
+        builder.append("# HELP ").append(name).append(' ').append(help).append('\n');
+        builder.append("# TYPE ").append(name).append(' ').append(type).append('\n');
+        for (MetricsSnapshot.PoolStats pool : snapshot.getPools()) {
+            builder.append(name).append("{instance=\"").append(escape(pool.getHostPort())).append("\",pool=\"").append(escape(pool.getPool()))
+                    .append("\"} ").append(value.apply(pool)).append('\n');
+        }
+    }
+
+    private static String seconds(long nanos) {
+        return String.valueOf(nanos / 1e9);
+    }
+
+    private static String escape(String value) {
+        return value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+
+    private static final class Total {
+
+        private final String instance;
+
+        private long count;
+
+        private long nanos;
+
+        private Total(String instance) {
+            this.instance = instance;
+        }
+    }
+}
@@ -2,20 +2,32 @@ package com.redis.store.monitor;
 
 import com.redis.store.service.NamedThreadFactory;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
-import java.util.concurrent.atomic.AtomicReference;
 
 
 public class RedisStoreMonitor {
 
     private static final Reporter REPORTER = new Reporter();
 
+    /** near cache命中时记录在该host下，未命中的命令按实际实例记录 */
+    public static final String NEAR_CACHE_HOST_PORT = "near-cache";
+
     final String clusterName;
 
-    AtomicReference<ConcurrentMap<String, CommandExecDetail>> commandExecDetails = new AtomicReference<>(new ConcurrentHashMap<>());
+    private final HotKeyDetector hotKeyDetector;
+
+    private final BigValueDetector bigValueDetector;
+
+    /** 命令的统计句柄常驻，Reporter通过CommandExecDetail.Latency的双缓冲读取每个周期的数据，预热后record不分配对象 */
+    final ConcurrentMap<String, CommandExecDetail> commandExecDetails = new ConcurrentHashMap<>();
 
     static {
         Executors.newSingleThreadScheduledExecutor(new NamedThreadFactory("RedisStoreMonitor", true)).scheduleAtFixedRate(REPORTER, 1, 1, TimeUnit.SECONDS);
@@ -23,19 +35,111 @@ public class RedisStoreMonitor {
 
     public RedisStoreMonitor(String clusterName) {
         this.clusterName = clusterName;
+        this.hotKeyDetector = HotKeyDetector.HOT_KEY_SWITCH ? HotKeyDetector.of(clusterName) : null;
+        this.bigValueDetector = BigValueDetector.BIG_VALUE_SWITCH ? BigValueDetector.of(clusterName) : null;
         REPORTER.register(this);
     }
 
-    public void record(String command, Object[] args, Object result, String hostport, int duration) {
-        ConcurrentMap<String, CommandExecDetail> details = commandExecDetails.get();
-        CommandExecDetail detail = details.get(command);
+    /**
+     * 命令开始时调用，清零当前线程的连接池等待时间，返回System.nanoTime()。
+     */
+    public static long begin() {
+        BorrowWait.reset();
+        return System.nanoTime();
+    }
+
+    /**
+     * durationNanos是包含获取连接在内的总耗时，其中在连接池等待的部分单独统计。
+     */
+    public void record(String command, Object key, Object result, String hostport, long durationNanos) {
+        long borrowNanos = BorrowWait.take();
+        CommandExecDetail detail = commandExecDetails.get(command);
         if (detail == null) {
             detail = new CommandExecDetail();
-            CommandExecDetail _detail = details.putIfAbsent(command, detail);
+            CommandExecDetail _detail = commandExecDetails.putIfAbsent(command, detail);
             if (_detail != null) {
                 detail = _detail;
             }
         }
-        detail.record(hostport, duration);
+        detail.record(hostport, Math.max(durationNanos - borrowNanos, 0), borrowNanos);
+        if (hotKeyDetector != null) {
+            hotKeyDetector.record(command, key, hostport);
+        }
+        if (bigValueDetector != null) {
+            bigValueDetector.record(command, key, result, hostport);
+        }
+    }
+
+    /**
+     * 删除已下线实例的命令统计句柄，hostPorts是当前所有实例。
+     */
+    public static void retainHostPorts(Set<String> hostPorts) {
+        REPORTER.retainHostPorts(hostPorts);
+    }
+
+    /**
+     * 集群上一个统计周期的热点key：实例 -> 命令 -> 该实例上该命令的前32个热点key(按估算次数从高到低)；
+     * 未开启config.hot.key.switch时为空。
+     */
+    public static Map<String, Map<String, List<HotKey>>> getHotKeys(String clusterName) {
+        return HotKeyDetector.getHotKeys(clusterName);
+    }
+
+    /**
+     * 集群上一个统计周期内某个实例的热点key，按命令分组。
+     */
+    public static Map<String, List<HotKey>> getHotKeys(String clusterName, String hostPort) {
+        Map<String, List<HotKey>> hotKeys = HotKeyDetector.getHotKeys(clusterName).get(hostPort);
+        return hotKeys == null ? Collections.emptyMap() : hotKeys;
+    }
+
+    /**
+     * 集群上一个统计周期内某个实例上某个命令的热点key。
+     */
+    public static List<HotKey> getHotKeys(String clusterName, String hostPort, String command) {
+        List<HotKey> hotKeys = getHotKeys(clusterName, hostPort).get(command);
+        return hotKeys == null ? Collections.emptyList() : hotKeys;
+    }
+
+    /**
+     * 集群上一个统计周期各实例返回值最大的key(按实例、size从大到小排列)；未开启config.big.value.switch时为空。
+     */
+    public static List<BigValue> getBigValues(String clusterName) {
+        return BigValueDetector.getBigValues(clusterName);
+    }
+
+    /**
+     * 集群上一个统计周期内某个实例返回值最大的key。
+     */
+    public static List<BigValue> getBigValues(String clusterName, String hostPort) {
+        List<BigValue> bigValues = new ArrayList<>();
+        for (BigValue bigValue : BigValueDetector.getBigValues(clusterName)) {
+            if (bigValue.getHostPort().equals(hostPort)) {
+                bigValues.add(bigValue);
+            }
+        }
+        return bigValues;
+    }
+
+    /**
+     * 集群上一个统计周期各命令返回值大小的直方图(已按采样率放大)：下标0是size为0，下标i是[2^(i-1), 2^i)。
+     */
+    public static Map<String, long[]> getValueSizeHistograms(String clusterName) {
+        return BigValueDetector.getHistograms(clusterName);
+    }
+
+    /**
+     * 实例连接池的饱和度统计：借连接等待时间、耗尽次数、等待线程高水位和饱和时间；连接池不是由本组件创建时为null。
+     */
+    public static PoolMetrics getPoolMetrics(String hostPort) {
+        return PoolMetrics.get(hostPort);
+    }
+
+    public static List<PoolMetrics> getAllPoolMetrics() {
+        return PoolMetrics.getAll();
+    }
+
+    public void recordNearCacheHit(String command, Object key) {
+        record(command, key, null, NEAR_CACHE_HOST_PORT, 0);
     }
 }
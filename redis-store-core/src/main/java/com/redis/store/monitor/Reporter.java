@@ -7,33 +7,14 @@ import org.apache.log4j.Logger;
 
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ConcurrentMap;
-import java.util.concurrent.atomic.AtomicInteger;
-import java.util.stream.Collectors;
-
-import static com.redis.store.monitor.CommandExecDetail.TIMEOUT_SCALE;
-
 
 class Reporter implements Runnable {
 
     private static final Logger LOGGER = Logger.getLogger(Reporter.class);
 
-    private static final String OUTPUT_FORMAT;
-
-    private static final String TITLE;
+    private static final String OUTPUT_FORMAT = "%-70s" + StringUtils.repeat("%-12s", 8);
 
-    static {
-
-        OUTPUT_FORMAT = Arrays.stream(TIMEOUT_SCALE).mapToObj(scale -> "%-10s  ").collect(Collectors.joining());
-
-        Object[] titleTokens = new String[TIMEOUT_SCALE.length];
-        for (int i = 0, l = TIMEOUT_SCALE.length; i < l; i++) {
-            String scale1 = String.valueOf(TIMEOUT_SCALE[i]);
-            String scale2 = i + 1 < l ? String.valueOf(TIMEOUT_SCALE[i + 1]) : "Inf";
-            titleTokens[i] = "[" + scale1 + "," + scale2 + ")";
-        }
-        TITLE = String.format("%-70s", "HOST_PORT") + String.format(OUTPUT_FORMAT, titleTokens);
-    }
+    private static final String TITLE = String.format(OUTPUT_FORMAT, "HOST_PORT", "COUNT", "P50_US", "P90_US", "P99_US", "P999_US", "MAX_US", "WAIT_P99_US", "WAIT_MAX_US");
 
     private final Map<String, Logger> commandDetailLoggers = new HashMap<>();
 
@@ -43,32 +24,69 @@ class Reporter implements Runnable {
         redisStoreMonitors.add(redisStoreMonitor);
     }
 
+    void retainHostPorts(Set<String> hostPorts) {
+        for (RedisStoreMonitor monitor : redisStoreMonitors) {
+            for (CommandExecDetail detail : monitor.commandExecDetails.values()) {
+                detail.retain(hostPorts);
+            }
+        }
+    }
+
     @Override
     public void run() {
         try {
+            if (HotKeyDetector.HOT_KEY_SWITCH) {
+                HotKeyDetector.tick(System.currentTimeMillis());
+            }
+            // 同一集群可能有多个monitor(每个StoreDao工厂一个)，输出到exporter前按集群、命令、实例合并
+            Map<String, CommandExecDetail.Interval> merged = MetricsExporters.isEnabled() ? new TreeMap<>() : null;
             for (RedisStoreMonitor monitor : redisStoreMonitors) {
-                report(monitor);
+                report(monitor, merged);
+            }
+            if (merged != null) {
+                List<MetricsSnapshot.CommandLatency> commandLatencies = new ArrayList<>(merged.size());
+                for (Map.Entry<String, CommandExecDetail.Interval> entry : merged.entrySet()) {
+                    String[] tokens = entry.getKey().split("\u0000", 3);
+                    CommandExecDetail.Interval interval = entry.getValue();
+                    commandLatencies.add(new MetricsSnapshot.CommandLatency(tokens[0], tokens[1], tokens[2], interval.command, interval.borrow));
+                }
+                MetricsExporters.export(commandLatencies);
             }
         } catch (Exception e) {
             LOGGER.error("Ops", e);
         }
     }
 
-    private void report(RedisStoreMonitor monitor) {
-        ConcurrentMap<String, CommandExecDetail> details = monitor.commandExecDetails.get();
-        if (!monitor.commandExecDetails.compareAndSet(details, new ConcurrentHashMap<>())) {
-            return;
+    private void report(RedisStoreMonitor monitor, Map<String, CommandExecDetail.Interval> merged) {
+        for (Map.Entry<String, CommandExecDetail> entry : monitor.commandExecDetails.entrySet()) {
+            String command = entry.getKey();
+            Map<String, CommandExecDetail.Interval> intervals = new TreeMap<>();
+            for (Map.Entry<String, CommandExecDetail.Latency> latency : entry.getValue().hostPortCommands.entrySet()) {
+                CommandExecDetail.Interval interval = latency.getValue().flip();
+                if (interval.command.getTotalCount() > 0) {
+                    intervals.put(latency.getKey(), interval);
+                    if (merged != null) {
+                        merge(merged, monitor.clusterName + "\u0000" + command + "\u0000" + latency.getKey(), interval);
+                    }
+                }
+            }
+            if (!intervals.isEmpty()) {
+                logMetrics(monitor, command, intervals);
+            }
         }
+    }
 
-        for (Map.Entry<String, CommandExecDetail> entry : details.entrySet()) {
-            String command = entry.getKey();
-            CommandExecDetail detail = entry.getValue();
-            ConcurrentMap<String, AtomicInteger[]> hostPortCommands = detail.hostPortCommands;
-            logMetrics(monitor, command, hostPortCommands);
+    private static void merge(Map<String, CommandExecDetail.Interval> merged, String key, CommandExecDetail.Interval interval) {
+        CommandExecDetail.Interval target = merged.get(key);
+        if (target == null) {
+            target = new CommandExecDetail.Interval();
+            merged.put(key, target);
         }
+        target.command.merge(interval.command);
+        target.borrow.merge(interval.borrow);
     }
 
-    private void logMetrics(RedisStoreMonitor monitor, String command, ConcurrentMap<String, AtomicInteger[]> hostPortCommands) {
+    private void logMetrics(RedisStoreMonitor monitor, String command, Map<String, CommandExecDetail.Interval> intervals) {
         Logger logger = getMonitorLogger(command, monitor.clusterName);
         logger.info("");
 
@@ -81,13 +99,21 @@ class Reporter implements Runnable {
         logger.info(DateFormatUtils.format(calendar, "yyyy-MM-dd HH:mm:ss"));
         logger.info(TITLE);
 
-        for (Map.Entry<String, AtomicInteger[]> entry : hostPortCommands.entrySet()) {
+        for (Map.Entry<String, CommandExecDetail.Interval> entry : intervals.entrySet()) {
             String hostPort = entry.getKey();
-            AtomicInteger[] counters = entry.getValue();
-            logger.info(String.format("%-70s", hostPort) + String.format(OUTPUT_FORMAT, (Object[]) counters));
+            LatencyHistogram latency = entry.getValue().command;
+            LatencyHistogram borrow = entry.getValue().borrow;
+            logger.info(String.format(OUTPUT_FORMAT, hostPort, latency.getTotalCount(),
+                    micros(latency.getValueAtPercentile(50)), micros(latency.getValueAtPercentile(90)),
+                    micros(latency.getValueAtPercentile(99)), micros(latency.getValueAtPercentile(99.9)), micros(latency.getMax()),
+                    micros(borrow.getValueAtPercentile(99)), micros(borrow.getMax())));
         }
     }
 
+    private static String micros(long nanos) {
+        return String.format("%.1f", nanos / 1000.0);
+    }
+
     private Logger getMonitorLogger(String command, String clusterName) {
         Logger logger = commandDetailLoggers.get(command);
         if (logger == null) {
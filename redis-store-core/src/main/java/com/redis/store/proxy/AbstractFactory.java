@@ -1,17 +1,27 @@
 package com.redis.store.proxy;
 
+import com.redis.store.cluster.Cluster;
 import com.redis.store.cluster.Node;
+import com.redis.store.cluster.NodeUtils;
+import com.redis.store.constants.MultiMasterWritePolicy;
 import com.redis.store.dao.IRedisDao;
 import com.redis.store.dao.IStoreDao;
 import com.redis.store.executor.IExecutor;
 import com.redis.store.monitor.RedisStoreMonitor;
+import org.apache.log4j.Logger;
 import redis.clients.jedis.JedisPubSub;
 
 import java.lang.reflect.InvocationHandler;
 import java.lang.reflect.Method;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
 
 
 /**
@@ -20,16 +30,31 @@ import java.util.concurrent.ConcurrentMap;
  */
 abstract class AbstractFactory implements InvocationHandler {
 
+    private static final Logger LOGGER = Logger.getLogger(AbstractFactory.class);
+
     private final RedisConfigStoreProxy configProxy;
 
     private final RedisInvocationListener redisInvocationListener;
 
     private final RedisStoreMonitor redisStoreMonitor;
 
+    private final HedgedRead hedgedRead;
+
+    private final ParallelWrite parallelWrite;
+
+    private final NearCache nearCache;
+
+    /** 归为写命令但不修改数据，不需要让near cache失效 */
+    private static final Set<String> NON_MUTATING_WRITES = new HashSet<>(Arrays.asList(
+            "publish", "subscribe", "psubscribe", "sdiff", "sinter", "sunion"));
+
     private static final Set<String> READ_METHODS;
 
     private static final Set<String> WRITE_METHODS;
 
+    /** 方法名到统计用命令名(小写)的映射，避免每次调用toLowerCase */
+    private static final Map<String, String> COMMAND_NAMES;
+
     private static final ConcurrentMap<String, Method> METHOD_CACHE = new ConcurrentHashMap<>();
 
     static {
@@ -82,7 +107,13 @@ abstract class AbstractFactory implements InvocationHandler {
             }
         }
 
+        Map<String, String> commandNames = new HashMap<>();
+        for (Method method : IStoreDao.class.getMethods()) {
+            commandNames.put(method.getName(), method.getName().toLowerCase());
+        }
+
         READ_METHODS = Collections.unmodifiableSet(readMethods);
+        COMMAND_NAMES = Collections.unmodifiableMap(commandNames);
         WRITE_METHODS = Collections.unmodifiableSet(writeMethods);
     }
 
@@ -90,6 +121,21 @@ abstract class AbstractFactory implements InvocationHandler {
         this.configProxy = configProxy;
         this.redisInvocationListener = listener;
         this.redisStoreMonitor = new RedisStoreMonitor(configProxy.getCluster().getName());
+        this.hedgedRead = HedgedRead.HEDGED_READ_SWITCH ? HedgedRead.of(configProxy.getCluster().getName()) : null;
+        this.parallelWrite = ParallelWrite.of(configProxy.getCluster().getName(), configProxy.getPoolConfig().getMaxTotal(), countMasters(configProxy.getCluster()));
+        this.nearCache = NearCache.NEAR_CACHE_SWITCH ? createNearCache(configProxy) : null;
+    }
+
+    /**
+     * 失效channel订阅失败时不开启near cache，否则其他JVM的写不会使本地缓存失效。
+     */
+    private static NearCache createNearCache(RedisConfigStoreProxy configProxy) {
+        try {
+            return NearCache.of(configProxy);
+        } catch (Exception e) {
+            LOGGER.error("the near cache is disabled, the cluster is:" + configProxy.getCluster().getName(), e);
+            return null;
+        }
     }
 
     @Override
@@ -99,85 +145,472 @@ abstract class AbstractFactory implements InvocationHandler {
         String hashKey = args[0].toString();
         Node node = configProxy.getNode(hashKey);
         if (READ_METHODS.contains(methodName)) {
-            return handleReadMethod(hashKey, node, method, args);
+            Object[] argsFrom = Arrays.copyOfRange(args, 1, args.length);
+            Method redisMethod = getRedisMethod(methodName, argsFrom);
+            return handleReadMethod(hashKey, node, COMMAND_NAMES.get(methodName), firstArg(argsFrom), dao -> redisMethod.invoke(dao, argsFrom));
         }
         if (WRITE_METHODS.contains(methodName)) {
-            return handWriteMethod(hashKey, node, method, args);
+            Object[] argsFrom = Arrays.copyOfRange(args, 1, args.length);
+            Method redisMethod = getRedisMethod(methodName, argsFrom);
+            return handWriteMethod(hashKey, node, COMMAND_NAMES.get(methodName), firstArg(argsFrom), dao -> redisMethod.invoke(dao, argsFrom));
         }
         throw new IllegalAccessException("Method [" + method.getName() + "] Not Exists");
     }
 
+    /**
+     * 读命令入口，供不经过反射的StoreDaoRouter直接调用。
+     */
+    <T, E extends Exception> T read(String hashKey, String command, Object key, RedisCallback<T, E> callback) throws E {
+        if (hashKey == null) {
+            throw new NullPointerException("hashKey");
+        }
+        Node node = configProxy.getNode(hashKey);
+        return handleReadMethod(hashKey, node, command, key, callback);
+    }
+
+    /**
+     * 可缓存的读命令入口，near cache未开启时等同于read。
+     */
+    @SuppressWarnings("unchecked")
+    <T, E extends Exception> T cachedRead(String hashKey, String command, String key, String field, RedisCallback<T, E> callback) throws E {
+        if (nearCache == null || hashKey == null || key == null) {
+            return read(hashKey, command, key, callback);
+        }
+        String variant = NearCache.variant(hashKey, command, field);
+        Object cached = nearCache.get(key, variant);
+        if (cached != null) {
+            redisStoreMonitor.recordNearCacheHit(command, key);
+            return NearCache.isNull(cached) ? null : (T) NearCache.copy(cached);
+        }
+        long stamp = nearCache.stamp(key);
+        T value = read(hashKey, command, key, callback);
+        nearCache.put(key, variant, stamp, value);
+        return value;
+    }
+
+    /**
+     * 写命令入口，供不经过反射的StoreDaoRouter直接调用。
+     */
+    <T, E extends Exception> T write(String hashKey, String command, Object key, RedisCallback<T, E> callback) throws E {
+        if (hashKey == null) {
+            throw new NullPointerException("hashKey");
+        }
+        Node node = configProxy.getNode(hashKey);
+        return handWriteMethod(hashKey, node, command, key, callback);
+    }
+
+    /**
+     * 多key写命令入口，near cache逐个失效keys，监控不记录key。
+     */
+    <T, E extends Exception> T writeKeys(String hashKey, String command, String[] keys, RedisCallback<T, E> callback) throws E {
+        if (hashKey == null) {
+            throw new NullPointerException("hashKey");
+        }
+        NodeRoute route = configProxy.getRoute(configProxy.getNode(hashKey));
+        return handWriteMethod(hashKey, route, route.nextSeed(), command, null, keys, callback);
+    }
+
+    /**
+     * mset参数中的key(偶数下标)。
+     */
+    static String[] msetKeys(String[] keysvalues) {
+        String[] keys = new String[keysvalues.length / 2];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = keysvalues[2 * i];
+        }
+        return keys;
+    }
+
     private void check(Object[] args) {
         if (args != null && args.length > 0 && args[0] == null) {
             throw new NullPointerException("hashKey");
         }
     }
 
-    private Object handleReadMethod(String hashKey, Node node, Method method, Object[] args) throws Throwable {
-        Object returnValue = null;
+    private static int countMasters(Cluster cluster) {
+        int masters = 0;
+        for (Node node : cluster.getNodeList()) {
+            masters += NodeUtils.getMasters(node).size();
+        }
+        return masters;
+    }
+
+    private static Object firstArg(Object[] argsFrom) {
+        if (argsFrom.length > 0 && (argsFrom[0] instanceof String || argsFrom[0] instanceof byte[])) {
+            return argsFrom[0];
+        }
+        return null;
+    }
+
+    private <T, E extends Exception> T handleReadMethod(String hashKey, Node node, String command, Object key, RedisCallback<T, E> callback) throws E {
+        NodeRoute route = configProxy.getRoute(node);
+        return handleReadMethod(hashKey, node, route, route.nextReadSeed(), command, key, callback);
+    }
+
+    private <T, E extends Exception> T handleReadMethod(String hashKey, Node node, NodeRoute route, int seed, String command, Object key,
+                                                        RedisCallback<T, E> callback) throws E {
+        int count = route.readCount(hashKey);
+        if (hedgedRead != null && count > 1) {
+            return handleHedgedRead(node, route, seed, count, command, key, callback);
+        }
+        return readFrom(route, seed, 0, count, command, key, callback);
+    }
+
+    private <T, E extends Exception> T readFrom(NodeRoute route, int seed, int start, int count, String command, Object key, RedisCallback<T, E> callback) throws E {
+        return readFrom(null, route, seed, start, count, command, key, callback);
+    }
 
-        Object[] argsFrom = Arrays.copyOfRange(args, 1, args.length);
-        Method redisMethod = getRedisMethod(method.getName(), argsFrom);
+    /**
+     * hedgeNode不为空时，成功读取的耗时同时计入该node的对冲阈值窗口。
+     */
+    private <T, E extends Exception> T readFrom(Node hedgeNode, NodeRoute route, int seed, int start, int count, String command, Object key,
+                                                RedisCallback<T, E> callback) throws E {
+        T returnValue = null;
 
-        List<IRedisDao> daoList = configProxy.getReadableRedisDaos(hashKey, node);
-        for (int i = 0; i < daoList.size(); i++) {
-            IRedisDao dao = daoList.get(i);
+        for (int i = start; i < count; i++) {
+            IRedisDao dao = route.readDao(seed, i);
 
-            long begin = System.currentTimeMillis();
+            long begin = RedisStoreMonitor.begin();
+            ReadLoad load = route.readLoad(seed, i);
+            long loadStart = load != null ? load.start() : 0;
+            returnValue = null;
             try {
-                returnValue = redisMethod.invoke(dao, argsFrom);
-                if (FailFast.getFailFastSwitch()) {
-                    FailFast.succeed(dao.getHostPort());
+                returnValue = callback.doInRedis(dao);
+                if (load != null) {
+                    load.end(loadStart, true);
                 }
-                if (redisInvocationListener != null) {
-                    redisInvocationListener.onComplete(dao.getHostPort());
+                onSucceed(dao);
+                if (hedgeNode != null) {
+                    hedgedRead.record(hedgeNode.getName(), System.nanoTime() - begin);
                 }
-
-                redisStoreMonitor.record(method.getName().toLowerCase(), argsFrom, returnValue, dao.getHostPort(), (int) (System.currentTimeMillis() - begin));
                 return returnValue;
             } catch (Exception e) {
-                if (FailFast.getFailFastSwitch()) {
-                    FailFast.fail(dao.getHostPort());
+                if (load != null) {
+                    load.end(loadStart, false);
                 }
-                if (i == daoList.size() - 1) {
+                onFail(dao);
+                if (i == count - 1) {
                     throw e;
                 }
+            } finally {
+                redisStoreMonitor.record(command, key, returnValue, dao.getHostPort(), System.nanoTime() - begin);
             }
         }
         return returnValue;
     }
 
-    private Object handWriteMethod(String hashKey, Node node, Method method, Object[] args) throws Throwable {
-        Object returnValue = null;
-
-        Object[] argsFrom = Arrays.copyOfRange(args, 1, args.length);
-        Method redisMethod = getRedisMethod(method.getName(), argsFrom);
+    /**
+     * 第一个实例在阈值内未返回且预算允许时，向第二个实例发送同一命令，先成功者为准；
+     * 已发出的请求都失败后，按原顺序在调用线程中继续尝试剩余实例。
+     * <p/>
+     * 只有预算中有令牌时才把第一个实例的读交给对冲线程池，否则在调用线程中直接读，大部分读没有线程切换。
+     */
+    @SuppressWarnings("unchecked")
+    private <T, E extends Exception> T handleHedgedRead(Node node, NodeRoute route, int seed, int count, String command, Object key,
+                                                        RedisCallback<T, E> callback) throws E {
+        hedgedRead.onRead();
+        if (!hedgedRead.hasBudget()) {
+            return readFrom(node, route, seed, 0, count, command, key, callback);
+        }
+        CompletableFuture<T> result = new CompletableFuture<>();
+        AtomicInteger pending = new AtomicInteger(1);
+        submitHedged(node, route, seed, 0, command, key, callback, result, pending);
+
+        int next = 1;
+        Throwable failure;
+        try {
+            return result.get(hedgedRead.thresholdNanos(node.getName()), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            // 第一个实例已失败时pending为0、result已失败，不再对冲，下面在调用线程中从第二个实例继续
+            if (hedgedRead.tryAcquire() && pending.getAndIncrement() > 0) {
+                submitHedged(node, route, seed, 1, command, key, callback, result, pending);
+                next = 2;
+            }
+            try {
+                return result.get();
+            } catch (ExecutionException ee) {
+                failure = ee.getCause();
+            } catch (InterruptedException ie) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("interrupted while waiting for the redis reply", ie);
+            }
+        } catch (ExecutionException e) {
+            failure = e.getCause();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("interrupted while waiting for the redis reply", e);
+        }
 
-        List<IRedisDao> daoList = this.configProxy.getShardWriteDao(hashKey);
-        for (int i = 0; i < daoList.size(); i++) {
-            long begin = System.currentTimeMillis();
+        if (next < count) {
+            return readFrom(route, seed, next, count, command, key, callback);
+        }
+        if (failure instanceof Error) {
+            throw (Error) failure;
+        }
+        // callback只会抛出E或RuntimeException
+        throw (E) failure;
+    }
 
-            IRedisDao dao = daoList.get(i);
+    /**
+     * 每次尝试(成功、失败或落后于另一个实例)都计入监控。
+     */
+    private <T> void submitHedged(Node node, NodeRoute route, int seed, int index, String command, Object key,
+                                  RedisCallback<T, ?> callback, CompletableFuture<T> result, AtomicInteger pending) {
+        IRedisDao dao = route.readDao(seed, index);
+        ReadLoad load = route.readLoad(seed, index);
+        hedgedRead.getExecutor().execute(() -> {
+            long begin = RedisStoreMonitor.begin();
+            long loadStart = load != null ? load.start() : 0;
+            T returnValue;
             try {
-                returnValue = redisMethod.invoke(dao, argsFrom);
-                if (FailFast.getFailFastSwitch()) {
-                    FailFast.succeed(dao.getHostPort());
+                returnValue = callback.doInRedis(dao);
+            } catch (Throwable e) {
+                if (load != null) {
+                    load.end(loadStart, false);
                 }
-                if (redisInvocationListener != null) {
-                    redisInvocationListener.onComplete(dao.getHostPort());
+                onFail(dao);
+                redisStoreMonitor.record(command, key, null, dao.getHostPort(), System.nanoTime() - begin);
+                if (pending.decrementAndGet() == 0) {
+                    result.completeExceptionally(e);
                 }
-            } catch (Exception e) {
-                if (FailFast.getFailFastSwitch()) {
-                    FailFast.fail(dao.getHostPort());
+                return;
+            }
+            long nanos = System.nanoTime() - begin;
+            if (load != null) {
+                load.end(loadStart, true);
+            }
+            onSucceed(dao);
+            hedgedRead.record(node.getName(), nanos);
+            redisStoreMonitor.record(command, key, returnValue, dao.getHostPort(), nanos);
+            result.complete(returnValue);
+        });
+    }
+
+    private <T, E extends Exception> T handWriteMethod(String hashKey, Node node, String command, Object key, RedisCallback<T, E> callback) throws E {
+        NodeRoute route = configProxy.getRoute(node);
+        return handWriteMethod(hashKey, route, route.nextSeed(), command, key, callback);
+    }
+
+    private <T, E extends Exception> T handWriteMethod(String hashKey, NodeRoute route, int seed, String command, Object key,
+                                                       RedisCallback<T, E> callback) throws E {
+        return handWriteMethod(hashKey, route, seed, command, key, null, callback);
+    }
+
+    /**
+     * keys不为空时near cache逐个失效keys，否则失效key(为null时清空)。
+     */
+    private <T, E extends Exception> T handWriteMethod(String hashKey, NodeRoute route, int seed, String command, Object key, String[] keys,
+                                                       RedisCallback<T, E> callback) throws E {
+        if (nearCache != null && !NON_MUTATING_WRITES.contains(command)) {
+            try {
+                return writeTo(hashKey, route, seed, command, key, callback);
+            } finally {
+                if (keys != null) {
+                    nearCache.invalidate(keys);
+                } else {
+                    nearCache.invalidate(key);
                 }
+            }
+        }
+        return writeTo(hashKey, route, seed, command, key, callback);
+    }
+
+    private <T, E extends Exception> T writeTo(String hashKey, NodeRoute route, int seed, String command, Object key,
+                                               RedisCallback<T, E> callback) throws E {
+        T returnValue = null;
+
+        int count = route.writeCount(hashKey);
+        MultiMasterWritePolicy policy = route.getWritePolicy();
+        if (count > 1 && policy != MultiMasterWritePolicy.SEQUENTIAL) {
+            return handleParallelWrite(route, seed, count, policy, command, key, callback);
+        }
+        for (int i = 0; i < count; i++) {
+            long begin = RedisStoreMonitor.begin();
+
+            IRedisDao dao = route.writeDao(seed, i);
+            try {
+                returnValue = callback.doInRedis(dao);
+                onSucceed(dao);
+            } catch (Exception e) {
+                onFail(dao);
                 throw e;
             } finally {
-                redisStoreMonitor.record(method.getName().toLowerCase(), argsFrom, returnValue, dao.getHostPort(), (int) (System.currentTimeMillis() - begin));
+                redisStoreMonitor.record(command, key, returnValue, dao.getHostPort(), System.nanoTime() - begin);
             }
         }
         return returnValue;
     }
 
+    /**
+     * MUILTI_MASTER并行写：其余master在线程池中执行，ALL策略下第一个master在调用线程中执行；
+     * 达到策略要求的成功数即返回，未完成的写在后台继续，失败记录日志。每个实例的结果都计入FailFast和监控。
+     */
+    @SuppressWarnings("unchecked")
+    private <T, E extends Exception> T handleParallelWrite(NodeRoute route, int seed, int count, MultiMasterWritePolicy policy,
+                                                           String command, Object key, RedisCallback<T, E> callback) throws E {
+        ParallelWrite.Acks<T> acks = new ParallelWrite.Acks<>(count, ParallelWrite.required(policy, count));
+        boolean inline = policy == MultiMasterWritePolicy.ALL;
+        for (int i = inline ? 1 : 0; i < count; i++) {
+            IRedisDao dao = route.writeDao(seed, i);
+            try {
+                parallelWrite.getExecutor().execute(() -> writeOne(dao, command, key, callback, acks));
+            } catch (RejectedExecutionException e) {
+                // 并行写线程已用尽，不是实例的问题，不计入FailFast
+                LOGGER.error("the parallel write is rejected, the hostPort is:" + dao.getHostPort(), e);
+                acks.fail(e);
+            }
+        }
+        if (inline) {
+            writeOne(route.writeDao(seed, 0), command, key, callback, acks);
+        }
+
+        try {
+            return acks.getResult().get();
+        } catch (ExecutionException e) {
+            Throwable failure = e.getCause();
+            if (failure instanceof Error) {
+                throw (Error) failure;
+            }
+            // callback只会抛出E或RuntimeException
+            throw (E) failure;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("interrupted while waiting for the redis reply", e);
+        }
+    }
+
+    private <T> void writeOne(IRedisDao dao, String command, Object key, RedisCallback<T, ?> callback, ParallelWrite.Acks<T> acks) {
+        long begin = RedisStoreMonitor.begin();
+        T returnValue = null;
+        try {
+            returnValue = callback.doInRedis(dao);
+            onSucceed(dao);
+            acks.succeed(returnValue);
+        } catch (Throwable e) {
+            onFail(dao);
+            if (acks.getResult().isDone()) {
+                LOGGER.error("fail to write to the master after the write is completed, the hostPort is:" + dao.getHostPort(), e);
+            }
+            acks.fail(e);
+        } finally {
+            redisStoreMonitor.record(command, key, returnValue, dao.getHostPort(), System.nanoTime() - begin);
+        }
+    }
+
+    /**
+     * 异步读命令入口：在dispatcher中按read的方式执行(对冲读、失败时依次尝试下一个可读实例)，占用第一个读实例的in-flight名额。
+     */
+    <T> CompletableFuture<T> readAsync(AsyncDispatcher dispatcher, String hashKey, String command, Object key, RedisCallback<T, ?> callback) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        try {
+            if (hashKey == null) {
+                throw new NullPointerException("hashKey");
+            }
+            Node node = configProxy.getNode(hashKey);
+            NodeRoute route = configProxy.getRoute(node);
+            int seed = route.nextReadSeed();
+            dispatcher.dispatch(route.readDao(seed, 0).getHostPort(), () -> {
+                try {
+                    future.complete(handleReadMethod(hashKey, node, route, seed, command, key, callback));
+                } catch (Throwable e) {
+                    future.completeExceptionally(e);
+                }
+            });
+        } catch (Exception e) {
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+
+    /**
+     * 可缓存的异步读命令入口，near cache命中时不经过dispatcher直接返回。
+     */
+    @SuppressWarnings("unchecked")
+    <T> CompletableFuture<T> cachedReadAsync(AsyncDispatcher dispatcher, String hashKey, String command, String key, String field,
+                                             RedisCallback<T, ?> callback) {
+        if (nearCache == null || hashKey == null || key == null) {
+            return readAsync(dispatcher, hashKey, command, key, callback);
+        }
+        String variant = NearCache.variant(hashKey, command, field);
+        Object cached = nearCache.get(key, variant);
+        if (cached != null) {
+            redisStoreMonitor.recordNearCacheHit(command, key);
+            return CompletableFuture.completedFuture(NearCache.isNull(cached) ? null : (T) NearCache.copy(cached));
+        }
+        long stamp = nearCache.stamp(key);
+        return readAsync(dispatcher, hashKey, command, key, callback).thenApply(value -> {
+            nearCache.put(key, variant, stamp, value);
+            return value;
+        });
+    }
+
+    /**
+     * 异步写命令入口：在dispatcher中按write的方式执行(并行写、near cache失效)，占用第一个写实例的in-flight名额。
+     */
+    <T> CompletableFuture<T> writeAsync(AsyncDispatcher dispatcher, String hashKey, String command, Object key, RedisCallback<T, ?> callback) {
+        return writeAsync(dispatcher, false, hashKey, command, key, null, callback);
+    }
+
+    /**
+     * 多key的异步写命令入口，near cache逐个失效keys，监控不记录key。
+     */
+    <T> CompletableFuture<T> writeKeysAsync(AsyncDispatcher dispatcher, String hashKey, String command, String[] keys, RedisCallback<T, ?> callback) {
+        return writeAsync(dispatcher, false, hashKey, command, null, keys, callback);
+    }
+
+    /**
+     * 阻塞或长时间占用连接的命令(blpop、subscribe)，按write的方式执行，但不占用实例的in-flight名额，见AsyncDispatcher.dispatchBlocking。
+     */
+    <T> CompletableFuture<T> blockingAsync(AsyncDispatcher dispatcher, String hashKey, String command, Object key, RedisCallback<T, ?> callback) {
+        return writeAsync(dispatcher, true, hashKey, command, key, null, callback);
+    }
+
+    <T> CompletableFuture<T> blockingKeysAsync(AsyncDispatcher dispatcher, String hashKey, String command, String[] keys, RedisCallback<T, ?> callback) {
+        return writeAsync(dispatcher, true, hashKey, command, null, keys, callback);
+    }
+
+    private <T> CompletableFuture<T> writeAsync(AsyncDispatcher dispatcher, boolean blocking, String hashKey, String command, Object key, String[] keys,
+                                                RedisCallback<T, ?> callback) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        try {
+            if (hashKey == null) {
+                throw new NullPointerException("hashKey");
+            }
+            NodeRoute route = configProxy.getRoute(configProxy.getNode(hashKey));
+            int seed = route.nextSeed();
+            Runnable task = () -> {
+                try {
+                    future.complete(handWriteMethod(hashKey, route, seed, command, key, keys, callback));
+                } catch (Throwable e) {
+                    future.completeExceptionally(e);
+                }
+            };
+            if (blocking) {
+                dispatcher.dispatchBlocking(task);
+            } else {
+                dispatcher.dispatch(route.writeDao(seed, 0).getHostPort(), task);
+            }
+        } catch (Exception e) {
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+
+    private void onSucceed(IRedisDao dao) {
+        if (FailFast.getFailFastSwitch()) {
+            FailFast.succeed(dao.getHostPort());
+        }
+        if (redisInvocationListener != null) {
+            redisInvocationListener.onComplete(dao.getHostPort());
+        }
+    }
+
+    private void onFail(IRedisDao dao) {
+        if (FailFast.getFailFastSwitch()) {
+            FailFast.fail(dao.getHostPort());
+        }
+    }
+
     private Method getRedisMethod(String nameFrom, Object[] argsFrom) throws Exception {
         StringBuilder methodSignBuilder = new StringBuilder(nameFrom);
         Class[] argsTypeFrom = new Class[argsFrom.length];
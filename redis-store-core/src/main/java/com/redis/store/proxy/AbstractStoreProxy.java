@@ -6,26 +6,31 @@ import com.redis.store.cluster.Node;
 import com.redis.store.cluster.NodeUtils;
 import com.redis.store.cluster.factory.AbstractClusterWrapper;
 import com.redis.store.constants.ClusterType;
+import com.redis.store.constants.Constants;
 import com.redis.store.constants.MasterSlaveStatus;
 import com.redis.store.constants.NodeStatus;
 import com.redis.store.constants.ReHashStatus;
+import com.redis.store.constants.RedisTransport;
 import com.redis.store.dao.HostPort;
 import com.redis.store.dao.IRedisDao;
+import com.redis.store.dao.InstrumentedJedisPool;
+import com.redis.store.dao.MultiplexedRedisDao;
 import com.redis.store.dao.SimpleRedisDao;
+import com.redis.store.dao.StripedJedisPool;
 import com.redis.store.hash.ClusterHashLocator;
+import com.redis.store.monitor.PoolMetrics;
 import com.redis.store.service.RedisStoreService;
 import com.redis.store.utils.ClientUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.log4j.Logger;
 import redis.clients.jedis.*;
-import redis.clients.jedis.exceptions.JedisConnectionException;
 
 import java.io.IOException;
 import java.util.ArrayList;
-import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
 
 import static com.redis.store.proxy.DefaultJedisPoolConfig.CONFIG_MEDIUM;
 
@@ -38,10 +43,20 @@ abstract class AbstractStoreProxy {
     private static final Logger LOGGER = Logger.getLogger(AbstractStoreProxy.class);
     private static final int DEFAULT_CONN_INIT_NUM = 10;
     private static final int CONFIG_LOAD_RETRY_NUM = 3;
+    private static final int MULTIPLEXED_CONNECTIONS = Integer.getInteger(Constants.REDIS_CONFIG_MULTIPLEXED_CONNECTIONS_KEY, 2);
+    /** 打开时使用StripedJedisPool代替GenericObjectPool，减少热点实例上借还连接的锁竞争 */
+    private static final boolean STRIPED_POOL_SWITCH = System.getProperty(Constants.REDIS_CONFIG_STRIPED_POOL_SWITCH_KEY, "off").equals("on");
+    /**
+     * 每个实例阻塞命令和订阅连接池的大小上限，同时阻塞的命令和订阅连接超过该值时等待maxWaitMillis后失败；
+     * 默认(小于0)与普通连接池的maxTotal相同，等于0时与普通命令共用连接池。
+     */
+    private static final int BLOCKING_POOL_MAX_TOTAL = Integer.getInteger(Constants.REDIS_CONFIG_BLOCKING_POOL_MAX_TOTAL_KEY, -1);
 
     static final Map<String, IRedisDao> REDIS_DAO_MAP = new ConcurrentHashMap<>();
     ClusterHashLocator hashLocator;
     Cluster cluster;
+    private volatile RoutingTable routingTable = RoutingTable.EMPTY;
+    private final Object routingTableLock = new Object();
     private AbstractClusterWrapper configWrapperProxy = null;
     private ReHashStatus status;
     private ClusterType clusterType;
@@ -50,9 +65,10 @@ abstract class AbstractStoreProxy {
     private JedisPoolConfig poolConfig;
     private int poolInitConnNum;
     private int timeout;
+    private RedisTransport transport;
 
 
-    AbstractStoreProxy(String clusterName, String password, JedisPoolConfig poolConfig, int poolInitConnNum, int timeout, ClusterType clusterType) {
+    AbstractStoreProxy(String clusterName, String password, JedisPoolConfig poolConfig, int poolInitConnNum, int timeout, ClusterType clusterType, RedisTransport transport) {
         if (StringUtils.isEmpty(clusterName)) {
             throw new IllegalArgumentException("cluster name is empty.");
         }
@@ -73,6 +89,7 @@ abstract class AbstractStoreProxy {
         this.poolInitConnNum = poolInitConnNum;
         this.password = password;
         this.timeout = timeout;
+        this.transport = transport == null ? RedisTransport.POOLED : transport;
 
         try {
             init();
@@ -137,8 +154,15 @@ abstract class AbstractStoreProxy {
                     jedis.close();
                 }
 
-                IRedisDao dao = new SimpleRedisDao(pool).setHostPort(hostport);
+                Supplier<JedisPool> blockingPool = () -> buildBlockingJedisPool(hostport.getHost(), hostport.getPort(), pool);
+                IRedisDao dao;
+                if (transport == RedisTransport.MULTIPLEXED) {
+                    dao = new MultiplexedRedisDao(pool, blockingPool, hostport, StringUtils.isNotBlank(password) ? password : null, timeout, MULTIPLEXED_CONNECTIONS);
+                } else {
+                    dao = new SimpleRedisDao(pool, blockingPool).setHostPort(hostport);
+                }
                 REDIS_DAO_MAP.put(hostPort, dao);
+                onRedisDaoChanged();
             } catch (Exception ex) {
                 LOGGER.error("fail to create redis dao:" + hostPort, ex);
             }
@@ -159,14 +183,29 @@ abstract class AbstractStoreProxy {
     }
 
     private JedisPool buildJedisPool(String host, int port) {
-        if (StringUtils.isNotBlank(password)) {
-            return new JedisPool(poolConfig, host, port, timeout, password);
-        } else {
-            return new JedisPool(poolConfig, host, port, timeout);
+        String auth = StringUtils.isNotBlank(password) ? password : null;
+        if (STRIPED_POOL_SWITCH) {
+            return new StripedJedisPool(poolConfig, host, port, timeout, auth);
         }
+        return new InstrumentedJedisPool(poolConfig, host, port, timeout, auth);
     }
 
 
+    /**
+     * 阻塞命令的连接池在第一次阻塞命令或订阅时创建，不预先建立连接，大小见BLOCKING_POOL_MAX_TOTAL，其它配置与普通连接池相同。
+     */
+    private JedisPool buildBlockingJedisPool(String host, int port, JedisPool pool) {
+        if (BLOCKING_POOL_MAX_TOTAL == 0) {
+            return pool;
+        }
+        int maxTotal = BLOCKING_POOL_MAX_TOTAL > 0 ? BLOCKING_POOL_MAX_TOTAL : poolConfig.getMaxTotal();
+        JedisPoolConfig blockingConfig = (JedisPoolConfig) poolConfig.clone();
+        blockingConfig.setMaxTotal(maxTotal);
+        blockingConfig.setMaxIdle(maxTotal);
+        blockingConfig.setMinIdle(0);
+        return new InstrumentedJedisPool(blockingConfig, host, port, timeout, StringUtils.isNotBlank(password) ? password : null, PoolMetrics.BLOCKING_POOL);
+    }
+
     public synchronized void initCluster(Cluster cluster) {
         LOGGER.info("start to init the cluster redis pool . the cluster name is" + cluster.getName());
         for (Node node : cluster.getNodeList()) {
@@ -184,8 +223,32 @@ abstract class AbstractStoreProxy {
     public synchronized void clusterRehash() {
         LOGGER.info("start to rehash for the cluster...the cluster name is:" + cluster.getName());
         this.hashLocator = new ClusterHashLocator(this.cluster, this.cluster.getShardStrategy());
+        rebuildRoutingTable();
+    }
+
+    /**
+     * 重新生成路由快照。拓扑、实例状态、连接池或FailFast列表变化后调用，读写路径只读取快照，不再逐次计算实例列表。
+     * <p/>
+     * 使用单独的锁而不是synchronized，避免与持有本对象锁的initJedisPool互相等待。
+     */
+    public void rebuildRoutingTable() {
+        synchronized (routingTableLock) {
+            Cluster current = this.cluster;
+            if (current != null) {
+                this.routingTable = RoutingTable.build(current);
+            }
+        }
     }
 
+    NodeRoute getRoute(Node node) {
+        return routingTable.get(node);
+    }
+
+    /**
+     * REDIS_DAO_MAP为所有集群共享，连接池增删后需要重建所有集群的路由快照。
+     */
+    abstract void onRedisDaoChanged();
+
     public synchronized Cluster loadClusterConfig() {
         Cluster newCluster = null;
         for (int i = 0; i < CONFIG_LOAD_RETRY_NUM; i++) {
@@ -212,6 +275,9 @@ abstract class AbstractStoreProxy {
 
     public void removeJedisPoolByHostPort(String hostPort) {
         IRedisDao redisDao = REDIS_DAO_MAP.remove(hostPort);
+        if (redisDao != null) {
+            onRedisDaoChanged();
+        }
         this.removeJedisPoolByRedisDao(redisDao);
     }
 
@@ -222,27 +288,21 @@ abstract class AbstractStoreProxy {
         }
     }
 
+    /**
+     * 实例的连接池重建后，把旧IRedisDao登记的订阅转移到新的IRedisDao。旧的订阅连接已随destroy关闭，
+     * 新的IRedisDao用自己的订阅连接恢复全部channel和pattern。
+     */
     public void resumePubsubChannels(Instance newInstance, IRedisDao redisDao) {
-        Map<JedisPubSub, String[]> pubSubChanelMap = redisDao.getJedisPubsubMap();
-        if (pubSubChanelMap == null || pubSubChanelMap.size() == 0)
-            return;
-        Iterator<Map.Entry<JedisPubSub, String[]>> iterable = pubSubChanelMap.entrySet().iterator();
         IRedisDao redisDaoNew = REDIS_DAO_MAP.get(newInstance.findHostPort());
-        Map.Entry<JedisPubSub, String[]> entry = null;
-        while (iterable.hasNext()) {
-            try {
-                entry = iterable.next();
-                if (entry == null || entry.getKey() == null) {//for safe
-                    iterable.remove();
-                    continue;
-                }
-                entry.getKey().unsubscribe();
-            } catch (JedisConnectionException e) {
-                LOGGER.error("unsubscribe failed, hostPort is: " + redisDao.getHostPort(), e);
-                pubSubChanelMap.remove(entry.getKey());
-            }
+        if (redisDaoNew == null || redisDaoNew == redisDao) {
+            return;
+        }
+        for (Map.Entry<JedisPubSub, String[]> entry : redisDao.getJedisPubsubMap().entrySet()) {
             redisDaoNew.subscribe(entry.getKey(), entry.getValue());
         }
+        for (Map.Entry<JedisPubSub, String[]> entry : redisDao.getJedisPsubscribeMap().entrySet()) {
+            redisDaoNew.psubscribe(entry.getKey(), entry.getValue());
+        }
     }
 
     public Cluster getCluster() {
@@ -253,6 +313,10 @@ abstract class AbstractStoreProxy {
         this.cluster = cluster;
     }
 
+    public JedisPoolConfig getPoolConfig() {
+        return poolConfig;
+    }
+
     public ReHashStatus getStatus() {
         return status;
     }
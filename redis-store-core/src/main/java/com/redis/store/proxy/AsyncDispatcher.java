@@ -0,0 +1,157 @@
+package com.redis.store.proxy;
+
+import com.redis.store.service.NamedThreadFactory;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 异步命令的执行器：每个实例(host:port)同时执行的命令数不超过maxInFlight，
+ * 超出的命令在该实例的队列中排队，不占用线程；排队数超过maxPending时直接拒绝。
+ * <p/>
+ * 同一集群、同一maxInFlight的异步dao共用一个执行器(见of)，线程池不随dao的创建而增加。
+ * <p/>
+ * 普通命令最多由MAX_THREADS个线程执行；blpop、subscribe等阻塞命令由单独的线程池执行(见dispatchBlocking)，
+ * 不占用in-flight名额，同时执行的阻塞命令不超过MAX_BLOCKING_THREADS。
+ */
+class AsyncDispatcher {
+
+    static final int DEFAULT_MAX_IN_FLIGHT = 32;
+
+    static final int DEFAULT_MAX_PENDING = 4096;
+
+    static final int MAX_THREADS = 64;
+
+    static final int MAX_BLOCKING_THREADS = 64;
+
+    private static final ConcurrentMap<String, AsyncDispatcher> ASYNC_DISPATCHERS = new ConcurrentHashMap<>();
+
+    private final ThreadPoolExecutor executor;
+
+    private final ThreadPoolExecutor blockingExecutor;
+
+    private final int maxInFlight;
+
+    private final int maxPending;
+
+    private final ConcurrentMap<String, InstanceQueue> instanceQueues = new ConcurrentHashMap<>();
+
+    private AsyncDispatcher(String clusterName, int maxInFlight, int maxPending) {
+        if (maxInFlight <= 0 || maxPending <= 0) {
+            throw new IllegalArgumentException("maxInFlight and maxPending must be positive");
+        }
+        this.maxInFlight = maxInFlight;
+        this.maxPending = maxPending;
+        // 交给executor的命令已占用实例的in-flight名额，队列长度受maxInFlight * 实例数约束；空闲线程60s后回收
+        this.executor = new ThreadPoolExecutor(MAX_THREADS, MAX_THREADS, 60, TimeUnit.SECONDS, new LinkedBlockingQueue<>(),
+                new NamedThreadFactory("AsyncStoreDao-" + clusterName, true));
+        this.executor.allowCoreThreadTimeOut(true);
+        this.blockingExecutor = new ThreadPoolExecutor(0, MAX_BLOCKING_THREADS, 60, TimeUnit.SECONDS, new SynchronousQueue<>(),
+                new NamedThreadFactory("AsyncStoreDao-blocking-" + clusterName, true));
+    }
+
+    static AsyncDispatcher of(String clusterName, int maxInFlight) {
+        String key = clusterName + "#" + maxInFlight;
+        AsyncDispatcher dispatcher = ASYNC_DISPATCHERS.get(key);
+        if (dispatcher == null) {
+            dispatcher = new AsyncDispatcher(clusterName, maxInFlight, DEFAULT_MAX_PENDING);
+            AsyncDispatcher _dispatcher = ASYNC_DISPATCHERS.putIfAbsent(key, dispatcher);
+            if (_dispatcher != null) {
+                dispatcher.executor.shutdown();
+                dispatcher.blockingExecutor.shutdown();
+                dispatcher = _dispatcher;
+            }
+        }
+        return dispatcher;
+    }
+
+    void dispatch(String hostPort, Runnable task) {
+        InstanceQueue queue = instanceQueues.get(hostPort);
+        if (queue == null) {
+            queue = new InstanceQueue(hostPort);
+            InstanceQueue _queue = instanceQueues.putIfAbsent(hostPort, queue);
+            if (_queue != null) {
+                queue = _queue;
+            }
+        }
+        queue.offer(task);
+    }
+
+    /**
+     * 阻塞命令直接交给阻塞线程池，不排队；阻塞线程用尽时抛出RejectedExecutionException。
+     */
+    void dispatchBlocking(Runnable task) {
+        blockingExecutor.execute(task);
+    }
+
+    int getInFlight(String hostPort) {
+        InstanceQueue queue = instanceQueues.get(hostPort);
+        return queue == null ? 0 : queue.inFlight.get();
+    }
+
+    int getPending(String hostPort) {
+        InstanceQueue queue = instanceQueues.get(hostPort);
+        return queue == null ? 0 : queue.pendingCount.get();
+    }
+
+    private final class InstanceQueue {
+
+        private final String hostPort;
+
+        private final Queue<Runnable> pending = new ConcurrentLinkedQueue<>();
+
+        private final AtomicInteger pendingCount = new AtomicInteger(0);
+
+        private final AtomicInteger inFlight = new AtomicInteger(0);
+
+        private InstanceQueue(String hostPort) {
+            this.hostPort = hostPort;
+        }
+
+        private void offer(Runnable task) {
+            if (pendingCount.incrementAndGet() > maxPending) {
+                pendingCount.decrementAndGet();
+                throw new RejectedExecutionException("too many pending redis commands, the hostPort is:" + hostPort);
+            }
+            pending.offer(task);
+            drain();
+        }
+
+        /**
+         * 每次入队和每次命令结束后调用，保证不会有命令停留在队列中而实例空闲。
+         */
+        private void drain() {
+            while (true) {
+                int current = inFlight.get();
+                if (current >= maxInFlight || pending.isEmpty()) {
+                    return;
+                }
+                if (!inFlight.compareAndSet(current, current + 1)) {
+                    continue;
+                }
+                Runnable task = pending.poll();
+                if (task == null) {
+                    inFlight.decrementAndGet();
+                    continue;
+                }
+                pendingCount.decrementAndGet();
+                executor.execute(() -> {
+                    try {
+                        task.run();
+                    } finally {
+                        inFlight.decrementAndGet();
+                        drain();
+                    }
+                });
+            }
+        }
+    }
+}
@@ -0,0 +1,672 @@
+package com.redis.store.proxy;
+
+import com.redis.store.dao.IAsyncStoreDao;
+import com.redis.store.executor.IExecutor;
+import org.apache.commons.lang3.tuple.Pair;
+import redis.clients.jedis.*;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * IAsyncStoreDao的实现，与StoreDaoRouter一样由IStoreDao与READ_METHODS生成，命令交给AsyncDispatcher执行。
+ */
+final class AsyncStoreDaoRouter implements IAsyncStoreDao {
+
+    private final AbstractFactory factory;
+
+    private final AsyncDispatcher dispatcher;
+
+    AsyncStoreDaoRouter(AbstractFactory factory, AsyncDispatcher dispatcher) {
+        this.factory = factory;
+        this.dispatcher = dispatcher;
+    }
+
+    @Override
+    public CompletableFuture<List<String>> blpop(String hashKey, String key, int timeout) {
+        return factory.blockingAsync(dispatcher, hashKey, "blpop", key, dao -> dao.blpop(key, timeout));
+    }
+
+    @Override
+    public CompletableFuture<List<String>> blpop(String hashKey, int timeout, String... keys) {
+        return factory.blockingKeysAsync(dispatcher, hashKey, "blpop", keys, dao -> dao.blpop(timeout, keys));
+    }
+
+    @Override
+    public CompletableFuture<Long> del(String hashKey, String key) {
+        return factory.writeAsync(dispatcher, hashKey, "del", key, dao -> dao.del(key));
+    }
+
+    @Override
+    public CompletableFuture<byte[]> dump(String hashKey, byte[] key) {
+        return factory.writeAsync(dispatcher, hashKey, "dump", key, dao -> dao.dump(key));
+    }
+
+    @Override
+    public CompletableFuture<Boolean> exists(String hashKey, String key) {
+        return factory.readAsync(dispatcher, hashKey, "exists", key, dao -> dao.exists(key));
+    }
+
+    @Override
+    public CompletableFuture<String> rename(String hashKey, String key, String newKey) {
+        return factory.writeAsync(dispatcher, hashKey, "rename", key, dao -> dao.rename(key, newKey));
+    }
+
+    @Override
+    public CompletableFuture<Long> renamenx(String hashKey, String key, String newKey) {
+        return factory.writeAsync(dispatcher, hashKey, "renamenx", key, dao -> dao.renamenx(key, newKey));
+    }
+
+    @Override
+    public CompletableFuture<String> restore(String hashKey, byte[] key, int ttl, byte[] serializedValue) {
+        return factory.writeAsync(dispatcher, hashKey, "restore", key, dao -> dao.restore(key, ttl, serializedValue));
+    }
+
+    @Override
+    public CompletableFuture<Long> expire(String hashKey, String key, int seconds) {
+        return factory.writeAsync(dispatcher, hashKey, "expire", key, dao -> dao.expire(key, seconds));
+    }
+
+    @Override
+    public CompletableFuture<Long> expire(String hashKey, byte[] key, int seconds) {
+        return factory.writeAsync(dispatcher, hashKey, "expire", key, dao -> dao.expire(key, seconds));
+    }
+
+    @Override
+    public CompletableFuture<String> get(String hashKey, String key) {
+        return factory.cachedReadAsync(dispatcher, hashKey, "get", key, null, dao -> dao.get(key));
+    }
+
+    @Override
+    public CompletableFuture<byte[]> get(String hashKey, byte[] key) {
+        return factory.readAsync(dispatcher, hashKey, "get", key, dao -> dao.get(key));
+    }
+
+    @Override
+    public CompletableFuture<Long> hdel(String hashKey, String key, String fields) {
+        return factory.writeAsync(dispatcher, hashKey, "hdel", key, dao -> dao.hdel(key, fields));
+    }
+
+    @Override
+    public CompletableFuture<String> hget(String hashKey, String key, String field) {
+        return factory.cachedReadAsync(dispatcher, hashKey, "hget", key, field, dao -> dao.hget(key, field));
+    }
+
+    @Override
+    public CompletableFuture<Boolean> hexists(String hashKey, String key, String field) {
+        return factory.readAsync(dispatcher, hashKey, "hexists", key, dao -> dao.hexists(key, field));
+    }
+
+    @Override
+    public CompletableFuture<Map<String, String>> hgetAll(String hashKey, String key) {
+        return factory.cachedReadAsync(dispatcher, hashKey, "hgetall", key, null, dao -> dao.hgetAll(key));
+    }
+
+    @Override
+    public CompletableFuture<Long> hinc(String hashKey, String key, String field, long val) {
+        return factory.writeAsync(dispatcher, hashKey, "hinc", key, dao -> dao.hinc(key, field, val));
+    }
+
+    @Override
+    public CompletableFuture<Double> hincrByFloat(String hashKey, byte[] key, byte[] field, double increment) {
+        return factory.writeAsync(dispatcher, hashKey, "hincrbyfloat", key, dao -> dao.hincrByFloat(key, field, increment));
+    }
+
+    @Override
+    public CompletableFuture<Set<String>> hkeys(String hashKey, String key) {
+        return factory.readAsync(dispatcher, hashKey, "hkeys", key, dao -> dao.hkeys(key));
+    }
+
+    @Override
+    public CompletableFuture<Long> hlen(String hashKey, String key) {
+        return factory.readAsync(dispatcher, hashKey, "hlen", key, dao -> dao.hlen(key));
+    }
+
+    @Override
+    public CompletableFuture<List<String>> hmget(String hashKey, String key, String... fields) {
+        return factory.readAsync(dispatcher, hashKey, "hmget", key, dao -> dao.hmget(key, fields));
+    }
+
+    @Override
+    public CompletableFuture<String> hmset(String hashKey, String key, Map<String, String> map) {
+        return factory.writeAsync(dispatcher, hashKey, "hmset", key, dao -> dao.hmset(key, map));
+    }
+
+    @Override
+    public CompletableFuture<Long> hset(String hashKey, String key, String field, String val) {
+        return factory.writeAsync(dispatcher, hashKey, "hset", key, dao -> dao.hset(key, field, val));
+    }
+
+    @Override
+    public CompletableFuture<Long> inc(String hashKey, String key, long val) {
+        return factory.writeAsync(dispatcher, hashKey, "inc", key, dao -> dao.inc(key, val));
+    }
+
+    @Override
+    public CompletableFuture<Double> incrByFloat(String hashKey, byte[] key, double increment) {
+        return factory.writeAsync(dispatcher, hashKey, "incrbyfloat", key, dao -> dao.incrByFloat(key, increment));
+    }
+
+    @Override
+    public CompletableFuture<Long> decr(String hashKey, String key, long val) {
+        return factory.writeAsync(dispatcher, hashKey, "decr", key, dao -> dao.decr(key, val));
+    }
+
+    @Override
+    public CompletableFuture<byte[]> lindex(String hashKey, byte[] key, int i) {
+        return factory.readAsync(dispatcher, hashKey, "lindex", key, dao -> dao.lindex(key, i));
+    }
+
+    @Override
+    public CompletableFuture<String> lindex(String hashKey, String key, int i) {
+        return factory.readAsync(dispatcher, hashKey, "lindex", key, dao -> dao.lindex(key, i));
+    }
+
+    @Override
+    public CompletableFuture<Long> llen(String hashKey, byte[] key) {
+        return factory.readAsync(dispatcher, hashKey, "llen", key, dao -> dao.llen(key));
+    }
+
+    @Override
+    public CompletableFuture<Long> llen(String hashKey, String key) {
+        return factory.readAsync(dispatcher, hashKey, "llen", key, dao -> dao.llen(key));
+    }
+
+    @Override
+    public CompletableFuture<byte[]> lpop(String hashKey, byte[] key) {
+        return factory.writeAsync(dispatcher, hashKey, "lpop", key, dao -> dao.lpop(key));
+    }
+
+    @Override
+    public CompletableFuture<String> lpop(String hashKey, String key) {
+        return factory.writeAsync(dispatcher, hashKey, "lpop", key, dao -> dao.lpop(key));
+    }
+
+    @Override
+    public CompletableFuture<Long> lpush(String hashKey, byte[] key, byte[] val) {
+        return factory.writeAsync(dispatcher, hashKey, "lpush", key, dao -> dao.lpush(key, val));
+    }
+
+    @Override
+    public CompletableFuture<Long> lpush(String hashKey, String key, String val) {
+        return factory.writeAsync(dispatcher, hashKey, "lpush", key, dao -> dao.lpush(key, val));
+    }
+
+    @Override
+    public CompletableFuture<List<String>> lrange(String hashKey, String key, int start, int end) {
+        return factory.readAsync(dispatcher, hashKey, "lrange", key, dao -> dao.lrange(key, start, end));
+    }
+
+    @Override
+    public CompletableFuture<Long> lrem(String hashKey, String key, long count, String value) {
+        return factory.writeAsync(dispatcher, hashKey, "lrem", key, dao -> dao.lrem(key, count, value));
+    }
+
+    @Override
+    public CompletableFuture<String> ltrim(String hashKey, String key, long start, long end) {
+        return factory.writeAsync(dispatcher, hashKey, "ltrim", key, dao -> dao.ltrim(key, start, end));
+    }
+
+    @Override
+    public CompletableFuture<List<String>> mget(String hashKey, String... keys) {
+        return factory.readAsync(dispatcher, hashKey, "mget", null, dao -> dao.mget(keys));
+    }
+
+    @Override
+    public CompletableFuture<String> mset(String hashKey, String... keysvalues) {
+        return factory.writeKeysAsync(dispatcher, hashKey, "mset", AbstractFactory.msetKeys(keysvalues), dao -> dao.mset(keysvalues));
+    }
+
+    @Override
+    public CompletableFuture<String> psetex(String hashKey, byte[] key, int milliseconds, byte[] value) {
+        return factory.writeAsync(dispatcher, hashKey, "psetex", key, dao -> dao.psetex(key, milliseconds, value));
+    }
+
+    @Override
+    public CompletableFuture<Long> publish(String hashKey, String channel, String message) {
+        return factory.writeAsync(dispatcher, hashKey, "publish", channel, dao -> dao.publish(channel, message));
+    }
+
+    @Override
+    public CompletableFuture<byte[]> rpop(String hashKey, byte[] key) {
+        return factory.writeAsync(dispatcher, hashKey, "rpop", key, dao -> dao.rpop(key));
+    }
+
+    @Override
+    public CompletableFuture<String> rpop(String hashKey, String key) {
+        return factory.writeAsync(dispatcher, hashKey, "rpop", key, dao -> dao.rpop(key));
+    }
+
+    @Override
+    public CompletableFuture<Long> rpush(String hashKey, byte[] key, byte[] val) {
+        return factory.writeAsync(dispatcher, hashKey, "rpush", key, dao -> dao.rpush(key, val));
+    }
+
+    @Override
+    public CompletableFuture<Long> rpush(String hashKey, String key, String val) {
+        return factory.writeAsync(dispatcher, hashKey, "rpush", key, dao -> dao.rpush(key, val));
+    }
+
+    @Override
+    public CompletableFuture<Long> sadd(String hashKey, String key, String val) {
+        return factory.writeAsync(dispatcher, hashKey, "sadd", key, dao -> dao.sadd(key, val));
+    }
+
+    @Override
+    public CompletableFuture<Long> sadd(String hashKey, String key, String[] members) {
+        return factory.writeAsync(dispatcher, hashKey, "sadd", key, dao -> dao.sadd(key, members));
+    }
+
+    @Override
+    public CompletableFuture<Long> scard(String hashKey, String key) {
+        return factory.readAsync(dispatcher, hashKey, "scard", key, dao -> dao.scard(key));
+    }
+
+    @Override
+    public CompletableFuture<String> set(String hashKey, String key, String val) {
+        return factory.writeAsync(dispatcher, hashKey, "set", key, dao -> dao.set(key, val));
+    }
+
+    @Override
+    public CompletableFuture<String> set(String hashKey, byte[] key, byte[] val) {
+        return factory.writeAsync(dispatcher, hashKey, "set", key, dao -> dao.set(key, val));
+    }
+
+    @Override
+    public CompletableFuture<String> set(String hashKey, String key, String val, int expireSecond) {
+        return factory.writeAsync(dispatcher, hashKey, "set", key, dao -> dao.set(key, val, expireSecond));
+    }
+
+    @Override
+    public CompletableFuture<Long> setnx(String hashKey, String key, String val) {
+        return factory.writeAsync(dispatcher, hashKey, "setnx", key, dao -> dao.setnx(key, val));
+    }
+
+    @Override
+    public CompletableFuture<Boolean> sismember(String hashKey, String key, String val) {
+        return factory.readAsync(dispatcher, hashKey, "sismember", key, dao -> dao.sismember(key, val));
+    }
+
+    @Override
+    public CompletableFuture<Set<String>> smembers(String hashKey, String key) {
+        return factory.cachedReadAsync(dispatcher, hashKey, "smembers", key, null, dao -> dao.smembers(key));
+    }
+
+    @Override
+    public CompletableFuture<String> spop(String hashKey, String key) {
+        return factory.writeAsync(dispatcher, hashKey, "spop", key, dao -> dao.spop(key));
+    }
+
+    @Override
+    public CompletableFuture<String> srandmember(String hashKey, String key) {
+        return factory.readAsync(dispatcher, hashKey, "srandmember", key, dao -> dao.srandmember(key));
+    }
+
+    @Override
+    public CompletableFuture<Long> srem(String hashKey, String key, String val) {
+        return factory.writeAsync(dispatcher, hashKey, "srem", key, dao -> dao.srem(key, val));
+    }
+
+    @Override
+    public CompletableFuture<Void> pipeline(String hashKey, IExecutor<Pipeline> executor) {
+        return factory.writeAsync(dispatcher, hashKey, "pipeline", null, dao -> {
+            dao.pipeline(executor);
+            return null;
+        });
+    }
+
+    @Override
+    public CompletableFuture<Void> pipeline(String hashKey, IExecutor<Pair<Pipeline, List<String>>> executor, List<String> keys) {
+        return factory.writeKeysAsync(dispatcher, hashKey, "pipeline", keys.toArray(new String[keys.size()]), dao -> {
+            dao.pipeline(executor, keys);
+            return null;
+        });
+    }
+
+    @Override
+    public CompletableFuture<Void> subscribe(String hashKey, JedisPubSub jedisPubSub, String... channel) {
+        return factory.blockingAsync(dispatcher, hashKey, "subscribe", null, dao -> {
+            dao.subscribe(jedisPubSub, channel);
+            return null;
+        });
+    }
+
+    @Override
+    public CompletableFuture<Long> ttl(String hashKey, String key) {
+        return factory.readAsync(dispatcher, hashKey, "ttl", key, dao -> dao.ttl(key));
+    }
+
+    @Override
+    public CompletableFuture<Long> zadd(String hashKey, String key, double score, String member) {
+        return factory.writeAsync(dispatcher, hashKey, "zadd", key, dao -> dao.zadd(key, score, member));
+    }
+
+    @Override
+    public CompletableFuture<Long> zadd(String hashKey, String key, Map<String, Double> scoreMembers) {
+        return factory.writeAsync(dispatcher, hashKey, "zadd", key, dao -> dao.zadd(key, scoreMembers));
+    }
+
+    @Override
+    public CompletableFuture<Long> zcard(String hashKey, String key) {
+        return factory.readAsync(dispatcher, hashKey, "zcard", key, dao -> dao.zcard(key));
+    }
+
+    @Override
+    public CompletableFuture<Long> zcount(String hashKey, String key, double min, double max) {
+        return factory.readAsync(dispatcher, hashKey, "zcount", key, dao -> dao.zcount(key, min, max));
+    }
+
+    @Override
+    public CompletableFuture<Double> zincrby(String hashKey, String key, double increment, String member) {
+        return factory.writeAsync(dispatcher, hashKey, "zincrby", key, dao -> dao.zincrby(key, increment, member));
+    }
+
+    @Override
+    public CompletableFuture<Set<String>> zrange(String hashkey, String key, int start, int stop) {
+        return factory.writeAsync(dispatcher, hashkey, "zrange", key, dao -> dao.zrange(key, start, stop));
+    }
+
+    @Override
+    @Deprecated
+    public CompletableFuture<Set<String>> zrangeByOffset(String hashKey, String key, int offset, int count) {
+        return factory.readAsync(dispatcher, hashKey, "zrangebyoffset", key, dao -> dao.zrangeByOffset(key, offset, count));
+    }
+
+    @Override
+    @Deprecated
+    public CompletableFuture<Set<Tuple>> zrangeByOffsetWithScores(String hashKey, String key, int offset, int count) {
+        return factory.readAsync(dispatcher, hashKey, "zrangebyoffsetwithscores", key, dao -> dao.zrangeByOffsetWithScores(key, offset, count));
+    }
+
+    @Override
+    public CompletableFuture<Set<Tuple>> zrangeWithScores(String hashKey, String key, int start, int end) {
+        return factory.readAsync(dispatcher, hashKey, "zrangewithscores", key, dao -> dao.zrangeWithScores(key, start, end));
+    }
+
+    @Override
+    public CompletableFuture<Set<Tuple>> zrangeByScore(String hashKey, String key, double min, double max) {
+        return factory.readAsync(dispatcher, hashKey, "zrangebyscore", key, dao -> dao.zrangeByScore(key, min, max));
+    }
+
+    @Override
+    public CompletableFuture<Set<Tuple>> zrangeByScore(String hashKey, String key, double min, double max, int offset, int count) {
+        return factory.readAsync(dispatcher, hashKey, "zrangebyscore", key, dao -> dao.zrangeByScore(key, min, max, offset, count));
+    }
+
+    @Override
+    public CompletableFuture<Set<Tuple>> zrangeByScore(String hashKey, byte[] key, double min, double max, int offset, int count) {
+        return factory.readAsync(dispatcher, hashKey, "zrangebyscore", key, dao -> dao.zrangeByScore(key, min, max, offset, count));
+    }
+
+    @Override
+    public CompletableFuture<Long> zrank(String hashKey, String key, String member) {
+        return factory.readAsync(dispatcher, hashKey, "zrank", key, dao -> dao.zrank(key, member));
+    }
+
+    @Override
+    public CompletableFuture<Long> zrem(String hashKey, String key, String member) {
+        return factory.writeAsync(dispatcher, hashKey, "zrem", key, dao -> dao.zrem(key, member));
+    }
+
+    @Override
+    public CompletableFuture<Long> zremrangeByScore(String hashKey, String key, double start, double end) {
+        return factory.writeAsync(dispatcher, hashKey, "zremrangebyscore", key, dao -> dao.zremrangeByScore(key, start, end));
+    }
+
+    @Override
+    public CompletableFuture<Long> zremrangebyrank(String hashkey, String key, long start, long stop) {
+        return factory.writeAsync(dispatcher, hashkey, "zremrangebyrank", key, dao -> dao.zremrangebyrank(key, start, stop));
+    }
+
+    @Override
+    public CompletableFuture<Long> zremrangebyrank(String hashKey, byte[] key, long start, long end) {
+        return factory.writeAsync(dispatcher, hashKey, "zremrangebyrank", key, dao -> dao.zremrangebyrank(key, start, end));
+    }
+
+    @Override
+    public CompletableFuture<Set<String>> zrevrangeV2(String hashKey, String key, int start, int end) {
+        return factory.readAsync(dispatcher, hashKey, "zrevrangev2", key, dao -> dao.zrevrangeV2(key, start, end));
+    }
+
+    @Override
+    public CompletableFuture<Set<Tuple>> zrevrangeByOffsetWithScores(String hashKey, String key, int offset, int count) {
+        return factory.writeAsync(dispatcher, hashKey, "zrevrangebyoffsetwithscores", key, dao -> dao.zrevrangeByOffsetWithScores(key, offset, count));
+    }
+
+    @Override
+    public CompletableFuture<Set<Tuple>> zrevrangeWithScore(String hashKey, String key, int startIdx, int endIdx) {
+        return factory.readAsync(dispatcher, hashKey, "zrevrangewithscore", key, dao -> dao.zrevrangeWithScore(key, startIdx, endIdx));
+    }
+
+    @Override
+    public CompletableFuture<Set<String>> zrevrangeByScore(String hashkey, String key, double max, double min) {
+        return factory.readAsync(dispatcher, hashkey, "zrevrangebyscore", key, dao -> dao.zrevrangeByScore(key, max, min));
+    }
+
+    @Override
+    public CompletableFuture<Set<Tuple>> zrevrangeByScoreWithScores(String hashKey, String key, double max, double min) {
+        return factory.readAsync(dispatcher, hashKey, "zrevrangebyscorewithscores", key, dao -> dao.zrevrangeByScoreWithScores(key, max, min));
+    }
+
+    @Override
+    public CompletableFuture<Set<String>> zrevrangeByScore(String hashkey, String key, double max, double min, int offset, int count) {
+        return factory.readAsync(dispatcher, hashkey, "zrevrangebyscore", key, dao -> dao.zrevrangeByScore(key, max, min, offset, count));
+    }
+
+    @Override
+    public CompletableFuture<Set<Tuple>> zrevrangeByScoreWithScores(String hashKey, String key, double max, double min, int offset, int count) {
+        return factory.readAsync(dispatcher, hashKey, "zrevrangebyscorewithscores", key, dao -> dao.zrevrangeByScoreWithScores(key, max, min, offset, count));
+    }
+
+    @Override
+    public CompletableFuture<Double> zscore(String hashKey, String key, String member) {
+        return factory.readAsync(dispatcher, hashKey, "zscore", key, dao -> dao.zscore(key, member));
+    }
+
+    @Override
+    public CompletableFuture<Boolean> setbit(String hashKey, String key, long offset, boolean value) {
+        return factory.writeAsync(dispatcher, hashKey, "setbit", key, dao -> dao.setbit(key, offset, value));
+    }
+
+    @Override
+    public CompletableFuture<Boolean> getbit(String hashKey, String key, long offset) {
+        return factory.readAsync(dispatcher, hashKey, "getbit", key, dao -> dao.getbit(key, offset));
+    }
+
+    @Override
+    public CompletableFuture<String> getSet(String hashKey, String key, String val) {
+        return factory.writeAsync(dispatcher, hashKey, "getset", key, dao -> dao.getSet(key, val));
+    }
+
+    @Override
+    public CompletableFuture<Long> persist(String hashKey, byte[] key) {
+        return factory.writeAsync(dispatcher, hashKey, "persist", key, dao -> dao.persist(key));
+    }
+
+    @Override
+    public CompletableFuture<Long> pexpire(String hashKey, byte[] key, int milliseconds) {
+        return factory.writeAsync(dispatcher, hashKey, "pexpire", key, dao -> dao.pexpire(key, milliseconds));
+    }
+
+    @Override
+    public CompletableFuture<Long> pexpireAt(String hashKey, byte[] key, long millisecondsTimestamp) {
+        return factory.writeAsync(dispatcher, hashKey, "pexpireat", key, dao -> dao.pexpireAt(key, millisecondsTimestamp));
+    }
+
+    @Override
+    public CompletableFuture<Long> pttl(String hashKey, byte[] key) {
+        return factory.writeAsync(dispatcher, hashKey, "pttl", key, dao -> dao.pttl(key));
+    }
+
+    @Override
+    public CompletableFuture<List<byte[]>> hvals(String hashKey, byte[] key) {
+        return factory.writeAsync(dispatcher, hashKey, "hvals", key, dao -> dao.hvals(key));
+    }
+
+    @Override
+    public CompletableFuture<List<String>> hvals(String hashKey, String key) {
+        return factory.writeAsync(dispatcher, hashKey, "hvals", key, dao -> dao.hvals(key));
+    }
+
+    @Override
+    public CompletableFuture<Long> append(String hashKey, byte[] key, byte[] val) {
+        return factory.writeAsync(dispatcher, hashKey, "append", key, dao -> dao.append(key, val));
+    }
+
+    @Override
+    public CompletableFuture<Long> bitcount(String hashKey, byte[] key, long start, long end) {
+        return factory.writeAsync(dispatcher, hashKey, "bitcount", key, dao -> dao.bitcount(key, start, end));
+    }
+
+    @Override
+    public CompletableFuture<Long> bitop(String hashKey, BitOP op, byte[] destKey, byte[]... srcKeys) {
+        return factory.writeAsync(dispatcher, hashKey, "bitop", destKey, dao -> dao.bitop(op, destKey, srcKeys));
+    }
+
+    @Override
+    public CompletableFuture<Long> linsert(String hashKey, byte[] key, BinaryClient.LIST_POSITION listPosition, byte[] pivot, byte[] value) {
+        return factory.writeAsync(dispatcher, hashKey, "linsert", key, dao -> dao.linsert(key, listPosition, pivot, value));
+    }
+
+    @Override
+    public CompletableFuture<Long> lpushx(String hashKey, byte[] key, byte[] val) {
+        return factory.writeAsync(dispatcher, hashKey, "lpushx", key, dao -> dao.lpushx(key, val));
+    }
+
+    @Override
+    public CompletableFuture<String> lset(String hashKey, byte[] key, int index, byte[] value) {
+        return factory.writeAsync(dispatcher, hashKey, "lset", key, dao -> dao.lset(key, index, value));
+    }
+
+    @Override
+    public CompletableFuture<Long> rpushx(String hashKey, byte[] key, byte[] val) {
+        return factory.writeAsync(dispatcher, hashKey, "rpushx", key, dao -> dao.rpushx(key, val));
+    }
+
+    @Override
+    public CompletableFuture<Long> setrange(String hashKey, byte[] key, long offset, byte[] val) {
+        return factory.writeAsync(dispatcher, hashKey, "setrange", key, dao -> dao.setrange(key, offset, val));
+    }
+
+    @Override
+    public CompletableFuture<Long> strlen(String hashKey, byte[] key) {
+        return factory.writeAsync(dispatcher, hashKey, "strlen", key, dao -> dao.strlen(key));
+    }
+
+    @Override
+    public CompletableFuture<Long> smove(String hashKey, byte[] srckey, byte[] dstkey, byte[] member) {
+        return factory.writeAsync(dispatcher, hashKey, "smove", srckey, dao -> dao.smove(srckey, dstkey, member));
+    }
+
+    @Override
+    public CompletableFuture<String> type(String hashKey, byte[] key) {
+        return factory.writeAsync(dispatcher, hashKey, "type", key, dao -> dao.type(key));
+    }
+
+    @Override
+    public CompletableFuture<Long> zinterstore(String hashKey, byte[] dstkey, byte[]... sets) {
+        return factory.writeAsync(dispatcher, hashKey, "zinterstore", dstkey, dao -> dao.zinterstore(dstkey, sets));
+    }
+
+    @Override
+    public CompletableFuture<Long> zinterstore(String hashKey, byte[] dstkey, ZParams zParams, byte[]... sets) {
+        return factory.writeAsync(dispatcher, hashKey, "zinterstore", dstkey, dao -> dao.zinterstore(dstkey, zParams, sets));
+    }
+
+    @Override
+    public CompletableFuture<Set<byte[]>> sdiff(String hashKey, byte[]... keys) {
+        return factory.writeAsync(dispatcher, hashKey, "sdiff", null, dao -> dao.sdiff(keys));
+    }
+
+    @Override
+    public CompletableFuture<Long> sdiffstore(String hashKey, byte[] dstkey, byte[]... keys) {
+        return factory.writeAsync(dispatcher, hashKey, "sdiffstore", dstkey, dao -> dao.sdiffstore(dstkey, keys));
+    }
+
+    @Override
+    public CompletableFuture<Set<byte[]>> sinter(String hashKey, byte[]... keys) {
+        return factory.writeAsync(dispatcher, hashKey, "sinter", null, dao -> dao.sinter(keys));
+    }
+
+    @Override
+    public CompletableFuture<Set<byte[]>> sunion(String hashKey, byte[]... keys) {
+        return factory.writeAsync(dispatcher, hashKey, "sunion", null, dao -> dao.sunion(keys));
+    }
+
+    @Override
+    public CompletableFuture<Long> zunionstore(String hashKey, byte[] dstkey, byte[]... sets) {
+        return factory.writeAsync(dispatcher, hashKey, "zunionstore", dstkey, dao -> dao.zunionstore(dstkey, sets));
+    }
+
+    @Override
+    public CompletableFuture<Long> zunionstore(String hashKey, byte[] dstkey, ZParams zParams, byte[]... sets) {
+        return factory.writeAsync(dispatcher, hashKey, "zunionstore", dstkey, dao -> dao.zunionstore(dstkey, zParams, sets));
+    }
+
+    @Override
+    public CompletableFuture<Object> eval(String hashKey, byte[] script, byte[] keyCount, byte[][] params) {
+        return factory.writeAsync(dispatcher, hashKey, "eval", script, dao -> dao.eval(script, keyCount, params));
+    }
+
+    @Override
+    public CompletableFuture<String> scriptLoad(String hashkey, String script) {
+        return factory.writeAsync(dispatcher, hashkey, "scriptload", script, dao -> dao.scriptLoad(script));
+    }
+
+    @Override
+    public CompletableFuture<Object> evalsha(String hashKey, String script, int keyCount, String... params) {
+        return factory.writeAsync(dispatcher, hashKey, "evalsha", script, dao -> dao.evalsha(script, keyCount, params));
+    }
+
+    @Override
+    public CompletableFuture<String> getrange(String hashKey, byte[] key, long startOffset, long endOffset) {
+        return factory.writeAsync(dispatcher, hashKey, "getrange", key, dao -> dao.getrange(key, startOffset, endOffset));
+    }
+
+    @Override
+    public CompletableFuture<byte[]> rpoplpush(String hashKey, byte[] key, byte[] dest) {
+        return factory.writeAsync(dispatcher, hashKey, "rpoplpush", key, dao -> dao.rpoplpush(key, dest));
+    }
+
+    @Override
+    public CompletableFuture<Boolean> hsetnx(String hashKey, String key, String field, String value) {
+        return factory.writeAsync(dispatcher, hashKey, "hsetnx", key, dao -> dao.hsetnx(key, field, value));
+    }
+
+    @Override
+    public CompletableFuture<Long> sinterstore(String hashKey, String destination, String... keys) {
+        return factory.writeAsync(dispatcher, hashKey, "sinterstore", destination, dao -> dao.sinterstore(destination, keys));
+    }
+
+    @Override
+    public CompletableFuture<Long> sunionstore(String hashKey, String destination, String... keys) {
+        return factory.writeAsync(dispatcher, hashKey, "sunionstore", destination, dao -> dao.sunionstore(destination, keys));
+    }
+
+    @Override
+    public CompletableFuture<Long> zrevrank(String hashKey, byte[] key, byte[] member) {
+        return factory.writeAsync(dispatcher, hashKey, "zrevrank", key, dao -> dao.zrevrank(key, member));
+    }
+
+    @Override
+    public CompletableFuture<List<String>> sort(String hashkey, String key) {
+        return factory.writeAsync(dispatcher, hashkey, "sort", key, dao -> dao.sort(key));
+    }
+
+    @Override
+    public CompletableFuture<List<String>> sort(String hashkey, String key, SortingParams sortingParams) {
+        return factory.writeAsync(dispatcher, hashkey, "sort", key, dao -> dao.sort(key, sortingParams));
+    }
+
+    @Override
+    public CompletableFuture<Long> sort(String hashkey, String key, SortingParams sortingParams, String dstkey) {
+        return factory.writeAsync(dispatcher, hashkey, "sort", key, dao -> dao.sort(key, sortingParams, dstkey));
+    }
+
+    @Override
+    public CompletableFuture<Long> sort(String hashkey, String key, String dstkey) {
+        return factory.writeAsync(dispatcher, hashkey, "sort", key, dao -> dao.sort(key, dstkey));
+    }
+}
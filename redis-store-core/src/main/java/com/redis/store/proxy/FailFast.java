@@ -23,6 +23,7 @@ public class FailFast {
 
     private static ConcurrentHashMap<String, Counter> failFastCounterMap = new ConcurrentHashMap<>();
     private static CopyOnWriteArrayList<String> failList = new CopyOnWriteArrayList<>();
+    private static final CopyOnWriteArrayList<StateListener> STATE_LISTENERS = new CopyOnWriteArrayList<>();
 
     static {
         LOGGER.info("the failFast param is:[" +
@@ -93,6 +94,27 @@ public class FailFast {
         return failList.contains(hostPort);
     }
 
+    /**
+     * 实例进入或退出failFast列表时回调，用于重建路由快照。
+     */
+    public interface StateListener {
+        void onStateChanged(String hostPort, boolean failFast);
+    }
+
+    public static void addStateListener(StateListener listener) {
+        STATE_LISTENERS.addIfAbsent(listener);
+    }
+
+    private static void fireStateChanged(String hostPort, boolean failFast) {
+        for (StateListener listener : STATE_LISTENERS) {
+            try {
+                listener.onStateChanged(hostPort, failFast);
+            } catch (Exception e) {
+                LOGGER.error("fail to notify the failFast state change, hostPort:" + hostPort, e);
+            }
+        }
+    }
+
     public static void start() {
         ScheduledExecutorService es = Executors.newScheduledThreadPool(2);
         es.scheduleAtFixedRate(new CheckFailTask(failFastCounterMap, failList), CHECK_FAIL_TASK_DELAY, CHECK_FAIL_TASK_PERIOD, TimeUnit.SECONDS);
@@ -120,7 +142,9 @@ public class FailFast {
 
                 if (fail >= FAIL_FAST_COUNT_THRESHOLD && ((double) fail / (double) (fail + succeed) > FAIL_FAST_RATIO_THRESHOLD)) {
                     LOGGER.error("add to failFast list fail: hostPort " + entry.getKey());
-                    failList.addIfAbsent(entry.getKey());
+                    if (failList.addIfAbsent(entry.getKey())) {
+                        fireStateChanged(entry.getKey(), true);
+                    }
                 }
                 entry.getValue().succeed.set(0);
                 entry.getValue().fail.set(0);
@@ -144,13 +168,15 @@ public class FailFast {
                         boolean ping = redisDao.ping();
                         if (ping) {
                             LOGGER.error(String.format("fail fast succeed: hostPort:%s", hostPort));
-                            failList.remove(hostPort);
+                            if (failList.remove(hostPort)) {
+                                fireStateChanged(hostPort, false);
+                            }
                         }
                     } catch (Exception e) {
                         LOGGER.error("failFast check fail:" + hostPort, e);
                     }
-                } else {
-                    failList.remove(hostPort);
+                } else if (failList.remove(hostPort)) {
+                    fireStateChanged(hostPort, false);
                 }
             }
 
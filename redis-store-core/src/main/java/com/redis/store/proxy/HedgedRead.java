@@ -0,0 +1,171 @@
+package com.redis.store.proxy;
+
+import com.redis.store.constants.Constants;
+import com.redis.store.service.NamedThreadFactory;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 对冲读(hedged read)的集群级状态：执行线程池、对冲预算和每个node的触发阈值。
+ * <p/>
+ * 开关为系统属性config.hedged.read.switch=on。首个实例在阈值(该node上一秒读延迟的p95)内未返回时，
+ * 向同node的下一个可读实例发送同一命令，先返回者为准。每次读命令增加budgetPercent/100个令牌，
+ * 每次对冲消耗1个，因此对冲数不超过读命令数的budgetPercent%(默认5%)。
+ */
+final class HedgedRead {
+
+    static final boolean HEDGED_READ_SWITCH = System.getProperty(Constants.REDIS_CONFIG_HEDGED_READ_SWITCH_KEY, "off").equals("on");
+
+    private static final int BUDGET_PERCENT = Integer.getInteger(Constants.REDIS_CONFIG_HEDGED_READ_BUDGET_KEY, 5);
+
+    /** 令牌以1/100为单位，最多积攒10次对冲 */
+    private static final long MAX_BUDGET = 10 * 100;
+
+    private static final long MIN_THRESHOLD_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private static final long DEFAULT_THRESHOLD_NANOS = TimeUnit.MILLISECONDS.toNanos(20);
+
+    private static final ConcurrentMap<String, HedgedRead> HEDGED_READS = new ConcurrentHashMap<>();
+
+    private final ExecutorService executor;
+
+    private final AtomicLong budget = new AtomicLong(0);
+
+    private final AtomicLong hedges = new AtomicLong(0);
+
+    private final ConcurrentMap<String, LatencyWindow> latencyWindows = new ConcurrentHashMap<>();
+
+    private HedgedRead(String clusterName) {
+        this.executor = Executors.newCachedThreadPool(new NamedThreadFactory("HedgedRead-" + clusterName, true));
+    }
+
+    static HedgedRead of(String clusterName) {
+        HedgedRead hedgedRead = HEDGED_READS.get(clusterName);
+        if (hedgedRead == null) {
+            hedgedRead = new HedgedRead(clusterName);
+            HedgedRead _hedgedRead = HEDGED_READS.putIfAbsent(clusterName, hedgedRead);
+            if (_hedgedRead != null) {
+                hedgedRead.executor.shutdown();
+                hedgedRead = _hedgedRead;
+            }
+        }
+        return hedgedRead;
+    }
+
+    ExecutorService getExecutor() {
+        return executor;
+    }
+
+    void onRead() {
+        while (true) {
+            long current = budget.get();
+            if (current >= MAX_BUDGET || budget.compareAndSet(current, Math.min(current + BUDGET_PERCENT, MAX_BUDGET))) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * 只判断预算是否足够一次对冲，不消耗令牌。
+     */
+    boolean hasBudget() {
+        return budget.get() >= 100;
+    }
+
+    boolean tryAcquire() {
+        while (true) {
+            long current = budget.get();
+            if (current < 100) {
+                return false;
+            }
+            if (budget.compareAndSet(current, current - 100)) {
+                hedges.incrementAndGet();
+                return true;
+            }
+        }
+    }
+
+    long getHedges() {
+        return hedges.get();
+    }
+
+    long thresholdNanos(String nodeName) {
+        return window(nodeName).thresholdNanos;
+    }
+
+    void record(String nodeName, long nanos) {
+        window(nodeName).record(nanos);
+    }
+
+    private LatencyWindow window(String nodeName) {
+        LatencyWindow window = latencyWindows.get(nodeName);
+        if (window == null) {
+            window = new LatencyWindow();
+            LatencyWindow _window = latencyWindows.putIfAbsent(nodeName, window);
+            if (_window != null) {
+                window = _window;
+            }
+        }
+        return window;
+    }
+
+    /**
+     * 按微秒取2的幂分桶的一秒窗口，窗口结束时用其p95(桶上界)作为下一秒的阈值。
+     */
+    private static final class LatencyWindow {
+
+        private static final int BUCKETS = 25;
+
+        private static final long WINDOW_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+        private static final int MIN_SAMPLES = 20;
+
+        private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+
+        private volatile long windowStart = System.nanoTime();
+
+        private volatile long thresholdNanos = DEFAULT_THRESHOLD_NANOS;
+
+        private void record(long nanos) {
+            long micros = Math.max(nanos / 1000, 1);
+            int bucket = Math.min(63 - Long.numberOfLeadingZeros(micros), BUCKETS - 1);
+            counts.incrementAndGet(bucket);
+
+            long now = System.nanoTime();
+            if (now - windowStart >= WINDOW_NANOS) {
+                rotate(now);
+            }
+        }
+
+        private synchronized void rotate(long now) {
+            if (now - windowStart < WINDOW_NANOS) {
+                return;
+            }
+            windowStart = now;
+            long[] snapshot = new long[BUCKETS];
+            long total = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                snapshot[i] = counts.getAndSet(i, 0);
+                total += snapshot[i];
+            }
+            if (total < MIN_SAMPLES) {
+                return;
+            }
+            long rank = (long) Math.ceil(total * 0.95);
+            long seen = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                seen += snapshot[i];
+                if (seen >= rank) {
+                    thresholdNanos = Math.max(TimeUnit.MICROSECONDS.toNanos(1L << (i + 1)), MIN_THRESHOLD_NANOS);
+                    return;
+                }
+            }
+        }
+    }
+}
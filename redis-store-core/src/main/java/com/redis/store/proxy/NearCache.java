@@ -0,0 +1,232 @@
+package com.redis.store.proxy;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.redis.store.cluster.Node;
+import com.redis.store.constants.Constants;
+import com.redis.store.dao.IRedisDao;
+import com.redis.store.service.NamedThreadFactory;
+import org.apache.log4j.Logger;
+import redis.clients.jedis.JedisPubSub;
+import redis.clients.util.SafeEncoder;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 进程内的读缓存(near cache)，只缓存String key的get/hget/hgetAll/smembers。
+ * <p/>
+ * 开关为系统属性config.near.cache.switch=on，容量(redis key数)和TTL分别由config.near.cache.max.size、
+ * config.near.cache.ttl.ms配置，超出容量时按LRU淘汰。经过本客户端的写命令会删除本地缓存，
+ * 并在集群的失效channel上publish该key，其他JVM收到后删除各自的缓存；多key写命令(mset、del、blpop等)逐个失效各key，
+ * 只有无法得知key的写命令(不带keys的pipeline、IShardedBatch)清空整个缓存。其他客户端绕过本组件的写只能等TTL过期。
+ * <p/>
+ * 失效channel固定在按名称排序的第一个node的写实例上，与分片策略无关；订阅失败时不开启near cache(of抛出异常)。
+ */
+final class NearCache {
+
+    private static final Logger LOGGER = Logger.getLogger(NearCache.class);
+
+    static final boolean NEAR_CACHE_SWITCH = System.getProperty(Constants.REDIS_CONFIG_NEAR_CACHE_SWITCH_KEY, "off").equals("on");
+
+    private static final long MAX_SIZE = Long.getLong(Constants.REDIS_CONFIG_NEAR_CACHE_MAX_SIZE_KEY, 10000);
+
+    private static final long TTL_MILLIS = Long.getLong(Constants.REDIS_CONFIG_NEAR_CACHE_TTL_KEY, 60000);
+
+    private static final String CHANNEL_PREFIX = "__near_cache_invalidate__:";
+
+    private static final String ALL_KEYS = "*";
+
+    /** 缓存值为null时的占位对象 */
+    private static final Object NULL = new Object();
+
+    private static final int STRIPES = 1024;
+
+    private static final Map<String, NearCache> NEAR_CACHES = new HashMap<>();
+
+    private final RedisConfigStoreProxy configProxy;
+
+    private final String channel;
+
+    /** redis key -> (hashKey + 命令 + field) -> 值 */
+    private final Cache<String, ConcurrentMap<String, Object>> cache;
+
+    /** 按key分段的失效版本号，读回源期间发生失效时丢弃回源结果 */
+    private final AtomicLongArray stamps = new AtomicLongArray(STRIPES);
+
+    private final ThreadPoolExecutor publisher;
+
+    private NearCache(RedisConfigStoreProxy configProxy) {
+        String clusterName = configProxy.getCluster().getName();
+        this.configProxy = configProxy;
+        this.channel = CHANNEL_PREFIX + clusterName;
+        this.cache = CacheBuilder.newBuilder()
+                .maximumSize(MAX_SIZE)
+                .expireAfterWrite(TTL_MILLIS, TimeUnit.MILLISECONDS)
+                .build();
+        this.publisher = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(10000),
+                new NamedThreadFactory("NearCachePublisher-" + clusterName, true),
+                (task, executor) -> LOGGER.error("too many pending near cache invalidations, the cluster is:" + clusterName));
+        try {
+            subscribe();
+        } catch (RuntimeException e) {
+            publisher.shutdown();
+            throw e;
+        }
+    }
+
+    static synchronized NearCache of(RedisConfigStoreProxy configProxy) {
+        String clusterName = configProxy.getCluster().getName();
+        NearCache nearCache = NEAR_CACHES.get(clusterName);
+        if (nearCache == null) {
+            nearCache = new NearCache(configProxy);
+            NEAR_CACHES.put(clusterName, nearCache);
+        }
+        return nearCache;
+    }
+
+    static String variant(String hashKey, String command, String field) {
+        return field == null ? hashKey + '\0' + command : hashKey + '\0' + command + '\0' + field;
+    }
+
+    /**
+     * @return 未命中时返回null，命中null值时返回NULL
+     */
+    Object get(String key, String variant) {
+        ConcurrentMap<String, Object> values = cache.getIfPresent(key);
+        return values == null ? null : values.get(variant);
+    }
+
+    static boolean isNull(Object value) {
+        return value == NULL;
+    }
+
+    long stamp(String key) {
+        return stamps.get(stripe(key));
+    }
+
+    void put(String key, String variant, long stamp, Object value) {
+        ConcurrentMap<String, Object> values = cache.getIfPresent(key);
+        if (values == null) {
+            values = new ConcurrentHashMap<>();
+            ConcurrentMap<String, Object> _values = cache.asMap().putIfAbsent(key, values);
+            if (_values != null) {
+                values = _values;
+            }
+        }
+        values.put(variant, value == null ? NULL : freeze(value));
+        // 先写入再检查，与invalidate的先加版本号再删除配合，保证不会留下失效前读到的值
+        if (stamps.get(stripe(key)) != stamp) {
+            values.remove(variant);
+        }
+    }
+
+    /**
+     * 写命令完成后调用，key为null时清空整个缓存。
+     */
+    void invalidate(Object key) {
+        String message = key == null ? ALL_KEYS : key instanceof byte[] ? SafeEncoder.encode((byte[]) key) : key.toString();
+        invalidateLocal(message);
+        publish(new String[]{message});
+    }
+
+    /**
+     * 多key写命令完成后调用，逐个失效各key，在一次publish任务中依次发出。
+     */
+    void invalidate(String[] keys) {
+        for (String key : keys) {
+            invalidateLocal(key);
+        }
+        publish(keys);
+    }
+
+    private void publish(String[] messages) {
+        publisher.execute(() -> {
+            try {
+                IRedisDao dao = channelDao();
+                for (String message : messages) {
+                    dao.publish(channel, message);
+                }
+            } catch (Exception e) {
+                LOGGER.error("fail to publish the near cache invalidation, the channel is:" + channel, e);
+            }
+        });
+    }
+
+    private void invalidateLocal(String key) {
+        if (ALL_KEYS.equals(key)) {
+            for (int i = 0; i < STRIPES; i++) {
+                stamps.incrementAndGet(i);
+            }
+            cache.invalidateAll();
+            return;
+        }
+        stamps.incrementAndGet(stripe(key));
+        cache.invalidate(key);
+    }
+
+    private void subscribe() {
+        try {
+            channelDao().subscribe(new JedisPubSub() {
+                @Override
+                public void onMessage(String channel, String message) {
+                    invalidateLocal(message);
+                }
+            }, channel);
+        } catch (Exception e) {
+            throw new IllegalStateException("fail to subscribe the near cache invalidation channel:" + channel, e);
+        }
+    }
+
+    /**
+     * 按名称排序的第一个node的写实例，各JVM选到同一个node，不经过hashLocator(REGION、MOD等策略无法按channel名定位)。
+     */
+    private IRedisDao channelDao() {
+        Node first = null;
+        for (Node node : configProxy.getCluster().getNodeList()) {
+            if (first == null || node.getName().compareTo(first.getName()) < 0) {
+                first = node;
+            }
+        }
+        if (first == null) {
+            throw new IllegalStateException("there is no node in the cluster, the channel is:" + channel);
+        }
+        return configProxy.getRoute(first).writeDaos(channel).get(0);
+    }
+
+    private static int stripe(String key) {
+        return (key.hashCode() & 0x7fffffff) % STRIPES;
+    }
+
+    /**
+     * 缓存中保存不可变副本，返回给调用方时再复制，调用方修改返回值不会影响缓存。
+     */
+    private static Object freeze(Object value) {
+        if (value instanceof Map) {
+            return Collections.unmodifiableMap(new HashMap<>((Map<?, ?>) value));
+        }
+        if (value instanceof Set) {
+            return Collections.unmodifiableSet(new HashSet<>((Set<?>) value));
+        }
+        return value;
+    }
+
+    static Object copy(Object value) {
+        if (value instanceof Map) {
+            return new HashMap<>((Map<?, ?>) value);
+        }
+        if (value instanceof Set) {
+            return new HashSet<>((Set<?>) value);
+        }
+        return value;
+    }
+}
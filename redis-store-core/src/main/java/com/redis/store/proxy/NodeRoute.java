@@ -0,0 +1,236 @@
+package com.redis.store.proxy;
+
+import com.redis.store.cluster.Instance;
+import com.redis.store.cluster.Node;
+import com.redis.store.cluster.NodeUtils;
+import com.redis.store.constants.MultiMasterWritePolicy;
+import com.redis.store.constants.NodeReadStrategy;
+import com.redis.store.constants.NodeWriteStrategy;
+import com.redis.store.dao.IRedisDao;
+import com.redis.store.util.JsonUtils;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * 单个node预先解析好的读写实例，创建后不可变。
+ * <p/>
+ * 与NodeUtils.findReadInstance/findWriteInstances的选择规则相同，区别是不在每次调用时shuffle：
+ * 调用方取一个随机seed，从reads的第seed个开始轮转，readFallbacks(如SLAVES策略下追加的master)按seed取一个。
+ * FailFast中的实例和没有连接池的实例在创建时已被过滤。
+ */
+final class NodeRoute {
+
+    private static final IRedisDao[] EMPTY = new IRedisDao[0];
+
+    private final Node node;
+
+    private final IRedisDao[] reads;
+
+    private final ReadLoad[] readLoads;
+
+    private final boolean rotateReads;
+
+    private final IRedisDao[] readFallbacks;
+
+    private final IRedisDao[] writes;
+
+    private final boolean randomWrite;
+
+    private final MultiMasterWritePolicy writePolicy;
+
+    private final int readableInstances;
+
+    private final String failFasts;
+
+    private NodeRoute(Node node, IRedisDao[] reads, ReadLoad[] readLoads, boolean rotateReads, IRedisDao[] readFallbacks,
+                      IRedisDao[] writes, boolean randomWrite, int readableInstances, String failFasts) {
+        this.node = node;
+        this.reads = reads;
+        this.readLoads = readLoads;
+        this.rotateReads = rotateReads;
+        this.readFallbacks = readFallbacks;
+        this.writes = writes;
+        this.randomWrite = randomWrite;
+        if (node.getWriteStrategy() != NodeWriteStrategy.MUILTI_MASTER) {
+            this.writePolicy = MultiMasterWritePolicy.SEQUENTIAL;
+        } else {
+            this.writePolicy = node.getWritePolicy() != null ? node.getWritePolicy() : ParallelWrite.DEFAULT_POLICY;
+        }
+        this.readableInstances = readableInstances;
+        this.failFasts = failFasts;
+    }
+
+    static NodeRoute build(Node node) {
+        Set<String> failFasts = new TreeSet<>();
+        List<Instance> masters = NodeUtils.getMasters(node);
+        NodeWriteStrategy writeStrategy = node.getWriteStrategy();
+        List<Instance> writeInstances = writeStrategy == NodeWriteStrategy.MASTER && !masters.isEmpty()
+                ? Collections.singletonList(masters.get(0)) : masters;
+        boolean randomWrite = writeStrategy == NodeWriteStrategy.RANDOM;
+        IRedisDao[] writes = resolve(writeInstances, failFasts);
+
+        IRedisDao[] reads;
+        boolean rotateReads;
+        IRedisDao[] readFallbacks = EMPTY;
+        ReadLoad[] readLoads = null;
+        int readableInstances;
+        switch (node.getReadStrategy()) {
+            case ADAPTIVE:
+            case SLAVES:
+                List<Instance> slaves = NodeUtils.getSlaves(node);
+                reads = resolve(slaves, failFasts);
+                rotateReads = true;
+                readFallbacks = writes;
+                readableInstances = slaves.size() + (writeInstances.isEmpty() ? 0 : 1);
+                if (node.getReadStrategy() == NodeReadStrategy.ADAPTIVE) {
+                    readLoads = new ReadLoad[reads.length];
+                    for (int i = 0; i < reads.length; i++) {
+                        readLoads[i] = ReadLoad.of(reads[i].getHostPort());
+                    }
+                }
+                break;
+            case MASTER:
+                if (randomWrite) {
+                    reads = EMPTY;
+                    readFallbacks = writes;
+                } else {
+                    reads = writes;
+                }
+                rotateReads = false;
+                readableInstances = randomWrite ? Math.min(1, writeInstances.size()) : writeInstances.size();
+                break;
+            default:
+                List<Instance> actives = NodeUtils.findActiveInstances(node);
+                reads = resolve(actives, failFasts);
+                rotateReads = true;
+                readableInstances = actives.size();
+                break;
+        }
+        return new NodeRoute(node, reads, readLoads, rotateReads, readFallbacks, writes, randomWrite, readableInstances,
+                failFasts.isEmpty() ? "[]" : JsonUtils.toJSON(failFasts));
+    }
+
+    private static IRedisDao[] resolve(List<Instance> instances, Set<String> failFasts) {
+        List<IRedisDao> daos = new ArrayList<>(instances.size());
+        for (Instance instance : instances) {
+            String hostPort = instance.findHostPort();
+            IRedisDao redisDao = AbstractStoreProxy.getByHostPort(hostPort);
+            if (redisDao == null) {
+                continue;
+            }
+            if (FailFast.getFailFastSwitch() && FailFast.isFailFast(hostPort)) {
+                failFasts.add(hostPort);
+                continue;
+            }
+            daos.add(redisDao);
+        }
+        return daos.isEmpty() ? EMPTY : daos.toArray(new IRedisDao[daos.size()]);
+    }
+
+    Node getNode() {
+        return node;
+    }
+
+    /**
+     * 每次调用取一次，之后传给readDao/writeDao。
+     */
+    int nextSeed() {
+        return ThreadLocalRandom.current().nextInt(1 << 30);
+    }
+
+    /**
+     * 读命令的seed。ADAPTIVE策略下随机取两个slave，返回的seed使轮转从cost较低的一个开始(power of two choices)。
+     */
+    int nextReadSeed() {
+        int seed = nextSeed();
+        int length = reads.length;
+        if (readLoads == null || length < 2) {
+            return seed;
+        }
+        int first = seed % length;
+        int second = (first + 1 + (seed / length) % (length - 1)) % length;
+        int chosen = readLoads[second].cost() < readLoads[first].cost() ? second : first;
+        return seed - first + chosen;
+    }
+
+    int readCount(String hashKey) {
+        int count = reads.length + (readFallbacks.length > 0 ? 1 : 0);
+        if (count == 0) {
+            if (readableInstances == 0) {
+                throw new IllegalStateException("unable to find readable instances under node "
+                        + node.getClusterName() + "/" + node.getName() + " located by hashkey " + hashKey);
+            }
+            throw noRedisDao(hashKey);
+        }
+        return count;
+    }
+
+    IRedisDao readDao(int seed, int i) {
+        if (i < reads.length) {
+            return rotateReads ? reads[(seed + i) % reads.length] : reads[i];
+        }
+        return readFallbacks[seed % readFallbacks.length];
+    }
+
+    /**
+     * 非ADAPTIVE策略返回null。
+     */
+    ReadLoad readLoad(int seed, int i) {
+        if (readLoads == null) {
+            return null;
+        }
+        if (i < reads.length) {
+            return readLoads[(seed + i) % reads.length];
+        }
+        return ReadLoad.of(readFallbacks[seed % readFallbacks.length].getHostPort());
+    }
+
+    int writeCount(String hashKey) {
+        if (writes.length == 0) {
+            throw noRedisDao(hashKey);
+        }
+        return randomWrite ? 1 : writes.length;
+    }
+
+    MultiMasterWritePolicy getWritePolicy() {
+        return writePolicy;
+    }
+
+    IRedisDao writeDao(int seed, int i) {
+        return randomWrite ? writes[seed % writes.length] : writes[i];
+    }
+
+    List<IRedisDao> readDaos(String hashKey) {
+        int count = readCount(hashKey);
+        int seed = nextReadSeed();
+        List<IRedisDao> daoList = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            daoList.add(readDao(seed, i));
+        }
+        return daoList;
+    }
+
+    List<IRedisDao> writeDaos(String hashKey) {
+        int count = writeCount(hashKey);
+        int seed = nextSeed();
+        List<IRedisDao> daoList = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            daoList.add(writeDao(seed, i));
+        }
+        return daoList;
+    }
+
+    private IllegalStateException noRedisDao(String hashKey) {
+        return new IllegalStateException(
+                "the redis dao is not exist...please check it: the key is:"
+                        + hashKey + "the node is: " + node.getClusterName()
+                        + ":" + node.getName()
+                        + " the failFast instance is:"
+                        + failFasts);
+    }
+}
@@ -0,0 +1,115 @@
+package com.redis.store.proxy;
+
+import com.redis.store.constants.Constants;
+import com.redis.store.constants.MultiMasterWritePolicy;
+import com.redis.store.service.NamedThreadFactory;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * MUILTI_MASTER并行写的集群级执行线程池，以及按完成策略统计各master结果的Acks。
+ * <p/>
+ * 线程数不超过各master连接池maxTotal之和(最多MAX_THREADS)，更多的线程只会阻塞在借连接上；
+ * 线程用尽时提交被拒绝(AbortPolicy)，由调用方把该master的写计为失败。
+ */
+final class ParallelWrite {
+
+    static final MultiMasterWritePolicy DEFAULT_POLICY =
+            MultiMasterWritePolicy.valueof(System.getProperty(Constants.REDIS_CONFIG_MULTI_MASTER_WRITE_POLICY_KEY, "sequential"));
+
+    /** 连接池maxTotal不限制时的上限 */
+    private static final int MAX_THREADS = 512;
+
+    private static final ConcurrentMap<String, ParallelWrite> PARALLEL_WRITES = new ConcurrentHashMap<>();
+
+    private final ExecutorService executor;
+
+    private ParallelWrite(String clusterName, int maxThreads) {
+        this.executor = new ThreadPoolExecutor(0, maxThreads, 60L, TimeUnit.SECONDS, new SynchronousQueue<Runnable>(),
+                new NamedThreadFactory("ParallelWrite-" + clusterName, true), new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    /**
+     * @param maxTotal 每个实例连接池的maxTotal，小于等于0表示不限制
+     * @param masters  集群中master实例的个数
+     */
+    static ParallelWrite of(String clusterName, int maxTotal, int masters) {
+        ParallelWrite parallelWrite = PARALLEL_WRITES.get(clusterName);
+        if (parallelWrite == null) {
+            long maxThreads = maxTotal > 0 ? (long) maxTotal * Math.max(masters, 1) : MAX_THREADS;
+            parallelWrite = new ParallelWrite(clusterName, (int) Math.min(maxThreads, MAX_THREADS));
+            ParallelWrite _parallelWrite = PARALLEL_WRITES.putIfAbsent(clusterName, parallelWrite);
+            if (_parallelWrite != null) {
+                parallelWrite.executor.shutdown();
+                parallelWrite = _parallelWrite;
+            }
+        }
+        return parallelWrite;
+    }
+
+    ExecutorService getExecutor() {
+        return executor;
+    }
+
+    static int required(MultiMasterWritePolicy policy, int masters) {
+        switch (policy) {
+            case FIRST_ACK:
+                return 1;
+            case QUORUM:
+                return masters / 2 + 1;
+            default:
+                return masters;
+        }
+    }
+
+    /**
+     * 成功数达到required时以该次的返回值完成；剩余实例全部成功也不可能达到required时以该次异常完成。
+     */
+    static final class Acks<T> {
+
+        private final CompletableFuture<T> result = new CompletableFuture<>();
+
+        private final int total;
+
+        private final int required;
+
+        private int succeeded;
+
+        private int failed;
+
+        Acks(int total, int required) {
+            this.total = total;
+            this.required = required;
+        }
+
+        CompletableFuture<T> getResult() {
+            return result;
+        }
+
+        void succeed(T value) {
+            boolean done;
+            synchronized (this) {
+                done = ++succeeded == required;
+            }
+            if (done) {
+                result.complete(value);
+            }
+        }
+
+        void fail(Throwable e) {
+            boolean done;
+            synchronized (this) {
+                done = total - ++failed == required - 1;
+            }
+            if (done) {
+                result.completeExceptionally(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package com.redis.store.proxy;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 单个实例的读负载：按时间衰减的EWMA延迟和正在执行的命令数，供ADAPTIVE读策略比较两个候选实例。
+ * <p/>
+ * cost = ewma * (inFlight + 1)，慢实例和排队多的实例都会变贵；失败按不低于FAILURE_PENALTY_MICROS记录，
+ * 随后按DECAY_NANOS衰减，实例恢复后会逐渐重新分到读请求。并发更新有少量丢失，不影响选择。
+ */
+final class ReadLoad {
+
+    private static final long DECAY_NANOS = 10_000_000_000L;
+
+    private static final double FAILURE_PENALTY_MICROS = 1_000_000;
+
+    private static final ConcurrentMap<String, ReadLoad> READ_LOADS = new ConcurrentHashMap<>();
+
+    private final AtomicInteger inFlight = new AtomicInteger(0);
+
+    private volatile double ewmaMicros;
+
+    private volatile long lastUpdateNanos = System.nanoTime();
+
+    private ReadLoad() {
+    }
+
+    static ReadLoad of(String hostPort) {
+        ReadLoad load = READ_LOADS.get(hostPort);
+        if (load == null) {
+            load = new ReadLoad();
+            ReadLoad _load = READ_LOADS.putIfAbsent(hostPort, load);
+            if (_load != null) {
+                load = _load;
+            }
+        }
+        return load;
+    }
+
+    long start() {
+        inFlight.incrementAndGet();
+        return System.nanoTime();
+    }
+
+    void end(long startNanos, boolean succeed) {
+        long now = System.nanoTime();
+        inFlight.decrementAndGet();
+        double micros = (now - startNanos) / 1000.0;
+        if (!succeed) {
+            micros = Math.max(micros, FAILURE_PENALTY_MICROS);
+        }
+        double weight = 1 - Math.exp(-(double) Math.max(now - lastUpdateNanos, 0) / DECAY_NANOS);
+        double ewma = ewmaMicros;
+        // 比当前均值慢时立即生效(peak EWMA)，否则按经过的时间平滑
+        ewmaMicros = micros > ewma ? micros : ewma + (micros - ewma) * weight;
+        lastUpdateNanos = now;
+    }
+
+    double cost() {
+        double ewma = ewmaMicros;
+        long idle = System.nanoTime() - lastUpdateNanos;
+        if (idle > DECAY_NANOS) {
+            // 长时间没有请求(例如之前被判定为慢)，让其重新有机会被选中
+            ewma *= Math.exp(-(double) idle / DECAY_NANOS);
+        }
+        return ewma * (inFlight.get() + 1);
+    }
+
+    int getInFlight() {
+        return inFlight.get();
+    }
+
+    double getEwmaMicros() {
+        return ewmaMicros;
+    }
+}
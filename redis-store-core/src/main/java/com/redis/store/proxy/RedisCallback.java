@@ -0,0 +1,12 @@
+package com.redis.store.proxy;
+
+import com.redis.store.dao.IRedisDao;
+
+/**
+ * 在选定的IRedisDao上执行一条命令。E为命令可能抛出的受检异常，直接调用时推断为RuntimeException。
+ */
+@FunctionalInterface
+interface RedisCallback<T, E extends Exception> {
+
+    T doInRedis(IRedisDao dao) throws E;
+}
@@ -5,9 +5,12 @@ import com.redis.store.cluster.Instance;
 import com.redis.store.cluster.Node;
 import com.redis.store.cluster.NodeUtils;
 import com.redis.store.constants.ClusterType;
+import com.redis.store.constants.Constants;
 import com.redis.store.constants.NodeStatus;
+import com.redis.store.constants.RedisTransport;
 import com.redis.store.dao.IRedisDao;
 import com.redis.store.monitor.JedisPoolConnMonitorTask;
+import com.redis.store.monitor.RedisStoreMonitor;
 import com.redis.store.util.JsonUtils;
 import org.apache.commons.collections.CollectionUtils;
 import org.apache.log4j.Logger;
@@ -31,13 +34,23 @@ public class RedisConfigStoreProxy extends AbstractStoreProxy {
 
     private static final Map<String, RedisConfigStoreProxy> CLUSTER_MAP = new ConcurrentHashMap<>();
 
+    private static final RedisTransport DEFAULT_TRANSPORT = RedisTransport.valueof(System.getProperty(Constants.REDIS_CONFIG_REDIS_TRANSPORT_KEY, RedisTransport.POOLED.toString()));
+
     static {
 
         RetryCreateRedisDaoTask retryTask = new RetryCreateRedisDaoTask(CLUSTER_MAP, REDIS_DAO_MAP);
         retryTask.start();
 
-        JedisPoolConnMonitorTask monitorTask = new JedisPoolConnMonitorTask(REDIS_DAO_MAP);
+        JedisPoolConnMonitorTask monitorTask = new JedisPoolConnMonitorTask(REDIS_DAO_MAP, FailFast::isFailFast);
         monitorTask.start();
+
+        FailFast.addStateListener((hostPort, failFast) -> rebuildAllRoutingTables());
+    }
+
+    static void rebuildAllRoutingTables() {
+        for (RedisConfigStoreProxy proxy : CLUSTER_MAP.values()) {
+            proxy.rebuildRoutingTable();
+        }
     }
 
     public synchronized static RedisConfigStoreProxy getProxyInstance(String clusterName) {
@@ -49,10 +62,18 @@ public class RedisConfigStoreProxy extends AbstractStoreProxy {
     }
 
     public synchronized static RedisConfigStoreProxy getProxyInstance(String clusterName, JedisPoolConfig poolConfig, int poolInitConnNum, ClusterType clusterType, String password) {
+        return getProxyInstance(clusterName, poolConfig, poolInitConnNum, clusterType, password, DEFAULT_TRANSPORT);
+    }
+
+    /**
+     * transport指定该集群访问redis实例的方式。实例的连接由第一个使用它的集群创建，多个集群共用同一实例时以先创建的为准。
+     */
+    public synchronized static RedisConfigStoreProxy getProxyInstance(String clusterName, JedisPoolConfig poolConfig, int poolInitConnNum, ClusterType clusterType, String password,
+                                                                      RedisTransport transport) {
         if (!CLUSTER_MAP.containsKey(clusterName)) {
             RedisConfigStoreProxy proxy;
             try {
-                proxy = new RedisConfigStoreProxy(clusterName, password, poolConfig, poolInitConnNum, 2000, clusterType);
+                proxy = new RedisConfigStoreProxy(clusterName, password, poolConfig, poolInitConnNum, 2000, clusterType, transport);
             } catch (Exception e) {
                 throw new RuntimeException("unable to create RedisConfigStoreProxy by cluster name "
                         + clusterName + " and type " + clusterType + ", using null object instead", e);
@@ -63,8 +84,9 @@ public class RedisConfigStoreProxy extends AbstractStoreProxy {
     }
 
 
-    private RedisConfigStoreProxy(String clusterName, String password/*cacheGroupId*/, JedisPoolConfig poolConfig, int poolInitConnNum, int timeout, ClusterType clusterType) {
-        super(clusterName, password, poolConfig, poolInitConnNum, timeout, clusterType);
+    private RedisConfigStoreProxy(String clusterName, String password/*cacheGroupId*/, JedisPoolConfig poolConfig, int poolInitConnNum, int timeout, ClusterType clusterType,
+                                  RedisTransport transport) {
+        super(clusterName, password, poolConfig, poolInitConnNum, timeout, clusterType, transport);
     }
 
     // 获取节点读写连接池
@@ -118,6 +140,13 @@ public class RedisConfigStoreProxy extends AbstractStoreProxy {
         return activeSlaveInstances;
     }
 
+    @Override
+    void onRedisDaoChanged() {
+        // 初始化中的proxy尚未放入CLUSTER_MAP，由clusterRehash生成首个快照
+        rebuildAllRoutingTables();
+        RedisStoreMonitor.retainHostPorts(REDIS_DAO_MAP.keySet());
+    }
+
     public Node getNode(String hashKey) {
         Node node = hashLocator.getHashNode(hashKey);
         if (node == null) {
@@ -139,12 +168,7 @@ public class RedisConfigStoreProxy extends AbstractStoreProxy {
     }
 
     public List<IRedisDao> getReadableRedisDaos(String hashkey, Node node) {
-        List<Instance> instances = NodeUtils.findReadInstance(node);
-        if (CollectionUtils.isEmpty(instances)) {
-            throw new IllegalStateException("unable to find readable instances under node "
-                    + node.getClusterName() + "/" + node.getName() + " located by hashkey " + hashkey);
-        }
-        return getRedisDaoByKey(hashkey, node, instances);
+        return getRoute(node).readDaos(hashkey);
     }
 
     /**
@@ -179,8 +203,7 @@ public class RedisConfigStoreProxy extends AbstractStoreProxy {
                             + ":" + node.getName());
         }
 
-        List<Instance> instances = NodeUtils.findWriteInstances(node);
-        return getRedisDaoByKey(hashKey, node, instances);
+        return getRoute(node).writeDaos(hashKey);
     }
 
     public List<IRedisDao> getRedisDaoByKey(String hashKey, Node node, List<Instance> instances) {
@@ -0,0 +1,38 @@
+package com.redis.store.proxy;
+
+import com.redis.store.cluster.Cluster;
+import com.redis.store.cluster.Node;
+
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * 集群路由快照：Node -> NodeRoute，创建后不可变，拓扑、实例状态或FailFast变化时整体重建并替换。
+ */
+final class RoutingTable {
+
+    static final RoutingTable EMPTY = new RoutingTable(new IdentityHashMap<>());
+
+    private final Map<Node, NodeRoute> routes;
+
+    private RoutingTable(Map<Node, NodeRoute> routes) {
+        this.routes = routes;
+    }
+
+    static RoutingTable build(Cluster cluster) {
+        Map<Node, NodeRoute> routes = new IdentityHashMap<>();
+        for (Node node : cluster.getNodeList()) {
+            routes.put(node, NodeRoute.build(node));
+        }
+        return new RoutingTable(routes);
+    }
+
+    NodeRoute get(Node node) {
+        NodeRoute route = routes.get(node);
+        if (route == null) {
+            // node在快照发布前已被hashLocator使用，临时构建一次
+            route = NodeRoute.build(node);
+        }
+        return route;
+    }
+}
@@ -0,0 +1,127 @@
+package com.redis.store.proxy;
+
+import com.redis.store.dao.BatchResponse;
+import com.redis.store.dao.IShardedBatch;
+import com.redis.store.dao.ShardedResult;
+import com.redis.store.executor.IPipelineCommand;
+import redis.clients.jedis.Response;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * IShardedBatch的实现：每个node的命令在该node写实例的一个Pipeline中执行，各node通过AsyncDispatcher并行。
+ */
+final class ShardedBatch implements IShardedBatch {
+
+    private final RedisConfigStoreProxy configProxy;
+
+    private final AbstractFactory factory;
+
+    private final AsyncDispatcher dispatcher;
+
+    private final List<String> hashKeys = new ArrayList<>();
+
+    private final List<Entry<?>> entries = new ArrayList<>();
+
+    private boolean executed;
+
+    ShardedBatch(RedisConfigStoreProxy configProxy, AbstractFactory factory, AsyncDispatcher dispatcher) {
+        this.configProxy = configProxy;
+        this.factory = factory;
+        this.dispatcher = dispatcher;
+    }
+
+    @Override
+    public <T> BatchResponse<T> add(String hashKey, IPipelineCommand<T> command) {
+        if (executed) {
+            throw new IllegalStateException("the batch has been executed");
+        }
+        if (hashKey == null) {
+            throw new NullPointerException("hashKey");
+        }
+        Entry<T> entry = new Entry<>(command);
+        hashKeys.add(hashKey);
+        entries.add(entry);
+        return entry.response;
+    }
+
+    @Override
+    public int size() {
+        return entries.size();
+    }
+
+    @Override
+    public ShardedResult<Object> execute(long timeoutMillis) {
+        if (executed) {
+            throw new IllegalStateException("the batch has been executed");
+        }
+        executed = true;
+
+        ShardedResult<Object> result = new ShardedResult<>(hashKeys);
+        List<ShardedStoreDao.Shard> shards = ShardedStoreDao.groupByNode(configProxy, hashKeys);
+        List<CompletableFuture<Object[]>> futures = new ArrayList<>(shards.size());
+        for (ShardedStoreDao.Shard shard : shards) {
+            // IPipelineCommand不暴露key，near cache只能整体清空
+            futures.add(factory.writeAsync(dispatcher, shard.hashKey, "pipeline", null, dao -> {
+                Response<?>[] responses = new Response<?>[shard.indexes.size()];
+                dao.pipeline(pipeline -> {
+                    for (int i = 0; i < responses.length; i++) {
+                        responses[i] = entries.get(shard.indexes.get(i)).command.apply(pipeline);
+                    }
+                    return true;
+                });
+                // 单条命令的错误(如WRONGTYPE)只影响该命令
+                Object[] replies = new Object[responses.length];
+                for (int i = 0; i < responses.length; i++) {
+                    try {
+                        replies[i] = responses[i].get();
+                    } catch (Exception e) {
+                        replies[i] = e;
+                    }
+                }
+                return replies;
+            }));
+        }
+
+        ShardedStoreDao.gather(shards, futures, timeoutMillis, result, (shard, replies) -> {
+            for (int i = 0; i < replies.length; i++) {
+                int index = shard.indexes.get(i);
+                Object reply = replies[i];
+                if (reply instanceof Exception) {
+                    entries.get(index).response.setException((Exception) reply);
+                } else {
+                    entries.get(index).complete(reply);
+                    result.set(index, reply);
+                }
+            }
+        });
+
+        for (ShardedStoreDao.Shard shard : shards) {
+            Exception failure = result.getNodeFailures().get(shard.nodeName);
+            if (failure != null) {
+                for (Integer index : shard.indexes) {
+                    entries.get(index).response.setException(failure);
+                }
+            }
+        }
+        return result;
+    }
+
+    private static final class Entry<T> {
+
+        private final IPipelineCommand<T> command;
+
+        private final BatchResponse<T> response = new BatchResponse<>();
+
+        private Entry(IPipelineCommand<T> command) {
+            this.command = command;
+        }
+
+        @SuppressWarnings("unchecked")
+        private void complete(Object reply) {
+            response.set((T) reply);
+        }
+    }
+}
@@ -0,0 +1,184 @@
+package com.redis.store.proxy;
+
+import com.redis.store.cluster.Node;
+import com.redis.store.dao.IShardedBatch;
+import com.redis.store.dao.IShardedStoreDao;
+import com.redis.store.dao.ShardedResult;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+/**
+ * IShardedStoreDao的实现：按node分组，每组通过AsyncDispatcher发出一条命令，再按请求顺序收集结果。
+ */
+final class ShardedStoreDao implements IShardedStoreDao {
+
+    private final RedisConfigStoreProxy configProxy;
+
+    private final AbstractFactory factory;
+
+    private final AsyncDispatcher dispatcher;
+
+    ShardedStoreDao(RedisConfigStoreProxy configProxy, AbstractFactory factory, AsyncDispatcher dispatcher) {
+        this.configProxy = configProxy;
+        this.factory = factory;
+        this.dispatcher = dispatcher;
+    }
+
+    @Override
+    public ShardedResult<String> mget(Map<String, String> keyHashKeys, long timeoutMillis) {
+        return mget(new ArrayList<>(keyHashKeys.keySet()), keyHashKeys::get, timeoutMillis);
+    }
+
+    @Override
+    public ShardedResult<String> mget(List<String> keys, Function<String, String> hashKeyFunction, long timeoutMillis) {
+        ShardedResult<String> result = new ShardedResult<>(keys);
+        List<Shard> shards = groupByNode(configProxy, hashKeys(keys, hashKeyFunction));
+        List<CompletableFuture<List<String>>> futures = new ArrayList<>(shards.size());
+        for (Shard shard : shards) {
+            String[] shardKeys = shard.select(keys);
+            futures.add(factory.readAsync(dispatcher, shard.hashKey, "mget", null, dao -> dao.mget(shardKeys)));
+        }
+        gather(shards, futures, timeoutMillis, result, (shard, values) -> {
+            for (int i = 0; i < shard.indexes.size(); i++) {
+                result.set(shard.indexes.get(i), values.get(i));
+            }
+        });
+        return result;
+    }
+
+    @Override
+    public ShardedResult<Boolean> mset(Map<String, String> keyValues, Function<String, String> hashKeyFunction, long timeoutMillis) {
+        List<String> keys = new ArrayList<>(keyValues.keySet());
+        ShardedResult<Boolean> result = new ShardedResult<>(keys);
+        List<Shard> shards = groupByNode(configProxy, hashKeys(keys, hashKeyFunction));
+        List<CompletableFuture<String>> futures = new ArrayList<>(shards.size());
+        for (Shard shard : shards) {
+            String[] shardKeys = shard.select(keys);
+            String[] keysvalues = new String[shardKeys.length * 2];
+            for (int i = 0; i < shardKeys.length; i++) {
+                keysvalues[2 * i] = shardKeys[i];
+                keysvalues[2 * i + 1] = keyValues.get(shardKeys[i]);
+            }
+            futures.add(factory.writeKeysAsync(dispatcher, shard.hashKey, "mset", shardKeys, dao -> dao.mset(keysvalues)));
+        }
+        gather(shards, futures, timeoutMillis, result, (shard, reply) -> markSucceed(result, shard));
+        return result;
+    }
+
+    @Override
+    public ShardedResult<Boolean> del(Map<String, String> keyHashKeys, long timeoutMillis) {
+        return del(new ArrayList<>(keyHashKeys.keySet()), keyHashKeys::get, timeoutMillis);
+    }
+
+    @Override
+    public ShardedResult<Boolean> del(List<String> keys, Function<String, String> hashKeyFunction, long timeoutMillis) {
+        ShardedResult<Boolean> result = new ShardedResult<>(keys);
+        List<Shard> shards = groupByNode(configProxy, hashKeys(keys, hashKeyFunction));
+        List<CompletableFuture<Long>> futures = new ArrayList<>(shards.size());
+        for (Shard shard : shards) {
+            String[] shardKeys = shard.select(keys);
+            futures.add(factory.writeKeysAsync(dispatcher, shard.hashKey, "del", shardKeys, dao -> dao.del(shardKeys)));
+        }
+        gather(shards, futures, timeoutMillis, result, (shard, deleted) -> markSucceed(result, shard));
+        return result;
+    }
+
+    @Override
+    public IShardedBatch newBatch() {
+        return new ShardedBatch(configProxy, factory, dispatcher);
+    }
+
+    private static List<String> hashKeys(List<String> keys, Function<String, String> hashKeyFunction) {
+        List<String> hashKeys = new ArrayList<>(keys.size());
+        for (String key : keys) {
+            String hashKey = hashKeyFunction.apply(key);
+            if (hashKey == null) {
+                throw new NullPointerException("hashKey of key " + key);
+            }
+            hashKeys.add(hashKey);
+        }
+        return hashKeys;
+    }
+
+    /**
+     * 按node分组，组内保留下标在请求中的先后顺序。
+     */
+    static List<Shard> groupByNode(RedisConfigStoreProxy configProxy, List<String> hashKeys) {
+        Map<String, Shard> shards = new LinkedHashMap<>();
+        for (int i = 0; i < hashKeys.size(); i++) {
+            String hashKey = hashKeys.get(i);
+            if (hashKey == null) {
+                throw new NullPointerException("hashKey");
+            }
+            Node node = configProxy.getNode(hashKey);
+            Shard shard = shards.get(node.getName());
+            if (shard == null) {
+                shard = new Shard(node.getName(), hashKey);
+                shards.put(node.getName(), shard);
+            }
+            shard.indexes.add(i);
+        }
+        return new ArrayList<>(shards.values());
+    }
+
+    /**
+     * 所有node共用同一个截止时间，即每个node最多等待timeoutMillis。
+     */
+    static <R, T> void gather(List<Shard> shards, List<CompletableFuture<R>> futures, long timeoutMillis,
+                               ShardedResult<T> result, BiConsumer<Shard, R> collector) {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        for (int i = 0; i < shards.size(); i++) {
+            Shard shard = shards.get(i);
+            try {
+                R reply = futures.get(i).get(Math.max(0L, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+                collector.accept(shard, reply);
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause();
+                result.fail(shard.nodeName, shard.indexes, cause instanceof Exception ? (Exception) cause : e);
+            } catch (TimeoutException e) {
+                result.fail(shard.nodeName, shard.indexes, new TimeoutException("the node " + shard.nodeName + " timed out after " + timeoutMillis + "ms"));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                result.fail(shard.nodeName, shard.indexes, e);
+            }
+        }
+    }
+
+    private static void markSucceed(ShardedResult<Boolean> result, Shard shard) {
+        for (Integer index : shard.indexes) {
+            result.set(index, Boolean.TRUE);
+        }
+    }
+
+    static final class Shard {
+
+        final String nodeName;
+
+        // 组内第一个key的hashKey，用于定位node
+        final String hashKey;
+
+        final List<Integer> indexes = new ArrayList<>();
+
+        private Shard(String nodeName, String hashKey) {
+            this.nodeName = nodeName;
+            this.hashKey = hashKey;
+        }
+
+        String[] select(List<String> keys) {
+            String[] selected = new String[indexes.size()];
+            for (int i = 0; i < selected.length; i++) {
+                selected[i] = keys.get(indexes.get(i));
+            }
+            return selected;
+        }
+    }
+}
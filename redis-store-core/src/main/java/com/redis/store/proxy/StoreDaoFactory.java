@@ -1,5 +1,8 @@
 package com.redis.store.proxy;
 
+import com.redis.store.constants.Constants;
+import com.redis.store.dao.IAsyncStoreDao;
+import com.redis.store.dao.IShardedStoreDao;
 import com.redis.store.dao.IStoreDao;
 import redis.clients.jedis.JedisPoolConfig;
 
@@ -10,6 +13,9 @@ import static com.redis.store.proxy.DefaultJedisPoolConfig.CONFIG_MEDIUM;
 
 public class StoreDaoFactory extends AbstractFactory {
 
+    // 打开后退回到基于java.lang.reflect.Proxy的实现
+    private static final boolean REFLECT_PROXY_SWITCH = System.getProperty(Constants.REDIS_CONFIG_REFLECT_PROXY_SWITCH_KEY, "off").equals("on");
+
     private StoreDaoFactory(RedisConfigStoreProxy configProxy) {
         this(configProxy, RedisInvocationListener.EMPTY);
     }
@@ -23,7 +29,38 @@ public class StoreDaoFactory extends AbstractFactory {
     }
 
     public static IStoreDao createStoreDao(String clusterName, JedisPoolConfig jedisPoolConfig, RedisInvocationListener listener) {
+        if (REFLECT_PROXY_SWITCH) {
+            return createProxyStoreDao(clusterName, jedisPoolConfig, listener);
+        }
+        RedisConfigStoreProxy configProxy = RedisConfigStoreProxy.getProxyInstance(clusterName, jedisPoolConfig, 0);
+        return new StoreDaoRouter(new StoreDaoFactory(configProxy, listener));
+    }
+
+    public static IStoreDao createProxyStoreDao(String clusterName, JedisPoolConfig jedisPoolConfig, RedisInvocationListener listener) {
         RedisConfigStoreProxy configProxy = RedisConfigStoreProxy.getProxyInstance(clusterName, jedisPoolConfig, 0);
         return (IStoreDao) Proxy.newProxyInstance(StoreDaoFactory.class.getClassLoader(), new Class[]{IStoreDao.class}, new StoreDaoFactory(configProxy, listener));
     }
+
+    public static IAsyncStoreDao createAsyncStoreDao(String clusterName) {
+        return createAsyncStoreDao(clusterName, CONFIG_MEDIUM, RedisInvocationListener.EMPTY, AsyncDispatcher.DEFAULT_MAX_IN_FLIGHT);
+    }
+
+    /**
+     * @param maxInFlightPerInstance 每个实例同时执行的最大命令数，不应超过连接池的maxTotal
+     */
+    public static IAsyncStoreDao createAsyncStoreDao(String clusterName, JedisPoolConfig jedisPoolConfig, RedisInvocationListener listener, int maxInFlightPerInstance) {
+        RedisConfigStoreProxy configProxy = RedisConfigStoreProxy.getProxyInstance(clusterName, jedisPoolConfig, 0);
+        AsyncDispatcher dispatcher = AsyncDispatcher.of(clusterName, maxInFlightPerInstance);
+        return new AsyncStoreDaoRouter(new StoreDaoFactory(configProxy, listener), dispatcher);
+    }
+
+    public static IShardedStoreDao createShardedStoreDao(String clusterName) {
+        return createShardedStoreDao(clusterName, CONFIG_MEDIUM, RedisInvocationListener.EMPTY, AsyncDispatcher.DEFAULT_MAX_IN_FLIGHT);
+    }
+
+    public static IShardedStoreDao createShardedStoreDao(String clusterName, JedisPoolConfig jedisPoolConfig, RedisInvocationListener listener, int maxInFlightPerInstance) {
+        RedisConfigStoreProxy configProxy = RedisConfigStoreProxy.getProxyInstance(clusterName, jedisPoolConfig, 0);
+        AsyncDispatcher dispatcher = AsyncDispatcher.of(clusterName, maxInFlightPerInstance);
+        return new ShardedStoreDao(configProxy, new StoreDaoFactory(configProxy, listener), dispatcher);
+    }
 }
@@ -0,0 +1,689 @@
+package com.redis.store.proxy;
+
+import com.redis.store.dao.IStoreDao;
+import com.redis.store.executor.IExecutor;
+import org.apache.commons.lang3.tuple.Pair;
+import redis.clients.jedis.*;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 不依赖反射的IStoreDao实现，由IStoreDao与AbstractFactory中的READ_METHODS生成。
+ * <p/>
+ * 每个方法直接调用IRedisDao上的同名方法，读写分类在生成时确定，省去了动态代理的参数拷贝、方法签名拼接以及Method.invoke。
+ * IStoreDao或READ_METHODS变更时需要同步修改本类。
+ */
+final class StoreDaoRouter implements IStoreDao {
+
+    private final AbstractFactory factory;
+
+    StoreDaoRouter(AbstractFactory factory) {
+        this.factory = factory;
+    }
+
+    @Override
+    public List<String> blpop(String hashKey, String key, int timeout) {
+        return factory.write(hashKey, "blpop", key, dao -> dao.blpop(key, timeout));
+    }
+
+    @Override
+    public List<String> blpop(String hashKey, int timeout, String... keys) {
+        return factory.writeKeys(hashKey, "blpop", keys, dao -> dao.blpop(timeout, keys));
+    }
+
+    @Override
+    public Long del(String hashKey, String key) {
+        return factory.write(hashKey, "del", key, dao -> dao.del(key));
+    }
+
+    @Override
+    public byte[] dump(String hashKey, byte[] key) {
+        return factory.write(hashKey, "dump", key, dao -> dao.dump(key));
+    }
+
+    @Override
+    public boolean exists(String hashKey, String key) {
+        return factory.read(hashKey, "exists", key, dao -> dao.exists(key));
+    }
+
+    @Override
+    public String rename(String hashKey, String key, String newKey) {
+        return factory.write(hashKey, "rename", key, dao -> dao.rename(key, newKey));
+    }
+
+    @Override
+    public Long renamenx(String hashKey, String key, String newKey) {
+        return factory.write(hashKey, "renamenx", key, dao -> dao.renamenx(key, newKey));
+    }
+
+    @Override
+    public String restore(String hashKey, byte[] key, int ttl, byte[] serializedValue) {
+        return factory.write(hashKey, "restore", key, dao -> dao.restore(key, ttl, serializedValue));
+    }
+
+    @Override
+    public Long expire(String hashKey, String key, int seconds) {
+        return factory.write(hashKey, "expire", key, dao -> dao.expire(key, seconds));
+    }
+
+    @Override
+    public Long expire(String hashKey, byte[] key, int seconds) {
+        return factory.write(hashKey, "expire", key, dao -> dao.expire(key, seconds));
+    }
+
+    @Override
+    public String get(String hashKey, String key) {
+        return factory.cachedRead(hashKey, "get", key, null, dao -> dao.get(key));
+    }
+
+    @Override
+    public byte[] get(String hashKey, byte[] key) {
+        return factory.read(hashKey, "get", key, dao -> dao.get(key));
+    }
+
+    @Override
+    public Long hdel(String hashKey, String key, String fields) {
+        return factory.write(hashKey, "hdel", key, dao -> dao.hdel(key, fields));
+    }
+
+    @Override
+    public String hget(String hashKey, String key, String field) {
+        return factory.cachedRead(hashKey, "hget", key, field, dao -> dao.hget(key, field));
+    }
+
+    @Override
+    public boolean hexists(String hashKey, String key, String field) {
+        return factory.read(hashKey, "hexists", key, dao -> dao.hexists(key, field));
+    }
+
+    @Override
+    public Map<String, String> hgetAll(String hashKey, String key) {
+        return factory.cachedRead(hashKey, "hgetall", key, null, dao -> dao.hgetAll(key));
+    }
+
+    @Override
+    public Long hinc(String hashKey, String key, String field, long val) {
+        return factory.write(hashKey, "hinc", key, dao -> dao.hinc(key, field, val));
+    }
+
+    @Override
+    public Double hincrByFloat(String hashKey, byte[] key, byte[] field, double increment) {
+        return factory.write(hashKey, "hincrbyfloat", key, dao -> dao.hincrByFloat(key, field, increment));
+    }
+
+    @Override
+    public Set<String> hkeys(String hashKey, String key) {
+        return factory.read(hashKey, "hkeys", key, dao -> dao.hkeys(key));
+    }
+
+    @Override
+    public long hlen(String hashKey, String key) {
+        return factory.read(hashKey, "hlen", key, dao -> dao.hlen(key));
+    }
+
+    @Override
+    public List<String> hmget(String hashKey, String key, String... fields) {
+        return factory.read(hashKey, "hmget", key, dao -> dao.hmget(key, fields));
+    }
+
+    @Override
+    public String hmset(String hashKey, String key, Map<String, String> map) {
+        return factory.write(hashKey, "hmset", key, dao -> dao.hmset(key, map));
+    }
+
+    @Override
+    public Long hset(String hashKey, String key, String field, String val) {
+        return factory.write(hashKey, "hset", key, dao -> dao.hset(key, field, val));
+    }
+
+    @Override
+    public Long inc(String hashKey, String key, long val) {
+        return factory.write(hashKey, "inc", key, dao -> dao.inc(key, val));
+    }
+
+    @Override
+    public Double incrByFloat(String hashKey, byte[] key, double increment) {
+        return factory.write(hashKey, "incrbyfloat", key, dao -> dao.incrByFloat(key, increment));
+    }
+
+    @Override
+    public Long decr(String hashKey, String key, long val) {
+        return factory.write(hashKey, "decr", key, dao -> dao.decr(key, val));
+    }
+
+    @Override
+    public byte[] lindex(String hashKey, byte[] key, int i) {
+        return factory.read(hashKey, "lindex", key, dao -> dao.lindex(key, i));
+    }
+
+    @Override
+    public String lindex(String hashKey, String key, int i) {
+        return factory.read(hashKey, "lindex", key, dao -> dao.lindex(key, i));
+    }
+
+    @Override
+    public long llen(String hashKey, byte[] key) {
+        return factory.read(hashKey, "llen", key, dao -> dao.llen(key));
+    }
+
+    @Override
+    public long llen(String hashKey, String key) {
+        return factory.read(hashKey, "llen", key, dao -> dao.llen(key));
+    }
+
+    @Override
+    public byte[] lpop(String hashKey, byte[] key) {
+        return factory.write(hashKey, "lpop", key, dao -> dao.lpop(key));
+    }
+
+    @Override
+    public String lpop(String hashKey, String key) {
+        return factory.write(hashKey, "lpop", key, dao -> dao.lpop(key));
+    }
+
+    @Override
+    public Long lpush(String hashKey, byte[] key, byte[] val) {
+        return factory.write(hashKey, "lpush", key, dao -> dao.lpush(key, val));
+    }
+
+    @Override
+    public Long lpush(String hashKey, String key, String val) {
+        return factory.write(hashKey, "lpush", key, dao -> dao.lpush(key, val));
+    }
+
+    @Override
+    public List<String> lrange(String hashKey, String key, int start, int end) {
+        return factory.read(hashKey, "lrange", key, dao -> dao.lrange(key, start, end));
+    }
+
+    @Override
+    public Long lrem(String hashKey, String key, long count, String value) {
+        return factory.write(hashKey, "lrem", key, dao -> dao.lrem(key, count, value));
+    }
+
+    @Override
+    public String ltrim(String hashKey, String key, long start, long end) {
+        return factory.write(hashKey, "ltrim", key, dao -> dao.ltrim(key, start, end));
+    }
+
+    @Override
+    public List<String> mget(String hashKey, String... keys) {
+        return factory.read(hashKey, "mget", null, dao -> dao.mget(keys));
+    }
+
+    @Override
+    public String mset(String hashKey, String... keysvalues) {
+        return factory.writeKeys(hashKey, "mset", AbstractFactory.msetKeys(keysvalues), dao -> dao.mset(keysvalues));
+    }
+
+    @Override
+    public String psetex(String hashKey, byte[] key, int milliseconds, byte[] value) {
+        return factory.write(hashKey, "psetex", key, dao -> dao.psetex(key, milliseconds, value));
+    }
+
+    @Override
+    public Long publish(String hashKey, String channel, String message) {
+        return factory.write(hashKey, "publish", channel, dao -> dao.publish(channel, message));
+    }
+
+    @Override
+    public byte[] rpop(String hashKey, byte[] key) {
+        return factory.write(hashKey, "rpop", key, dao -> dao.rpop(key));
+    }
+
+    @Override
+    public String rpop(String hashKey, String key) {
+        return factory.write(hashKey, "rpop", key, dao -> dao.rpop(key));
+    }
+
+    @Override
+    public Long rpush(String hashKey, byte[] key, byte[] val) {
+        return factory.write(hashKey, "rpush", key, dao -> dao.rpush(key, val));
+    }
+
+    @Override
+    public Long rpush(String hashKey, String key, String val) {
+        return factory.write(hashKey, "rpush", key, dao -> dao.rpush(key, val));
+    }
+
+    @Override
+    public Long sadd(String hashKey, String key, String val) {
+        return factory.write(hashKey, "sadd", key, dao -> dao.sadd(key, val));
+    }
+
+    @Override
+    public Long sadd(String hashKey, String key, String[] members) {
+        return factory.write(hashKey, "sadd", key, dao -> dao.sadd(key, members));
+    }
+
+    @Override
+    public Long scard(String hashKey, String key) {
+        return factory.read(hashKey, "scard", key, dao -> dao.scard(key));
+    }
+
+    @Override
+    public String set(String hashKey, String key, String val) {
+        return factory.write(hashKey, "set", key, dao -> dao.set(key, val));
+    }
+
+    @Override
+    public String set(String hashKey, byte[] key, byte[] val) {
+        return factory.write(hashKey, "set", key, dao -> dao.set(key, val));
+    }
+
+    @Override
+    public String set(String hashKey, String key, String val, int expireSecond) {
+        return factory.write(hashKey, "set", key, dao -> dao.set(key, val, expireSecond));
+    }
+
+    @Override
+    public Long setnx(String hashKey, String key, String val) {
+        return factory.write(hashKey, "setnx", key, dao -> dao.setnx(key, val));
+    }
+
+    @Override
+    public boolean sismember(String hashKey, String key, String val) {
+        return factory.read(hashKey, "sismember", key, dao -> dao.sismember(key, val));
+    }
+
+    @Override
+    public Set<String> smembers(String hashKey, String key) {
+        return factory.cachedRead(hashKey, "smembers", key, null, dao -> dao.smembers(key));
+    }
+
+    @Override
+    public String spop(String hashKey, String key) {
+        return factory.write(hashKey, "spop", key, dao -> dao.spop(key));
+    }
+
+    @Override
+    public String srandmember(String hashKey, String key) {
+        return factory.read(hashKey, "srandmember", key, dao -> dao.srandmember(key));
+    }
+
+    @Override
+    public Long srem(String hashKey, String key, String val) {
+        return factory.write(hashKey, "srem", key, dao -> dao.srem(key, val));
+    }
+
+    @Override
+    public void pipeline(String hashKey, IExecutor<Pipeline> executor) {
+        factory.write(hashKey, "pipeline", null, dao -> {
+            dao.pipeline(executor);
+            return null;
+        });
+    }
+
+    @Override
+    public void pipeline(String hashKey, IExecutor<Pair<Pipeline, List<String>>> executor, List<String> keys) {
+        factory.writeKeys(hashKey, "pipeline", keys.toArray(new String[keys.size()]), dao -> {
+            dao.pipeline(executor, keys);
+            return null;
+        });
+    }
+
+    @Override
+    public void subscribe(String hashKey, JedisPubSub jedisPubSub, String... channel) {
+        factory.write(hashKey, "subscribe", null, dao -> {
+            dao.subscribe(jedisPubSub, channel);
+            return null;
+        });
+    }
+
+    @Override
+    public Long ttl(String hashKey, String key) {
+        return factory.read(hashKey, "ttl", key, dao -> dao.ttl(key));
+    }
+
+    @Override
+    public Long zadd(String hashKey, String key, double score, String member) {
+        return factory.write(hashKey, "zadd", key, dao -> dao.zadd(key, score, member));
+    }
+
+    @Override
+    public Long zadd(String hashKey, String key, Map<String, Double> scoreMembers) {
+        return factory.write(hashKey, "zadd", key, dao -> dao.zadd(key, scoreMembers));
+    }
+
+    @Override
+    public Long zcard(String hashKey, String key) {
+        return factory.read(hashKey, "zcard", key, dao -> dao.zcard(key));
+    }
+
+    @Override
+    public Long zcount(String hashKey, String key, double min, double max) {
+        return factory.read(hashKey, "zcount", key, dao -> dao.zcount(key, min, max));
+    }
+
+    @Override
+    public Double zincrby(String hashKey, String key, double increment, String member) {
+        return factory.write(hashKey, "zincrby", key, dao -> dao.zincrby(key, increment, member));
+    }
+
+    @Override
+    public Set<String> zrange(String hashkey, String key, int start, int stop) {
+        return factory.write(hashkey, "zrange", key, dao -> dao.zrange(key, start, stop));
+    }
+
+    @Override
+    @Deprecated
+    public Set<String> zrangeByOffset(String hashKey, String key, int offset, int count) {
+        return factory.read(hashKey, "zrangebyoffset", key, dao -> dao.zrangeByOffset(key, offset, count));
+    }
+
+    @Override
+    @Deprecated
+    public Set<Tuple> zrangeByOffsetWithScores(String hashKey, String key, int offset, int count) {
+        return factory.read(hashKey, "zrangebyoffsetwithscores", key, dao -> dao.zrangeByOffsetWithScores(key, offset, count));
+    }
+
+    @Override
+    public Set<Tuple> zrangeWithScores(String hashKey, String key, int start, int end) {
+        return factory.read(hashKey, "zrangewithscores", key, dao -> dao.zrangeWithScores(key, start, end));
+    }
+
+    @Override
+    public Set<Tuple> zrangeByScore(String hashKey, String key, double min, double max) {
+        return factory.read(hashKey, "zrangebyscore", key, dao -> dao.zrangeByScore(key, min, max));
+    }
+
+    @Override
+    public Set<Tuple> zrangeByScore(String hashKey, String key, double min, double max, int offset, int count) {
+        return factory.read(hashKey, "zrangebyscore", key, dao -> dao.zrangeByScore(key, min, max, offset, count));
+    }
+
+    @Override
+    public Set<Tuple> zrangeByScore(String hashKey, byte[] key, double min, double max, int offset, int count) {
+        return factory.read(hashKey, "zrangebyscore", key, dao -> dao.zrangeByScore(key, min, max, offset, count));
+    }
+
+    @Override
+    public Long zrank(String hashKey, String key, String member) {
+        return factory.read(hashKey, "zrank", key, dao -> dao.zrank(key, member));
+    }
+
+    @Override
+    public Long zrem(String hashKey, String key, String member) {
+        return factory.write(hashKey, "zrem", key, dao -> dao.zrem(key, member));
+    }
+
+    @Override
+    public Long zremrangeByScore(String hashKey, String key, double start, double end) {
+        return factory.write(hashKey, "zremrangebyscore", key, dao -> dao.zremrangeByScore(key, start, end));
+    }
+
+    @Override
+    public Long zremrangebyrank(String hashkey, String key, long start, long stop) {
+        return factory.write(hashkey, "zremrangebyrank", key, dao -> dao.zremrangebyrank(key, start, stop));
+    }
+
+    @Override
+    @Deprecated
+    public Long zremrangeByRank(String hashKey, String key, int offset, int count) {
+        return factory.write(hashKey, "zremrangebyrank", key, dao -> dao.zremrangebyrank(key, offset, offset + count - 1));
+    }
+
+    @Override
+    public Long zremrangebyrank(String hashKey, byte[] key, long start, long end) {
+        return factory.write(hashKey, "zremrangebyrank", key, dao -> dao.zremrangebyrank(key, start, end));
+    }
+
+    @Override
+    @Deprecated
+    public Set<String> zrevrange(String hashKey, String key, int offset, int count) {
+        return factory.read(hashKey, "zrevrange", key, dao -> dao.zrevrangeV2(key, offset, offset + count - 1));
+    }
+
+    @Override
+    public Set<String> zrevrangeV2(String hashKey, String key, int start, int end) {
+        return factory.read(hashKey, "zrevrangev2", key, dao -> dao.zrevrangeV2(key, start, end));
+    }
+
+    @Override
+    public Set<Tuple> zrevrangeByOffsetWithScores(String hashKey, String key, int offset, int count) {
+        return factory.write(hashKey, "zrevrangebyoffsetwithscores", key, dao -> dao.zrevrangeByOffsetWithScores(key, offset, count));
+    }
+
+    @Override
+    public Set<Tuple> zrevrangeWithScore(String hashKey, String key, int startIdx, int endIdx) {
+        return factory.read(hashKey, "zrevrangewithscore", key, dao -> dao.zrevrangeWithScore(key, startIdx, endIdx));
+    }
+
+    @Override
+    public Set<String> zrevrangeByScore(String hashkey, String key, double max, double min) {
+        return factory.read(hashkey, "zrevrangebyscore", key, dao -> dao.zrevrangeByScore(key, max, min));
+    }
+
+    @Override
+    public Set<Tuple> zrevrangeByScoreWithScores(String hashKey, String key, double max, double min) {
+        return factory.read(hashKey, "zrevrangebyscorewithscores", key, dao -> dao.zrevrangeByScoreWithScores(key, max, min));
+    }
+
+    @Override
+    public Set<String> zrevrangeByScore(String hashkey, String key, double max, double min, int offset, int count) {
+        return factory.read(hashkey, "zrevrangebyscore", key, dao -> dao.zrevrangeByScore(key, max, min, offset, count));
+    }
+
+    @Override
+    public Set<Tuple> zrevrangeByScoreWithScores(String hashKey, String key, double max, double min, int offset, int count) {
+        return factory.read(hashKey, "zrevrangebyscorewithscores", key, dao -> dao.zrevrangeByScoreWithScores(key, max, min, offset, count));
+    }
+
+    @Override
+    public Double zscore(String hashKey, String key, String member) {
+        return factory.read(hashKey, "zscore", key, dao -> dao.zscore(key, member));
+    }
+
+    @Override
+    public boolean setbit(String hashKey, String key, long offset, boolean value) {
+        return factory.write(hashKey, "setbit", key, dao -> dao.setbit(key, offset, value));
+    }
+
+    @Override
+    public boolean getbit(String hashKey, String key, long offset) {
+        return factory.read(hashKey, "getbit", key, dao -> dao.getbit(key, offset));
+    }
+
+    @Override
+    public String getSet(String hashKey, String key, String val) {
+        return factory.write(hashKey, "getset", key, dao -> dao.getSet(key, val));
+    }
+
+    @Override
+    public Long persist(String hashKey, byte[] key) {
+        return factory.write(hashKey, "persist", key, dao -> dao.persist(key));
+    }
+
+    @Override
+    public Long pexpire(String hashKey, byte[] key, int milliseconds) {
+        return factory.write(hashKey, "pexpire", key, dao -> dao.pexpire(key, milliseconds));
+    }
+
+    @Override
+    public Long pexpireAt(String hashKey, byte[] key, long millisecondsTimestamp) {
+        return factory.write(hashKey, "pexpireat", key, dao -> dao.pexpireAt(key, millisecondsTimestamp));
+    }
+
+    @Override
+    public Long pttl(String hashKey, byte[] key) {
+        return factory.write(hashKey, "pttl", key, dao -> dao.pttl(key));
+    }
+
+    @Override
+    public List<byte[]> hvals(String hashKey, byte[] key) {
+        return factory.write(hashKey, "hvals", key, dao -> dao.hvals(key));
+    }
+
+    @Override
+    public List<String> hvals(String hashKey, String key) {
+        return factory.write(hashKey, "hvals", key, dao -> dao.hvals(key));
+    }
+
+    @Override
+    public Long append(String hashKey, byte[] key, byte[] val) {
+        return factory.write(hashKey, "append", key, dao -> dao.append(key, val));
+    }
+
+    @Override
+    public Long bitcount(String hashKey, byte[] key, long start, long end) {
+        return factory.write(hashKey, "bitcount", key, dao -> dao.bitcount(key, start, end));
+    }
+
+    @Override
+    public Long bitop(String hashKey, BitOP op, byte[] destKey, byte[]... srcKeys) {
+        return factory.write(hashKey, "bitop", destKey, dao -> dao.bitop(op, destKey, srcKeys));
+    }
+
+    @Override
+    public Long linsert(String hashKey, byte[] key, BinaryClient.LIST_POSITION listPosition, byte[] pivot, byte[] value) {
+        return factory.write(hashKey, "linsert", key, dao -> dao.linsert(key, listPosition, pivot, value));
+    }
+
+    @Override
+    public Long lpushx(String hashKey, byte[] key, byte[] val) {
+        return factory.write(hashKey, "lpushx", key, dao -> dao.lpushx(key, val));
+    }
+
+    @Override
+    public String lset(String hashKey, byte[] key, int index, byte[] value) {
+        return factory.write(hashKey, "lset", key, dao -> dao.lset(key, index, value));
+    }
+
+    @Override
+    public Long rpushx(String hashKey, byte[] key, byte[] val) {
+        return factory.write(hashKey, "rpushx", key, dao -> dao.rpushx(key, val));
+    }
+
+    @Override
+    public Long setrange(String hashKey, byte[] key, long offset, byte[] val) {
+        return factory.write(hashKey, "setrange", key, dao -> dao.setrange(key, offset, val));
+    }
+
+    @Override
+    public Long strlen(String hashKey, byte[] key) {
+        return factory.write(hashKey, "strlen", key, dao -> dao.strlen(key));
+    }
+
+    @Override
+    public Long smove(String hashKey, byte[] srckey, byte[] dstkey, byte[] member) {
+        return factory.write(hashKey, "smove", srckey, dao -> dao.smove(srckey, dstkey, member));
+    }
+
+    @Override
+    public String type(String hashKey, byte[] key) {
+        return factory.write(hashKey, "type", key, dao -> dao.type(key));
+    }
+
+    @Override
+    public Long zinterstore(String hashKey, byte[] dstkey, byte[]... sets) {
+        return factory.write(hashKey, "zinterstore", dstkey, dao -> dao.zinterstore(dstkey, sets));
+    }
+
+    @Override
+    public Long zinterstore(String hashKey, byte[] dstkey, ZParams zParams, byte[]... sets) {
+        return factory.write(hashKey, "zinterstore", dstkey, dao -> dao.zinterstore(dstkey, zParams, sets));
+    }
+
+    @Override
+    public Set<byte[]> sdiff(String hashKey, byte[]... keys) {
+        return factory.write(hashKey, "sdiff", null, dao -> dao.sdiff(keys));
+    }
+
+    @Override
+    public Long sdiffstore(String hashKey, byte[] dstkey, byte[]... keys) {
+        return factory.write(hashKey, "sdiffstore", dstkey, dao -> dao.sdiffstore(dstkey, keys));
+    }
+
+    @Override
+    public Set<byte[]> sinter(String hashKey, byte[]... keys) {
+        return factory.write(hashKey, "sinter", null, dao -> dao.sinter(keys));
+    }
+
+    @Override
+    public Set<byte[]> sunion(String hashKey, byte[]... keys) {
+        return factory.write(hashKey, "sunion", null, dao -> dao.sunion(keys));
+    }
+
+    @Override
+    public Long zunionstore(String hashKey, byte[] dstkey, byte[]... sets) {
+        return factory.write(hashKey, "zunionstore", dstkey, dao -> dao.zunionstore(dstkey, sets));
+    }
+
+    @Override
+    public Long zunionstore(String hashKey, byte[] dstkey, ZParams zParams, byte[]... sets) {
+        return factory.write(hashKey, "zunionstore", dstkey, dao -> dao.zunionstore(dstkey, zParams, sets));
+    }
+
+    @Override
+    public Object eval(String hashKey, byte[] script, byte[] keyCount, byte[][] params) {
+        return factory.write(hashKey, "eval", script, dao -> dao.eval(script, keyCount, params));
+    }
+
+    @Override
+    public Object eval(String script, int keyCount, String... params) {
+        String hashKey = keyCount > 0 ? params[0] : script;
+        return factory.write(hashKey, "eval", script, dao -> dao.eval(script, keyCount, params));
+    }
+
+    @Override
+    public String scriptLoad(String hashkey, String script) {
+        return factory.write(hashkey, "scriptload", script, dao -> dao.scriptLoad(script));
+    }
+
+    @Override
+    public Object evalsha(String hashKey, String script, int keyCount, String... params) {
+        return factory.write(hashKey, "evalsha", script, dao -> dao.evalsha(script, keyCount, params));
+    }
+
+    @Override
+    public String getrange(String hashKey, byte[] key, long startOffset, long endOffset) {
+        return factory.write(hashKey, "getrange", key, dao -> dao.getrange(key, startOffset, endOffset));
+    }
+
+    @Override
+    public byte[] rpoplpush(String hashKey, byte[] key, byte[] dest) {
+        return factory.write(hashKey, "rpoplpush", key, dao -> dao.rpoplpush(key, dest));
+    }
+
+    @Override
+    public boolean hsetnx(String hashKey, String key, String field, String value) {
+        return factory.write(hashKey, "hsetnx", key, dao -> dao.hsetnx(key, field, value));
+    }
+
+    @Override
+    public Long sinterstore(String hashKey, String destination, String... keys) {
+        return factory.write(hashKey, "sinterstore", destination, dao -> dao.sinterstore(destination, keys));
+    }
+
+    @Override
+    public Long sunionstore(String hashKey, String destination, String... keys) {
+        return factory.write(hashKey, "sunionstore", destination, dao -> dao.sunionstore(destination, keys));
+    }
+
+    @Override
+    public Long zrevrank(String hashKey, byte[] key, byte[] member) {
+        return factory.write(hashKey, "zrevrank", key, dao -> dao.zrevrank(key, member));
+    }
+
+    @Override
+    public List<String> sort(String hashkey, String key) {
+        return factory.write(hashkey, "sort", key, dao -> dao.sort(key));
+    }
+
+    @Override
+    public List<String> sort(String hashkey, String key, SortingParams sortingParams) {
+        return factory.write(hashkey, "sort", key, dao -> dao.sort(key, sortingParams));
+    }
+
+    @Override
+    public Long sort(String hashkey, String key, SortingParams sortingParams, String dstkey) {
+        return factory.write(hashkey, "sort", key, dao -> dao.sort(key, sortingParams, dstkey));
+    }
+
+    @Override
+    public Long sort(String hashkey, String key, String dstkey) {
+        return factory.write(hashkey, "sort", key, dao -> dao.sort(key, dstkey));
+    }
+}
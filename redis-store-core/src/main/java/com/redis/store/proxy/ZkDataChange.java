@@ -14,6 +14,7 @@ import com.redis.store.listener.NodeChangedListener;
 import org.apache.log4j.Logger;
 
 import java.util.List;
+import java.util.Objects;
 
 /**
  * Author LTY
@@ -49,6 +50,7 @@ public class ZkDataChange implements ClusterChangedListener, NodeChangedListener
                 oldNode.getInstances().remove(instance);
                 oldNode.getInstances().add(newInstance);
             }
+            proxy.rebuildRoutingTable();
         } catch (Exception e) {
             LOGGER.error("fail to handle the instanceAdded event, the nodeName is:" + nodeName, e);
             return false;
@@ -74,6 +76,7 @@ public class ZkDataChange implements ClusterChangedListener, NodeChangedListener
 
             oldNode.getInstances().remove(oldInstance);
             proxy.removeJedisPoolByHostPort(oldInstance.findHostPort());
+            proxy.rebuildRoutingTable();
         } catch (Exception e) {
             LOGGER.error("fail to handle the instanceDeleted event. the nodeName is:" + nodeName, e);
         }
@@ -121,6 +124,7 @@ public class ZkDataChange implements ClusterChangedListener, NodeChangedListener
                     proxy.removeJedisPoolByHostPort(newInstance.findHostPort());
                 }
             }
+            proxy.rebuildRoutingTable();
         } catch (Exception e) {
             LOGGER.error("fail to handle the instanceDataChanged event, the nodeName is:" + nodeName, e);
         }
@@ -130,6 +134,7 @@ public class ZkDataChange implements ClusterChangedListener, NodeChangedListener
     @Override
     public boolean nodeAdd(Node newNode) {
         proxy.getCluster().addNode(newNode);
+        proxy.rebuildRoutingTable();
         return true;
     }
 
@@ -146,19 +151,35 @@ public class ZkDataChange implements ClusterChangedListener, NodeChangedListener
             }
 
             boolean rehashFlag = (oldNode.getStatus() != newNode.getStatus());
+            int oldWeight = oldNode.getPriority();
+            boolean weightChanged = (oldWeight != newNode.getPriority());
+            boolean rangeChanged = (oldNode.getStart() != newNode.getStart() || oldNode.getEnd() != newNode.getEnd());
             oldNode.setAddTime(newNode.getAddTime());
             oldNode.setLastModifyTime(newNode.getLastModifyTime());
             oldNode.setReadStrategy(newNode.getReadStrategy());
             oldNode.setWriteStrategy(newNode.getWriteStrategy());
+            oldNode.setWritePolicy(newNode.getWritePolicy());
             oldNode.setStatus(newNode.getStatus());
             oldNode.setStart(newNode.getStart());
             oldNode.setEnd(newNode.getEnd());
             oldNode.setWarmupBeginTime(newNode.getWarmupBeginTime());
+            oldNode.setPriority(newNode.getPriority());
+            if (rangeChanged) {
+                LOGGER.info("the node range is changed to [" + newNode.getStart() + ", " + newNode.getEnd() + ") the node name is:" + newNode.getName());
+                proxy.hashLocator.nodeRangeChanged();
+            }
+            if (weightChanged) {
+                LOGGER.info("the node weight is changed from " + oldWeight + " to " + newNode.getPriority() + " the node name is:" + newNode.getName());
+                proxy.hashLocator.nodeWeightChanged();
+            } else if (rehashFlag) {
+                proxy.hashLocator.nodeStatusChanged();
+            }
             if (rehashFlag && newNode.getStatus() == NodeStatus.ACTIVE) {
                 for (Instance instance : NodeUtils.findAliveInstances(newNode)) {
                     proxy.initJedisPool(instance, false);
                 }
             }
+            proxy.rebuildRoutingTable();
         } catch (Exception e) {
             LOGGER.error("fail to handle the nodeDataChanged event the node is:" + newNode.toString(), e);
             return false;
@@ -239,6 +260,11 @@ public class ZkDataChange implements ClusterChangedListener, NodeChangedListener
             // clusterRehash();
         }
 
+        if (!Objects.equals(proxy.getCluster().getSlotRanges(), newCluster.getSlotRanges())) {
+            // slot迁移需要先建连再切换，通过rehash(SYN/REHASH)流程加载新的slot分配表
+            LOGGER.info("the cluster slot ranges are changed, waiting for the rehash event... the new slot ranges is:" + newCluster.getSlotRanges());
+        }
+
     }
 }
 
@@ -10,6 +10,35 @@ public class Constants {
 
     public static final String REDIS_CONFIG_FAIL_FAST_SWITCH_KEY = "config.fail.fast.switch";
 
+    public static final String REDIS_CONFIG_REFLECT_PROXY_SWITCH_KEY = "config.reflect.proxy.switch";
+
+    public static final String REDIS_CONFIG_HEDGED_READ_SWITCH_KEY = "config.hedged.read.switch";
+    public static final String REDIS_CONFIG_HEDGED_READ_BUDGET_KEY = "config.hedged.read.budget";
+
+    public static final String REDIS_CONFIG_MULTI_MASTER_WRITE_POLICY_KEY = "config.multi.master.write.policy";
+
+    public static final String REDIS_CONFIG_NEAR_CACHE_SWITCH_KEY = "config.near.cache.switch";
+    public static final String REDIS_CONFIG_NEAR_CACHE_MAX_SIZE_KEY = "config.near.cache.max.size";
+    public static final String REDIS_CONFIG_NEAR_CACHE_TTL_KEY = "config.near.cache.ttl.ms";
+
+    public static final String REDIS_CONFIG_HOT_KEY_SWITCH_KEY = "config.hot.key.switch";
+    public static final String REDIS_CONFIG_HOT_KEY_SAMPLE_RATE_KEY = "config.hot.key.sample.rate";
+    public static final String REDIS_CONFIG_HOT_KEY_INTERVAL_KEY = "config.hot.key.interval.ms";
+
+    public static final String REDIS_CONFIG_BIG_VALUE_SWITCH_KEY = "config.big.value.switch";
+    public static final String REDIS_CONFIG_BIG_VALUE_SAMPLE_RATE_KEY = "config.big.value.sample.rate";
+    public static final String REDIS_CONFIG_BIG_VALUE_INTERVAL_KEY = "config.big.value.interval.ms";
+
+    public static final String REDIS_CONFIG_METRICS_JMX_SWITCH_KEY = "config.metrics.jmx.switch";
+    public static final String REDIS_CONFIG_METRICS_PROMETHEUS_PORT_KEY = "config.metrics.prometheus.port";
+
+    public static final String REDIS_CONFIG_REDIS_TRANSPORT_KEY = "config.redis.transport";
+    public static final String REDIS_CONFIG_MULTIPLEXED_CONNECTIONS_KEY = "config.multiplexed.connections";
+    public static final String REDIS_CONFIG_MULTIPLEXED_EVENT_LOOPS_KEY = "config.multiplexed.event.loops";
+
+    public static final String REDIS_CONFIG_STRIPED_POOL_SWITCH_KEY = "config.striped.pool.switch";
+    public static final String REDIS_CONFIG_BLOCKING_POOL_MAX_TOTAL_KEY = "config.blocking.pool.max.total";
+
     public static final String REDIS_STORE_VERSION = "1.1.0-SNAPSHOT";
 
     private Constants() {